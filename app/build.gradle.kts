@@ -47,12 +47,21 @@ dependencies {
     implementation(libs.material)
     implementation(libs.lifecycle.viewmodel)
     implementation(libs.lifecycle.livedata)
+    // viewModelScope，用于缓存分页数据
+    implementation(libs.lifecycle.viewmodel.ktx)
 
     // Room database dependencies
     implementation(libs.room.runtime)
     implementation(libs.androidx.junit)
     annotationProcessor(libs.room.compiler)
 
+    // WorkManager for background reminder maintenance
+    implementation(libs.work.runtime)
+
+    // Paging 3 for keyset-paginated diary and intake history lists
+    implementation(libs.paging.runtime)
+    implementation(libs.paging.guava)
+
     // PermissionX for runtime permissions
     implementation(libs.permissionx)
     // import MMKV
@@ -5,6 +5,13 @@ import android.os.Build;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.content.Context;
+import android.graphics.Color;
+
+import androidx.core.os.UserManagerCompat;
+
+import com.medication.reminders.view.ReminderReceiver;
+import com.medication.reminders.worker.ReminderHorizonWorker;
+import com.medication.reminders.worker.ReminderReconcileWorker;
 
 /**
  * Application class for MedicationReminders app
@@ -23,13 +30,26 @@ public class MedicationRemindersApplication extends Application {
 
         // 初始化通知通道
         createReminderChannel();
+
+        // 注册提醒实例补齐任务与闹钟对账任务，并立即补录一次漏服
+        // 直接启动模式（解锁前）WorkManager 的数据库不可用，解锁后再注册
+        if (UserManagerCompat.isUserUnlocked(this)) {
+            ReminderHorizonWorker.enqueue(this);
+            ReminderReconcileWorker.enqueue(this);
+            ReminderReconcileWorker.runOnce(this);
+        }
     }
 
+    /**
+     * 通知通道只在进程启动时创建一次，提醒发送时不再重复创建
+     */
     private void createReminderChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            String channelId = "medication_reminder_channel";
-            String name = "用药提醒";
-            NotificationChannel channel = new NotificationChannel(channelId, name, NotificationManager.IMPORTANCE_HIGH);
+            String name = getString(R.string.reminder_channel_name);
+            NotificationChannel channel = new NotificationChannel(ReminderReceiver.CHANNEL_ID, name, NotificationManager.IMPORTANCE_HIGH);
+            channel.enableLights(true);
+            channel.setLightColor(Color.GREEN);
+            channel.enableVibration(true);
             NotificationManager nm = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
             if (nm != null) {
                 nm.createNotificationChannel(channel);
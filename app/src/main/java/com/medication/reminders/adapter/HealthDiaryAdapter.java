@@ -7,6 +7,8 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.medication.reminders.R;
@@ -14,16 +16,29 @@ import com.medication.reminders.database.entity.HealthDiary;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
- * HealthDiaryAdapter - RecyclerView适配器，用于显示健康日记列表
+ * HealthDiaryAdapter - 分页RecyclerView适配器，用于显示健康日记列表
+ * 数据通过 submitData 按页提供，只持有已加载的页面
  * 为老年用户提供友好的界面设计，包含大字体和高对比度
  */
-public class HealthDiaryAdapter extends RecyclerView.Adapter<HealthDiaryAdapter.HealthDiaryViewHolder> {
+public class HealthDiaryAdapter extends PagingDataAdapter<HealthDiary, HealthDiaryAdapter.HealthDiaryViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<HealthDiary> DIFF_CALLBACK = new DiffUtil.ItemCallback<HealthDiary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HealthDiary oldItem, @NonNull HealthDiary newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull HealthDiary oldItem, @NonNull HealthDiary newItem) {
+            return oldItem.getUpdatedAt() == newItem.getUpdatedAt()
+                && Objects.equals(oldItem.getContent(), newItem.getContent());
+        }
+    };
     
-    private List<HealthDiary> diaries;
     private OnDiaryClickListener clickListener;
     private Context context;
     private SimpleDateFormat dateFormat;
@@ -37,11 +52,10 @@ public class HealthDiaryAdapter extends RecyclerView.Adapter<HealthDiaryAdapter.
     
     /**
      * 构造函数
-     * @param diaries 健康日记列表
      * @param clickListener 点击监听器
      */
-    public HealthDiaryAdapter(List<HealthDiary> diaries, OnDiaryClickListener clickListener) {
-        this.diaries = diaries;
+    public HealthDiaryAdapter(OnDiaryClickListener clickListener) {
+        super(DIFF_CALLBACK);
         this.clickListener = clickListener;
         this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.CHINA);
     }
@@ -56,22 +70,10 @@ public class HealthDiaryAdapter extends RecyclerView.Adapter<HealthDiaryAdapter.
     
     @Override
     public void onBindViewHolder(@NonNull HealthDiaryViewHolder holder, int position) {
-        HealthDiary diary = diaries.get(position);
-        holder.bind(diary);
-    }
-    
-    @Override
-    public int getItemCount() {
-        return diaries != null ? diaries.size() : 0;
-    }
-    
-    /**
-     * 更新日记列表数据
-     * @param newDiaries 新的日记列表
-     */
-    public void updateDiaries(List<HealthDiary> newDiaries) {
-        this.diaries = newDiaries;
-        notifyDataSetChanged();
+        HealthDiary diary = getItem(position);
+        if (diary != null) {
+            holder.bind(diary);
+        }
     }
     
     /**
@@ -105,7 +107,10 @@ public class HealthDiaryAdapter extends RecyclerView.Adapter<HealthDiaryAdapter.
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && clickListener != null) {
-                    clickListener.onDiaryClick(diaries.get(position));
+                    HealthDiary diary = getItem(position);
+                    if (diary != null) {
+                        clickListener.onDiaryClick(diary);
+                    }
                 }
             });
         }
@@ -7,23 +7,45 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.medication.reminders.R;
 import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.enums.DoseTiming;
+import com.medication.reminders.utils.DoseMatcher;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
- * MedicationIntakeRecordAdapter - RecyclerView适配器，用于显示用药记录列表
+ * MedicationIntakeRecordAdapter - 分页RecyclerView适配器，用于显示用药记录列表
+ * 数据通过 submitData 按页提供，只持有已加载的页面
  * 为老年用户提供友好的界面设计，包含大字体和高对比度
  */
-public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<MedicationIntakeRecordAdapter.IntakeRecordViewHolder> {
+public class MedicationIntakeRecordAdapter extends PagingDataAdapter<MedicationIntakeRecord, MedicationIntakeRecordAdapter.IntakeRecordViewHolder> {
+    
+    private static final DiffUtil.ItemCallback<MedicationIntakeRecord> DIFF_CALLBACK = new DiffUtil.ItemCallback<MedicationIntakeRecord>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MedicationIntakeRecord oldItem, @NonNull MedicationIntakeRecord newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull MedicationIntakeRecord oldItem, @NonNull MedicationIntakeRecord newItem) {
+            return oldItem.getIntakeTime() == newItem.getIntakeTime()
+                && oldItem.getDosageTaken() == newItem.getDosageTaken()
+                && oldItem.getStatus() == newItem.getStatus()
+                && Objects.equals(oldItem.getMedicationName(), newItem.getMedicationName())
+                && Objects.equals(oldItem.getMedicationId(), newItem.getMedicationId())
+                && oldItem.getScheduleId() == newItem.getScheduleId()
+                && oldItem.getScheduledAt() == newItem.getScheduledAt();
+        }
+    };
     
-    private List<MedicationIntakeRecord> intakeRecords;
     private OnIntakeRecordClickListener clickListener;
     private Context context;
     private SimpleDateFormat dateFormat;
@@ -38,11 +60,10 @@ public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<Medicati
     
     /**
      * 构造函数
-     * @param intakeRecords 用药记录列表
      * @param clickListener 点击监听器
      */
-    public MedicationIntakeRecordAdapter(List<MedicationIntakeRecord> intakeRecords, OnIntakeRecordClickListener clickListener) {
-        this.intakeRecords = intakeRecords;
+    public MedicationIntakeRecordAdapter(OnIntakeRecordClickListener clickListener) {
+        super(DIFF_CALLBACK);
         this.clickListener = clickListener;
         this.dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.CHINA);
         this.timeFormat = new SimpleDateFormat("HH:mm", Locale.CHINA);
@@ -58,22 +79,10 @@ public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<Medicati
     
     @Override
     public void onBindViewHolder(@NonNull IntakeRecordViewHolder holder, int position) {
-        MedicationIntakeRecord record = intakeRecords.get(position);
-        holder.bind(record);
-    }
-    
-    @Override
-    public int getItemCount() {
-        return intakeRecords != null ? intakeRecords.size() : 0;
-    }
-    
-    /**
-     * 更新用药记录列表数据
-     * @param newRecords 新的用药记录列表
-     */
-    public void updateIntakeRecords(List<MedicationIntakeRecord> newRecords) {
-        this.intakeRecords = newRecords;
-        notifyDataSetChanged();
+        MedicationIntakeRecord record = getItem(position);
+        if (record != null) {
+            holder.bind(record);
+        }
     }
     
     /**
@@ -109,7 +118,10 @@ public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<Medicati
             itemView.setOnClickListener(v -> {
                 int position = getAdapterPosition();
                 if (position != RecyclerView.NO_POSITION && clickListener != null) {
-                    clickListener.onIntakeRecordClick(intakeRecords.get(position));
+                    MedicationIntakeRecord record = getItem(position);
+                    if (record != null) {
+                        clickListener.onIntakeRecordClick(record);
+                    }
                 }
             });
         }
@@ -160,7 +172,15 @@ public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<Medicati
          * @param record 用药记录数据
          */
         private void bindDosageInfo(MedicationIntakeRecord record) {
+            if (record.isMissed()) {
+                tvDosageTaken.setText("漏服");
+                return;
+            }
             String dosageText = String.format(Locale.CHINA, "%d", record.getDosageTaken());
+            String timing = timingLabel(record);
+            if (timing != null) {
+                dosageText += "（" + timing + "）";
+            }
             tvDosageTaken.setText(dosageText);
         }
         
@@ -176,11 +196,31 @@ public class MedicationIntakeRecordAdapter extends RecyclerView.Adapter<Medicati
             String dateText = dateFormat.format(intakeDate);
             String timeText = timeFormat.format(intakeDate);
             
+            if (record.isMissed()) {
+                itemView.setContentDescription(String.format(Locale.CHINA,
+                    "漏服记录，药物：%s，计划时间：%s %s，点击查看详情",
+                    medicationName, dateText, timeText));
+                return;
+            }
+            
+            String timing = timingLabel(record);
             String accessibilityText = String.format(Locale.CHINA,
-                "用药记录，药物：%s，服用时间：%s %s，服用剂量：%d，点击查看详情",
-                medicationName, dateText, timeText, record.getDosageTaken());
+                "用药记录，药物：%s，服用时间：%s %s%s，服用剂量：%d，点击查看详情",
+                medicationName, dateText, timeText, timing != null ? "（" + timing + "）" : "",
+                record.getDosageTaken());
             
             itemView.setContentDescription(accessibilityText);
         }
+        
+        /**
+         * 服药时间分类标签
+         * 只标注已匹配到计划提醒的记录；未匹配的记录可能早于匹配功能写入，无法区分是否额外服用，不标注
+         * @param record 用药记录数据
+         * @return 准时/迟服，不标注时返回null
+         */
+        private String timingLabel(MedicationIntakeRecord record) {
+            if (record.getScheduleId() <= 0) return null;
+            return DoseMatcher.classify(record) == DoseTiming.LATE ? "迟服" : "准时";
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.medication.reminders.database;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.medication.reminders.models.DoseTimes;
+import com.medication.reminders.utils.DiarySearchIndex;
+
+/**
+ * 数据库迁移
+ * 8 是首个发布的版本，之后每个版本都有迁移路径；更早的开发版本升级时按破坏性迁移重建（见 destructiveFrom）
+ */
+public final class DatabaseMigrations {
+
+    private DatabaseMigrations() {
+    }
+
+    /**
+     * 8 -> 9：新增展开后的提醒时刻表 reminder_occurrences
+     */
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `reminder_occurrences` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`schedule_id` INTEGER NOT NULL, "
+                    + "`medication_id` INTEGER NOT NULL, "
+                    + "`fire_at` INTEGER NOT NULL, "
+                    + "`status` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_reminder_occurrences_fire_at_schedule_id` "
+                    + "ON `reminder_occurrences` (`fire_at`, `schedule_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminder_occurrences_schedule_id_fire_at` "
+                    + "ON `reminder_occurrences` (`schedule_id`, `fire_at`)");
+        }
+    };
+
+    /**
+     * 9 -> 10：新增提醒延迟采样环形表 reminder_latency_samples
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `reminder_latency_samples` ("
+                    + "`slot` INTEGER NOT NULL, "
+                    + "`seq` INTEGER NOT NULL, "
+                    + "`metric` INTEGER NOT NULL, "
+                    + "`schedule_id` INTEGER NOT NULL, "
+                    + "`recorded_at` INTEGER NOT NULL, "
+                    + "`latency_ms` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`slot`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_reminder_latency_samples_metric_recorded_at` "
+                    + "ON `reminder_latency_samples` (`metric`, `recorded_at`)");
+        }
+    };
+
+    /**
+     * 10 -> 11：为对账任务的到期计划查询补充索引
+     */
+    public static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_schedules_enabled_next_reminder_at` "
+                    + "ON `medication_schedules` (`enabled`, `next_reminder_at`)");
+        }
+    };
+
+    /**
+     * 11 -> 12：计划新增关键剂量标记
+     */
+    public static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `critical` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * 12 -> 13：计划新增未确认剂量的再次提醒设置
+     */
+    public static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `escalation_interval_minutes` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `escalation_max_count` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `escalation_count` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    /**
+     * 13 -> 14：用药记录新增状态列，已有记录均为已服用
+     */
+    public static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `medication_intake_record` ADD COLUMN `status` INTEGER NOT NULL DEFAULT 1");
+        }
+    };
+
+    /**
+     * 14 -> 15：用药记录关联其对应的计划时段，已有记录视为计划外
+     */
+    public static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `medication_intake_record` ADD COLUMN `schedule_id` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `medication_intake_record` ADD COLUMN `scheduled_at` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_schedule_id_scheduled_at` "
+                    + "ON `medication_intake_record` (`schedule_id`, `scheduled_at`)");
+        }
+    };
+
+    /**
+     * 15 -> 16：medication_schedules 的 times_of_day（逗号分隔 HH:mm）与 times_per_day
+     * 合并为打包的 dose_times 二进制列；已发布的 v8 数据库经 8 -> 15 的各步迁移后在此完成转换
+     * SQLite 3.35 之前不支持 DROP COLUMN，按新结构重建表后逐行写入转换结果
+     */
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medication_schedules_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`medication_id` INTEGER NOT NULL, "
+                    + "`cycle_type_index` INTEGER NOT NULL, "
+                    + "`dose_times` BLOB, "
+                    + "`days_of_week_mask` INTEGER NOT NULL, "
+                    + "`day_of_month` INTEGER NOT NULL, "
+                    + "`interval_days` INTEGER NOT NULL, "
+                    + "`start_date_millis` INTEGER NOT NULL, "
+                    + "`next_reminder_at` INTEGER NOT NULL, "
+                    + "`enabled` INTEGER NOT NULL, "
+                    + "`critical` INTEGER NOT NULL, "
+                    + "`escalation_interval_minutes` INTEGER NOT NULL, "
+                    + "`escalation_max_count` INTEGER NOT NULL, "
+                    + "`escalation_count` INTEGER NOT NULL, "
+                    + "`created_at` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO `medication_schedules_new` (`id`, `medication_id`, `cycle_type_index`, "
+                    + "`days_of_week_mask`, `day_of_month`, `interval_days`, `start_date_millis`, `next_reminder_at`, "
+                    + "`enabled`, `critical`, `escalation_interval_minutes`, `escalation_max_count`, `escalation_count`, "
+                    + "`created_at`, `updated_at`) "
+                    + "SELECT `id`, `medication_id`, `cycle_type_index`, `days_of_week_mask`, `day_of_month`, "
+                    + "`interval_days`, `start_date_millis`, `next_reminder_at`, `enabled`, `critical`, "
+                    + "`escalation_interval_minutes`, `escalation_max_count`, `escalation_count`, `created_at`, `updated_at` "
+                    + "FROM `medication_schedules`");
+            try (Cursor c = db.query("SELECT `id`, `times_of_day` FROM `medication_schedules`")) {
+                while (c.moveToNext()) {
+                    String csv = c.isNull(1) ? null : c.getString(1);
+                    db.execSQL("UPDATE `medication_schedules_new` SET `dose_times` = ? WHERE `id` = ?",
+                            new Object[]{DoseTimes.parse(csv).toBytes(), c.getLong(0)});
+                }
+            }
+            db.execSQL("DROP TABLE `medication_schedules`");
+            db.execSQL("ALTER TABLE `medication_schedules_new` RENAME TO `medication_schedules`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_schedules_medication_id` "
+                    + "ON `medication_schedules` (`medication_id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_schedules_enabled_next_reminder_at` "
+                    + "ON `medication_schedules` (`enabled`, `next_reminder_at`)");
+        }
+    };
+
+    /**
+     * 16 -> 17：新增每隔X小时与指定日期两种周期类型所需的列
+     */
+    public static final Migration MIGRATION_16_17 = new Migration(16, 17) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `interval_hours` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `medication_schedules` ADD COLUMN `custom_dates` BLOB");
+        }
+    };
+
+    /**
+     * 17 -> 18：为各 DAO 查询补充索引
+     * health_diary 与 medication_schedules 原有的单列外键索引由以其开头的复合索引取代
+     */
+    public static final Migration MIGRATION_17_18 = new Migration(17, 18) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_username` ON `users` (`username`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_email` ON `users` (`email`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_phone` ON `users` (`phone`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_is_logged_in` ON `users` (`is_logged_in`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_remember_me` ON `users` (`remember_me`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_created_at` ON `users` (`created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_gender_created_at` ON `users` (`gender`, `created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_last_login_time` ON `users` (`last_login_time`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_users_last_attempt_time` ON `users` (`last_attempt_time`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medications_name` ON `medications` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medications_created_at` ON `medications` (`created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medications_color_created_at` "
+                    + "ON `medications` (`color`, `created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medications_dosage_form_created_at` "
+                    + "ON `medications` (`dosage_form`, `created_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medications_remaining_quantity_updated_at` "
+                    + "ON `medications` (`remaining_quantity`, `updated_at`)");
+
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_intake_time` "
+                    + "ON `medication_intake_record` (`intake_time`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_medication_name_intake_time` "
+                    + "ON `medication_intake_record` (`medication_name`, `intake_time`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_health_diary_user_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_health_diary_user_id_created_at` "
+                    + "ON `health_diary` (`user_id`, `created_at`)");
+
+            db.execSQL("DROP INDEX IF EXISTS `index_medication_schedules_medication_id`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_schedules_medication_id_created_at` "
+                    + "ON `medication_schedules` (`medication_id`, `created_at`)");
+
+            // 更新统计信息，让查询规划器立即选用新索引
+            db.execSQL("ANALYZE");
+        }
+    };
+
+    /**
+     * 18 -> 19：用药记录新增 medication_id 外键（药品删除时置 NULL）
+     * 外键只能随建表声明，按新结构重建表；已有记录优先取对应计划的药品，
+     * 否则按药物名称回填（重名时取最新创建的药品），都找不到时为 NULL
+     */
+    public static final Migration MIGRATION_18_19 = new Migration(18, 19) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `medication_intake_record_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`medication_name` TEXT, "
+                    + "`medication_id` INTEGER, "
+                    + "`intake_time` INTEGER NOT NULL, "
+                    + "`dosage_taken` INTEGER NOT NULL, "
+                    + "`status` INTEGER NOT NULL DEFAULT 1, "
+                    + "`schedule_id` INTEGER NOT NULL DEFAULT 0, "
+                    + "`scheduled_at` INTEGER NOT NULL DEFAULT 0, "
+                    + "FOREIGN KEY(`medication_id`) REFERENCES `medications`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE SET NULL )");
+            db.execSQL("INSERT INTO `medication_intake_record_new` (`id`, `medication_name`, `medication_id`, "
+                    + "`intake_time`, `dosage_taken`, `status`, `schedule_id`, `scheduled_at`) "
+                    + "SELECT r.`id`, r.`medication_name`, COALESCE("
+                    + "(SELECT m.`id` FROM `medication_schedules` s JOIN `medications` m ON m.`id` = s.`medication_id` "
+                    + "WHERE s.`id` = r.`schedule_id`), "
+                    + "(SELECT m.`id` FROM `medications` m WHERE m.`name` = r.`medication_name` "
+                    + "ORDER BY m.`id` DESC LIMIT 1)), "
+                    + "r.`intake_time`, r.`dosage_taken`, r.`status`, r.`schedule_id`, r.`scheduled_at` "
+                    + "FROM `medication_intake_record` r");
+            db.execSQL("DROP TABLE `medication_intake_record`");
+            db.execSQL("ALTER TABLE `medication_intake_record_new` RENAME TO `medication_intake_record`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_schedule_id_scheduled_at` "
+                    + "ON `medication_intake_record` (`schedule_id`, `scheduled_at`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_intake_time` "
+                    + "ON `medication_intake_record` (`intake_time`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_medication_intake_record_medication_id_intake_time` "
+                    + "ON `medication_intake_record` (`medication_id`, `intake_time`)");
+        }
+    };
+
+    /**
+     * health_diary 删除（含删除用户时的级联删除）时同步删除全文索引
+     * 插入与更新需要 Java 分词，由 HealthDiaryDao 在同一事务内写入
+     */
+    static final String CREATE_DIARY_FTS_DELETE_TRIGGER =
+            "CREATE TRIGGER IF NOT EXISTS `health_diary_fts_delete` AFTER DELETE ON `health_diary` "
+                    + "BEGIN DELETE FROM `health_diary_fts` WHERE `rowid` = OLD.`id`; END";
+
+    /**
+     * 19 -> 20：健康日记全文索引 health_diary_fts（FTS4），已有日记逐条分词写入
+     */
+    public static final Migration MIGRATION_19_20 = new Migration(19, 20) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `health_diary_fts` USING FTS4(`tokens` TEXT NOT NULL)");
+            try (Cursor c = db.query("SELECT `id`, `content` FROM `health_diary`")) {
+                while (c.moveToNext()) {
+                    String content = c.isNull(1) ? null : c.getString(1);
+                    db.execSQL("INSERT INTO `health_diary_fts` (`rowid`, `tokens`) VALUES (?, ?)",
+                            new Object[]{c.getLong(0), DiarySearchIndex.tokenize(content)});
+                }
+            }
+            db.execSQL(CREATE_DIARY_FTS_DELETE_TRIGGER);
+        }
+    };
+
+    /**
+     * 所有迁移，按起始版本排列
+     */
+    public static Migration[] all() {
+        return new Migration[]{MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12,
+                MIGRATION_12_13, MIGRATION_13_14, MIGRATION_14_15, MIGRATION_15_16, MIGRATION_16_17,
+                MIGRATION_17_18, MIGRATION_18_19, MIGRATION_19_20};
+    }
+
+    /**
+     * 没有迁移路径、升级时重建数据库的旧版本（均为首次发布前的开发版本）
+     */
+    public static int[] destructiveFrom() {
+        return new int[]{1, 2, 3, 4, 5, 6, 7};
+    }
+}
@@ -2,20 +2,27 @@ package com.medication.reminders.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.medication.reminders.database.dao.HealthDiaryDao;
 import com.medication.reminders.database.dao.MedicationDao;
 import com.medication.reminders.database.dao.MedicationIntakeRecordDao;
 import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.dao.ReminderLatencyDao;
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
 import com.medication.reminders.database.dao.UserDao;
 import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.entity.HealthDiaryFts;
 import com.medication.reminders.database.entity.MedicationInfo;
 import com.medication.reminders.database.entity.MedicationIntakeRecord;
 import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.database.entity.ReminderLatencySample;
+import com.medication.reminders.database.entity.ReminderOccurrence;
 import com.medication.reminders.database.entity.User;
 import com.medication.reminders.utils.Converters;
 
@@ -25,8 +32,8 @@ import com.medication.reminders.utils.Converters;
  * 使用单例模式确保数据库实例唯一
  */
 @Database(
-    entities = {MedicationInfo.class, User.class, HealthDiary.class, MedicationSchedule.class, MedicationIntakeRecord.class},
-    version = 8,
+    entities = {MedicationInfo.class, User.class, HealthDiary.class, HealthDiaryFts.class, MedicationSchedule.class, MedicationIntakeRecord.class, ReminderOccurrence.class, ReminderLatencySample.class},
+    version = 20,
     exportSchema = false
 )
 @TypeConverters({Converters.class})
@@ -62,6 +69,16 @@ public abstract class MedicationDatabase extends RoomDatabase {
      * 获取MedicationIntakeRecordDao
      */
     public abstract MedicationIntakeRecordDao medicationIntakeRecordDao();
+
+    /**
+     * 获取ReminderOccurrenceDao
+     */
+    public abstract ReminderOccurrenceDao reminderOccurrenceDao();
+
+    /**
+     * 获取ReminderLatencyDao
+     */
+    public abstract ReminderLatencyDao reminderLatencyDao();
     
     // Singleton instance
     private static volatile MedicationDatabase INSTANCE;
@@ -85,9 +102,19 @@ public abstract class MedicationDatabase extends RoomDatabase {
                     // 允许在主线程执行简单查询
                     // 注意：应谨慎使用，仅用于简单查询
                     .allowMainThreadQueries()
-                    // 使用破坏性迁移策略进行数据库版本升级
-                    // 这将删除现有数据并重新创建表结构
-                    .fallbackToDestructiveMigration()
+                    // 有迁移的版本按迁移升级（见 DatabaseMigrations）
+                    .addMigrations(DatabaseMigrations.all())
+                    // 仅首个发布版本（8）之前的开发版本使用破坏性迁移（删除现有数据并重新创建表结构），
+                    // 之后的版本缺少迁移时直接报错，避免静默清空用户数据
+                    .fallbackToDestructiveMigrationFrom(DatabaseMigrations.destructiveFrom())
+                    // 打开数据库时补建全文索引的同步触发器
+                    .addCallback(new RoomDatabase.Callback() {
+                        @Override
+                        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                            // Room 建表（全新安装或破坏性迁移）不包含全文索引的同步触发器
+                            db.execSQL(DatabaseMigrations.CREATE_DIARY_FTS_DELETE_TRIGGER);
+                        }
+                    })
                     .build();
                 }
             }
@@ -111,7 +138,7 @@ public abstract class MedicationDatabase extends RoomDatabase {
      * @return 当前数据库版本
      */
     public static int getDatabaseVersion() {
-        return 8;
+        return 20;
     }
     
     /**
@@ -5,9 +5,12 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.entity.HealthDiaryFts;
+import com.medication.reminders.utils.DiarySearchIndex;
 
 import java.util.List;
 
@@ -19,36 +22,96 @@ import java.util.List;
 public interface HealthDiaryDao {
     
     /**
-     * 插入新的健康日记
+     * 插入新的健康日记，同一事务内写入全文索引
      * @param diary 要插入的健康日记对象
      * @return 插入记录的ID
      */
-    @Insert
-    long insertDiary(HealthDiary diary);
+    @Transaction
+    default long insertDiary(HealthDiary diary) {
+        long id = insertDiaryRow(diary);
+        insertDiaryIndex(new HealthDiaryFts(id, diary.getContent()));
+        return id;
+    }
     
     /**
-     * 批量插入健康日记
+     * 批量插入健康日记，同一事务内写入全文索引
      * @param diaries 要插入的健康日记列表
      * @return 插入记录的ID列表
      */
-    @Insert
-    List<Long> insertDiaries(List<HealthDiary> diaries);
+    @Transaction
+    default List<Long> insertDiaries(List<HealthDiary> diaries) {
+        List<Long> ids = insertDiaryRows(diaries);
+        for (int i = 0; i < ids.size(); i++) {
+            insertDiaryIndex(new HealthDiaryFts(ids.get(i), diaries.get(i).getContent()));
+        }
+        return ids;
+    }
     
     /**
-     * 更新健康日记
+     * 更新健康日记，同一事务内重建该日记的全文索引
      * @param diary 要更新的健康日记对象
      * @return 受影响的行数
      */
-    @Update
-    int updateDiary(HealthDiary diary);
+    @Transaction
+    default int updateDiary(HealthDiary diary) {
+        int result = updateDiaryRow(diary);
+        if (result > 0) {
+            updateDiaryIndex(diary.getId(), DiarySearchIndex.tokenize(diary.getContent()));
+        }
+        return result;
+    }
     
     /**
-     * 批量更新健康日记
+     * 批量更新健康日记，同一事务内重建全文索引
      * @param diaries 要更新的健康日记列表
      * @return 受影响的行数
      */
+    @Transaction
+    default int updateDiaries(List<HealthDiary> diaries) {
+        int result = updateDiaryRows(diaries);
+        for (HealthDiary diary : diaries) {
+            updateDiaryIndex(diary.getId(), DiarySearchIndex.tokenize(diary.getContent()));
+        }
+        return result;
+    }
+    
+    /**
+     * 仅插入日记行，不写全文索引（请使用 insertDiary）
+     */
+    @Insert
+    long insertDiaryRow(HealthDiary diary);
+    
+    /**
+     * 仅批量插入日记行，不写全文索引（请使用 insertDiaries）
+     */
+    @Insert
+    List<Long> insertDiaryRows(List<HealthDiary> diaries);
+    
+    /**
+     * 仅更新日记行，不更新全文索引（请使用 updateDiary）
+     */
+    @Update
+    int updateDiaryRow(HealthDiary diary);
+    
+    /**
+     * 仅批量更新日记行，不更新全文索引（请使用 updateDiaries）
+     */
     @Update
-    int updateDiaries(List<HealthDiary> diaries);
+    int updateDiaryRows(List<HealthDiary> diaries);
+    
+    /**
+     * 写入一篇日记的全文索引
+     */
+    @Insert
+    void insertDiaryIndex(HealthDiaryFts index);
+    
+    /**
+     * 替换一篇日记的全文索引，日记不存在时不写入
+     * @param id 日记ID
+     * @param tokens DiarySearchIndex 分词后的内容
+     */
+    @Query("UPDATE health_diary_fts SET tokens = :tokens WHERE rowid = :id")
+    int updateDiaryIndex(long id, String tokens);
     
     /**
      * 删除健康日记
@@ -171,31 +234,45 @@ public interface HealthDiaryDao {
     List<HealthDiary> getDiariesByUserIdPagedSync(long userId, int limit, int offset);
     
     /**
-     * 根据内容关键词搜索健康日记
+     * 键集分页：早于游标 (time, id) 的日记，按 (created_at, id) 倒序
+     * 通过 (user_id, created_at) 索引定位，翻页深度不影响查询耗时
      * @param userId 用户ID
-     * @param keyword 搜索关键词
-     * @return 包含关键词的健康日记列表
+     * @param time 游标的创建时间
+     * @param id 游标的日记ID
+     * @param limit 每页数量
+     * @return 分页的健康日记列表
      */
-    @Query("SELECT * FROM health_diary WHERE user_id = :userId AND content LIKE '%' || :keyword || '%' ORDER BY created_at DESC")
-    LiveData<List<HealthDiary>> searchDiariesByKeyword(long userId, String keyword);
+    @Query("SELECT * FROM health_diary WHERE user_id = :userId AND created_at <= :time "
+            + "AND (created_at < :time OR id < :id) ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<HealthDiary> getDiariesBefore(long userId, long time, long id, int limit);
     
     /**
-     * 根据内容关键词同步搜索健康日记
-     * @param userId 用户ID
-     * @param keyword 搜索关键词
-     * @return 包含关键词的健康日记列表
+     * 键集分页：晚于游标 (time, id) 的日记，按 (created_at, id) 正序（向前翻页）
      */
-    @Query("SELECT * FROM health_diary WHERE user_id = :userId AND content LIKE '%' || :keyword || '%' ORDER BY created_at DESC")
-    List<HealthDiary> searchDiariesByKeywordSync(long userId, String keyword);
+    @Query("SELECT * FROM health_diary WHERE user_id = :userId AND created_at >= :time "
+            + "AND (created_at > :time OR id > :id) ORDER BY created_at ASC, id ASC LIMIT :limit")
+    List<HealthDiary> getDiariesAfter(long userId, long time, long id, int limit);
     
     /**
-     * 根据内容模式搜索健康日记（支持LIKE模式）
+     * 全文检索用户的健康日记
+     * FTS 表作为外层循环（CROSS JOIN 固定连接顺序），命中的日记再按主键取 user_id 过滤；
+     * 只返回ID与 matchinfo，排序与摘要在取回正文前完成
      * @param userId 用户ID
-     * @param searchPattern 搜索模式（如 %keyword%）
-     * @return 匹配模式的健康日记列表
+     * @param match DiarySearchIndex#toMatchQuery 生成的 MATCH 表达式
+     * @return 命中的日记ID与匹配信息（未排序）
+     */
+    @Query("SELECT health_diary.id AS id, matchinfo(health_diary_fts, 'pcnalx') AS match_info "
+            + "FROM health_diary_fts CROSS JOIN health_diary ON health_diary.id = health_diary_fts.rowid "
+            + "WHERE health_diary_fts MATCH :match AND health_diary.user_id = :userId")
+    List<HealthDiaryFts.Match> matchDiaries(long userId, String match);
+    
+    /**
+     * 根据ID列表同步获取健康日记
+     * @param ids 日记ID列表
+     * @return 健康日记列表（顺序不保证）
      */
-    @Query("SELECT * FROM health_diary WHERE user_id = :userId AND content LIKE :searchPattern ORDER BY created_at DESC")
-    List<HealthDiary> searchDiariesByContent(long userId, String searchPattern);
+    @Query("SELECT * FROM health_diary WHERE id IN (:ids)")
+    List<HealthDiary> getDiariesByIdsSync(List<Long> ids);
     
     /**
      * 根据时间范围获取健康日记（简化版本）
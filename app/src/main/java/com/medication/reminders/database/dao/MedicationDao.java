@@ -28,6 +28,24 @@ public interface MedicationDao {
     @Query("SELECT * FROM medications ORDER BY created_at DESC")
     LiveData<List<MedicationInfo>> getAllMedications();
     
+    /**
+     * Get all medications (synchronous)
+     * Used for bulk operations such as re-arming every reminder at once
+     * 
+     * @return List of all medications
+     */
+    @Query("SELECT * FROM medications")
+    List<MedicationInfo> getAllMedicationsSync();
+    
+    /**
+     * Get medications by IDs (synchronous)
+     * 
+     * @param ids The medication IDs
+     * @return List of medications found
+     */
+    @Query("SELECT * FROM medications WHERE id IN (:ids)")
+    List<MedicationInfo> getMedicationsByIdsSync(List<Long> ids);
+    
     /**
      * Get a specific medication by its ID
      * 
@@ -47,6 +65,16 @@ public interface MedicationDao {
     @Query("SELECT * FROM medications WHERE name = :name LIMIT 1")
     MedicationInfo getMedicationByName(String name);
     
+    /**
+     * Get the ID of the newest medication with the given name
+     * Used to link intake records that only carry a medication name
+     * 
+     * @param name The medication name
+     * @return The medication ID if found, null otherwise
+     */
+    @Query("SELECT id FROM medications WHERE name = :name ORDER BY id DESC LIMIT 1")
+    Long getLatestMedicationIdByName(String name);
+    
     /**
      * Get a specific medication by its ID (synchronous)
      * This is a synchronous method for use in background operations
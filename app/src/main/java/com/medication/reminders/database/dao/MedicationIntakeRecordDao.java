@@ -1,6 +1,7 @@
 package com.medication.reminders.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
@@ -72,13 +73,13 @@ public interface MedicationIntakeRecordDao {
     LiveData<List<MedicationIntakeRecord>> getAllIntakeRecords();
     
     /**
-     * 根据药物名称获取用药记录
+     * 根据药物ID获取用药记录
      * 
-     * @param medicationName 药物名称
+     * @param medicationId 药物ID
      * @return 该药物的用药记录列表的LiveData
      */
-    @Query("SELECT * FROM medication_intake_record WHERE medication_name = :medicationName ORDER BY intake_time DESC")
-    LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationName(String medicationName);
+    @Query("SELECT * FROM medication_intake_record WHERE medication_id = :medicationId ORDER BY intake_time DESC")
+    LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationId(long medicationId);
     
     /**
      * 获取指定时间范围内的用药记录
@@ -99,6 +100,25 @@ public interface MedicationIntakeRecordDao {
     @Query("SELECT * FROM medication_intake_record ORDER BY intake_time DESC LIMIT :limit")
     LiveData<List<MedicationIntakeRecord>> getRecentIntakeRecords(int limit);
     
+    /**
+     * 键集分页：早于游标 (time, id) 的用药记录，按 (intake_time, id) 倒序
+     * 
+     * @param time 游标的服用时间
+     * @param id 游标的记录ID
+     * @param limit 每页数量
+     * @return 用药记录列表
+     */
+    @Query("SELECT * FROM medication_intake_record WHERE intake_time <= :time "
+            + "AND (intake_time < :time OR id < :id) ORDER BY intake_time DESC, id DESC LIMIT :limit")
+    List<MedicationIntakeRecord> getIntakeRecordsBefore(long time, long id, int limit);
+    
+    /**
+     * 键集分页：晚于游标 (time, id) 的用药记录，按 (intake_time, id) 正序（向前翻页）
+     */
+    @Query("SELECT * FROM medication_intake_record WHERE intake_time >= :time "
+            + "AND (intake_time > :time OR id > :id) ORDER BY intake_time ASC, id ASC LIMIT :limit")
+    List<MedicationIntakeRecord> getIntakeRecordsAfter(long time, long id, int limit);
+    
     /**
      * 获取用药记录总数
      * 
@@ -108,13 +128,13 @@ public interface MedicationIntakeRecordDao {
     LiveData<Integer> getIntakeRecordCount();
     
     /**
-     * 根据药物名称获取用药记录总数
+     * 根据药物ID获取用药记录总数
      * 
-     * @param medicationName 药物名称
+     * @param medicationId 药物ID
      * @return 该药物的用药记录总数的LiveData
      */
-    @Query("SELECT COUNT(*) FROM medication_intake_record WHERE medication_name = :medicationName")
-    LiveData<Integer> getIntakeRecordCountByMedicationName(String medicationName);
+    @Query("SELECT COUNT(*) FROM medication_intake_record WHERE medication_id = :medicationId")
+    LiveData<Integer> getIntakeRecordCountByMedicationId(long medicationId);
     
     /**
      * 删除所有用药记录
@@ -125,13 +145,13 @@ public interface MedicationIntakeRecordDao {
     int deleteAllIntakeRecords();
     
     /**
-     * 根据药物名称删除用药记录
+     * 根据药物ID删除用药记录
      * 
-     * @param medicationName 药物名称
+     * @param medicationId 药物ID
      * @return 删除的记录数量
      */
-    @Query("DELETE FROM medication_intake_record WHERE medication_name = :medicationName")
-    int deleteIntakeRecordsByMedicationName(String medicationName);
+    @Query("DELETE FROM medication_intake_record WHERE medication_id = :medicationId")
+    int deleteIntakeRecordsByMedicationId(long medicationId);
     
     /**
      * 根据ID获取用药记录（同步方法）
@@ -141,4 +161,40 @@ public interface MedicationIntakeRecordDao {
      */
     @Query("SELECT * FROM medication_intake_record WHERE id = :recordId")
     MedicationIntakeRecord getIntakeRecordByIdSync(long recordId);
+    
+    /**
+     * 获取时间范围内已被用药记录占用的计划提醒
+     * 漏服记录（status = 2，即 {@link com.medication.reminders.enums.OccurrenceStatus#MISSED}）不占用提醒，
+     * 之后补服仍可匹配到该次提醒
+     * 
+     * @param scheduleIds 计划ID列表
+     * @param from 计划提醒时间下限（含）
+     * @param to 计划提醒时间上限（含）
+     * @return 已占用的计划提醒列表
+     */
+    @Query("SELECT schedule_id, scheduled_at FROM medication_intake_record "
+            + "WHERE schedule_id IN (:scheduleIds) AND scheduled_at BETWEEN :from AND :to AND status != 2")
+    List<MatchedSlot> getMatchedSlots(List<Long> scheduleIds, long from, long to);
+    
+    /**
+     * 获取计划提醒对应的漏服记录（status = 2，即 {@link com.medication.reminders.enums.OccurrenceStatus#MISSED}）
+     * 
+     * @param scheduleId 计划ID
+     * @param scheduledAt 计划提醒时间
+     * @return 漏服记录，不存在时返回null
+     */
+    @Query("SELECT * FROM medication_intake_record "
+            + "WHERE schedule_id = :scheduleId AND scheduled_at = :scheduledAt AND status = 2 LIMIT 1")
+    MedicationIntakeRecord getMissedRecordSync(long scheduleId, long scheduledAt);
+    
+    /**
+     * 已被用药记录占用的计划提醒
+     */
+    class MatchedSlot {
+        @ColumnInfo(name = "schedule_id")
+        public long scheduleId;
+        
+        @ColumnInfo(name = "scheduled_at")
+        public long scheduledAt;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.medication.reminders.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.medication.reminders.database.entity.MedicationSchedule;
@@ -29,6 +31,15 @@ public interface MedicationScheduleDao {
     @Query("SELECT * FROM medication_schedules WHERE id = :id LIMIT 1")
     MedicationSchedule getByIdSync(long id);
 
+    @Query("SELECT * FROM medication_schedules WHERE id IN (:ids)")
+    List<MedicationSchedule> getByIdsSync(List<Long> ids);
+
+    /**
+     * 所有启用计划的下一次提醒时间，由 (enabled, next_reminder_at) 索引覆盖，无需回表
+     */
+    @Query("SELECT id, next_reminder_at FROM medication_schedules WHERE enabled = 1")
+    List<ArmState> getEnabledArmStatesSync();
+
     @Insert
     long insert(MedicationSchedule schedule);
 
@@ -41,10 +52,44 @@ public interface MedicationScheduleDao {
     @Query("DELETE FROM medication_schedules WHERE id = :id")
     int deleteById(long id);
 
-    @Query("UPDATE medication_schedules SET next_reminder_at = :nextAt, updated_at = :updatedAt WHERE id = :id")
+    @Query("UPDATE medication_schedules SET next_reminder_at = :nextAt, escalation_count = 0, updated_at = :updatedAt WHERE id = :id")
     int updateNextReminder(long id, long nextAt, long updatedAt);
 
+    @Query("UPDATE medication_schedules SET next_reminder_at = :nextAt, escalation_count = :escalationCount, updated_at = :updatedAt WHERE id = :id")
+    int updateNextReminderAndEscalation(long id, long nextAt, int escalationCount, long updatedAt);
+
+    /**
+     * 批量更新下一次提醒时间（单事务，复用同一条预编译语句）
+     */
+    @Transaction
+    default void updateNextReminders(long[] ids, long[] nextAts, long updatedAt) {
+        for (int i = 0; i < ids.length; i++) {
+            updateNextReminder(ids[i], nextAts[i], updatedAt);
+        }
+    }
+
+    /**
+     * 批量写回提醒触发后的下一次提醒时间与升级次数（单事务）
+     */
+    @Transaction
+    default void updateAfterFired(long[] ids, long[] nextAts, int[] escalationCounts, long updatedAt) {
+        for (int i = 0; i < ids.length; i++) {
+            updateNextReminderAndEscalation(ids[i], nextAts[i], escalationCounts[i], updatedAt);
+        }
+    }
+
     @Query("UPDATE medication_schedules SET enabled = :enabled, updated_at = :updatedAt WHERE id = :id")
     int setEnabled(long id, boolean enabled, long updatedAt);
+
+    /**
+     * 计划的闹钟状态（用于对账）
+     */
+    class ArmState {
+        @ColumnInfo(name = "id")
+        public long id;
+
+        @ColumnInfo(name = "next_reminder_at")
+        public long nextReminderAt;
+    }
 }
 
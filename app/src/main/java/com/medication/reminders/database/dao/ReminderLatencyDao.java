@@ -0,0 +1,52 @@
+package com.medication.reminders.database.dao;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.medication.reminders.database.entity.ReminderLatencySample;
+
+import java.util.List;
+
+/**
+ * 提醒延迟采样数据访问对象
+ * 指标取值见 LatencyMetric：0=触发漂移 1=通知发出 2=动作提交
+ */
+@Dao
+public interface ReminderLatencyDao {
+
+    /**
+     * 写入一批样本，slot 已存在时覆盖（环形缓冲区）
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<ReminderLatencySample> samples);
+
+    /**
+     * 最近一次写入的序号，表为空时返回null
+     */
+    @Query("SELECT MAX(seq) FROM reminder_latency_samples")
+    Long getMaxSeq();
+
+    /**
+     * 指标在时间区间 [from, to) 内的样本
+     */
+    @Query("SELECT recorded_at, latency_ms FROM reminder_latency_samples "
+            + "WHERE metric = :metric AND recorded_at >= :from AND recorded_at < :to ORDER BY recorded_at ASC")
+    List<LatencyPoint> getLatencies(int metric, long from, long to);
+
+    @Query("DELETE FROM reminder_latency_samples")
+    void deleteAll();
+
+    /**
+     * 单个延迟样本
+     */
+    class LatencyPoint {
+        @ColumnInfo(name = "recorded_at")
+        public long recordedAt;
+
+        @ColumnInfo(name = "latency_ms")
+        public long latencyMs;
+    }
+}
@@ -0,0 +1,105 @@
+package com.medication.reminders.database.dao;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.medication.reminders.database.entity.ReminderOccurrence;
+
+import java.util.List;
+
+/**
+ * 提醒实例数据访问对象
+ * 状态取值见 OccurrenceStatus：0=待服用 1=已服用 2=漏服 3=已延迟
+ */
+@Dao
+public interface ReminderOccurrenceDao {
+
+    /**
+     * 批量插入提醒实例，(fire_at, schedule_id) 已存在时忽略
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertAll(List<ReminderOccurrence> occurrences);
+
+    /**
+     * 统计时间区间内指定状态的提醒实例数（用于依从性统计）
+     */
+    @Query("SELECT COUNT(*) FROM reminder_occurrences WHERE fire_at >= :from AND fire_at < :to AND status = :status")
+    int countByStatusBetween(long from, long to, int status);
+
+    /**
+     * 每个计划已展开到的最晚提醒时间
+     */
+    @Query("SELECT schedule_id, MAX(fire_at) AS last_fire_at FROM reminder_occurrences GROUP BY schedule_id")
+    List<ScheduleHorizon> getScheduleHorizons();
+
+    /**
+     * 删除计划在 from 之后尚未处理的提醒实例（计划修改/停用时使用）
+     */
+    @Query("DELETE FROM reminder_occurrences WHERE schedule_id = :scheduleId AND fire_at >= :from AND status = 0")
+    int deletePendingFrom(long scheduleId, long from);
+
+    /**
+     * 删除所有计划在 from 之后尚未处理的提醒实例（时区变化后重新展开）
+     */
+    @Query("DELETE FROM reminder_occurrences WHERE fire_at >= :from AND status = 0")
+    int deleteAllPendingFrom(long from);
+
+    /**
+     * 将 before 之前仍待服用/已延迟的提醒标记为漏服
+     */
+    @Query("UPDATE reminder_occurrences SET status = 2, updated_at = :updatedAt WHERE fire_at < :before AND status IN (0, 3)")
+    int markMissedBefore(long before, long updatedAt);
+
+    /**
+     * 将计划指定提醒时间仍待服用/已延迟的提醒实例标记为漏服（补录漏服记录时使用）
+     */
+    @Query("UPDATE reminder_occurrences SET status = 2, updated_at = :updatedAt "
+            + "WHERE schedule_id = :scheduleId AND fire_at = :fireAt AND status IN (0, 3)")
+    int markMissed(long scheduleId, long fireAt, long updatedAt);
+
+    /**
+     * 更新计划最近一次已触发（fire_at <= now）且未处理的提醒实例状态
+     */
+    @Query("UPDATE reminder_occurrences SET status = :status, updated_at = :now WHERE id = "
+            + "(SELECT id FROM reminder_occurrences WHERE schedule_id = :scheduleId AND fire_at <= :now "
+            + "AND status IN (0, 3) ORDER BY fire_at DESC LIMIT 1)")
+    int updateLatestDueStatus(long scheduleId, int status, long now);
+
+    /**
+     * 更新计划指定提醒时间的提醒实例状态
+     */
+    @Query("UPDATE reminder_occurrences SET status = :status, updated_at = :now WHERE schedule_id = :scheduleId AND fire_at = :fireAt")
+    int updateStatus(long scheduleId, long fireAt, int status, long now);
+
+    /**
+     * 删除早于 before 的历史提醒实例
+     */
+    @Query("DELETE FROM reminder_occurrences WHERE fire_at < :before")
+    int deleteOlderThan(long before);
+
+    /**
+     * 替换计划在 from 之后的待服用实例（单事务）
+     */
+    @Transaction
+    default void replacePendingFrom(long scheduleId, long from, List<ReminderOccurrence> occurrences) {
+        deletePendingFrom(scheduleId, from);
+        if (!occurrences.isEmpty()) {
+            insertAll(occurrences);
+        }
+    }
+
+    /**
+     * 计划展开进度
+     */
+    class ScheduleHorizon {
+        @ColumnInfo(name = "schedule_id")
+        public long scheduleId;
+
+        @ColumnInfo(name = "last_fire_at")
+        public long lastFireAt;
+    }
+}
@@ -24,7 +24,7 @@ import java.util.Locale;
         childColumns = "user_id",
         onDelete = ForeignKey.CASCADE
     ),
-    indices = {@Index("user_id")}
+    indices = {@Index(value = {"user_id", "created_at"})}
 )
 public class HealthDiary {
     
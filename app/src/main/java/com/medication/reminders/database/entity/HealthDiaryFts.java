@@ -0,0 +1,56 @@
+package com.medication.reminders.database.entity;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import com.medication.reminders.utils.DiarySearchIndex;
+
+/**
+ * 健康日记全文索引（FTS4 影子表）
+ * rowid 与 health_diary.id 相同，tokens 为 DiarySearchIndex 分词后的日记内容；
+ * 写入随 HealthDiaryDao 的插入/更新在同一事务内完成，删除（含用户级联删除）由触发器同步
+ */
+@Fts4
+@Entity(tableName = "health_diary_fts")
+public class HealthDiaryFts {
+
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId;
+
+    @ColumnInfo(name = "tokens")
+    @NonNull
+    private String tokens = "";
+
+    public HealthDiaryFts() {
+    }
+
+    @Ignore
+    public HealthDiaryFts(long diaryId, String content) {
+        this.rowId = diaryId;
+        this.tokens = DiarySearchIndex.tokenize(content);
+    }
+
+    public long getRowId() { return rowId; }
+    public void setRowId(long rowId) { this.rowId = rowId; }
+
+    @NonNull
+    public String getTokens() { return tokens; }
+    public void setTokens(@NonNull String tokens) { this.tokens = tokens; }
+
+    /**
+     * 全文检索命中的日记ID与 matchinfo(health_diary_fts, 'pcnalx')
+     */
+    public static class Match {
+
+        @ColumnInfo(name = "id")
+        public long id;
+
+        @ColumnInfo(name = "match_info")
+        public byte[] matchInfo;
+    }
+}
@@ -3,13 +3,23 @@ package com.medication.reminders.database.entity;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * MedicationInfo entity class for Room database
  * Represents a medication record with all necessary information
  */
-@Entity(tableName = "medications")
+@Entity(
+    tableName = "medications",
+    indices = {
+        @Index("name"),
+        @Index("created_at"),
+        @Index(value = {"color", "created_at"}),
+        @Index(value = {"dosage_form", "created_at"}),
+        @Index(value = {"remaining_quantity", "updated_at"})
+    }
+)
 public class MedicationInfo {
     
     @PrimaryKey(autoGenerate = true)
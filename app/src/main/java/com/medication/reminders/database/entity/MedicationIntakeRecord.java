@@ -2,15 +2,36 @@ package com.medication.reminders.database.entity;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.medication.reminders.enums.OccurrenceStatus;
+
 /**
  * 用药记录实体类
  * 用于记录用户的用药历史，包含药物名称、服用时间和服用剂量
  * 根据库存跟踪功能需求简化设计，只保留核心字段
+ * status 取值见 OccurrenceStatus：手动记录与通知确认为已服用，补录的漏服记录剂量为0
+ * schedule_id / scheduled_at 为该记录对应的计划提醒，未对应任何提醒（额外服用）时为0
+ * medication_id 关联药品，药品删除后置为 NULL，历史记录保留并以 medication_name 显示；
+ * 药品改名不影响按 medication_id 的查询
  */
-@Entity(tableName = "medication_intake_record")
+@Entity(
+    tableName = "medication_intake_record",
+    foreignKeys = @ForeignKey(
+        entity = MedicationInfo.class,
+        parentColumns = "id",
+        childColumns = "medication_id",
+        onDelete = ForeignKey.SET_NULL
+    ),
+    indices = {
+        @Index(value = {"schedule_id", "scheduled_at"}),
+        @Index("intake_time"),
+        @Index(value = {"medication_id", "intake_time"})
+    }
+)
 public class MedicationIntakeRecord {
     
     @PrimaryKey(autoGenerate = true)
@@ -18,12 +39,24 @@ public class MedicationIntakeRecord {
     
     @ColumnInfo(name = "medication_name")
     private String medicationName;          // 药物名称
+
+    @ColumnInfo(name = "medication_id")
+    private Long medicationId;              // 药物ID（药品已删除时为null）
     
     @ColumnInfo(name = "intake_time")
     private long intakeTime;                // 服用时间（时间戳）
     
     @ColumnInfo(name = "dosage_taken")
     private int dosageTaken;                // 服用剂量
+
+    @ColumnInfo(name = "status", defaultValue = "1")
+    private int status;                     // 记录状态（已服用/漏服）
+
+    @ColumnInfo(name = "schedule_id", defaultValue = "0")
+    private long scheduleId;                // 对应的计划ID
+
+    @ColumnInfo(name = "scheduled_at", defaultValue = "0")
+    private long scheduledAt;               // 对应的计划提醒时间
     
     /**
      * 默认构造函数
@@ -31,6 +64,7 @@ public class MedicationIntakeRecord {
     public MedicationIntakeRecord() {
         this.intakeTime = System.currentTimeMillis();
         this.dosageTaken = 1;
+        this.status = OccurrenceStatus.TAKEN.getIndex();
     }
     
     /**
@@ -45,6 +79,7 @@ public class MedicationIntakeRecord {
         this.medicationName = medicationName;
         this.intakeTime = intakeTime;
         this.dosageTaken = dosageTaken;
+        this.status = OccurrenceStatus.TAKEN.getIndex();
     }
     
     /**
@@ -58,6 +93,24 @@ public class MedicationIntakeRecord {
         this.medicationName = medicationName;
         this.intakeTime = System.currentTimeMillis();
         this.dosageTaken = dosageTaken;
+        this.status = OccurrenceStatus.TAKEN.getIndex();
+    }
+
+    /**
+     * 创建漏服记录
+     *
+     * @param medicationId 药物ID，药品不存在时为null
+     * @param medicationName 药物名称
+     * @param scheduleId 计划ID
+     * @param scheduledAt 漏服的计划提醒时间
+     */
+    public static MedicationIntakeRecord missed(Long medicationId, String medicationName, long scheduleId, long scheduledAt) {
+        MedicationIntakeRecord record = new MedicationIntakeRecord(medicationName, scheduledAt, 0);
+        record.medicationId = medicationId;
+        record.status = OccurrenceStatus.MISSED.getIndex();
+        record.scheduleId = scheduleId;
+        record.scheduledAt = scheduledAt;
+        return record;
     }
     
     // Getters and Setters
@@ -77,6 +130,14 @@ public class MedicationIntakeRecord {
         this.medicationName = medicationName;
     }
     
+    public Long getMedicationId() {
+        return medicationId;
+    }
+    
+    public void setMedicationId(Long medicationId) {
+        this.medicationId = medicationId;
+    }
+    
     public long getIntakeTime() {
         return intakeTime;
     }
@@ -93,13 +154,45 @@ public class MedicationIntakeRecord {
         this.dosageTaken = dosageTaken;
     }
     
+    public int getStatus() {
+        return status;
+    }
+    
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public long getScheduleId() {
+        return scheduleId;
+    }
+    
+    public void setScheduleId(long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+    
+    public long getScheduledAt() {
+        return scheduledAt;
+    }
+    
+    public void setScheduledAt(long scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+
+    public boolean isMissed() {
+        return status == OccurrenceStatus.MISSED.getIndex();
+    }
+    
     @Override
     public String toString() {
         return "MedicationIntakeRecord{" +
                 "id=" + id +
                 ", medicationName='" + medicationName + '\'' +
+                ", medicationId=" + medicationId +
                 ", intakeTime=" + intakeTime +
                 ", dosageTaken=" + dosageTaken +
+                ", status=" + status +
+                ", scheduleId=" + scheduleId +
+                ", scheduledAt=" + scheduledAt +
                 '}';
     }
 }
\ No newline at end of file
@@ -5,13 +5,18 @@ import androidx.room.Entity;
 import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import com.medication.reminders.models.CustomDates;
+import com.medication.reminders.models.DoseTimes;
+
 /**
  * 用药计划实体
- * 支持每日、每周、每月、每隔X天四种类型，并支持每日多次提醒时间
- * 为简化存储，时间列表以逗号分隔的 HH:mm 字符串保存，例如："08:00,12:30,20:15"
+ * 支持每日、每周、每月、每隔X天、每隔X小时、指定日期六种类型，并支持每日多次提醒时间
+ * 每日提醒时间以打包的当天分钟数数组 {@link DoseTimes} 保存（可选每个时间点的剂量），
+ * 编辑界面仍使用逗号分隔的 HH:mm 文本，例如："08:00,12:30*2,20:15"
  * 每周的星期选择使用位掩码（1-7位对应周一到周日），例如：周一周三周五为 0b0101010 = 42
+ * 每隔X小时以起始日期的第一个提醒时间为起点；指定日期以排序的纪元日数组 {@link CustomDates} 保存
  */
-@Entity(tableName = "medication_schedules", indices = {@Index("medication_id")})
+@Entity(tableName = "medication_schedules", indices = {@Index({"medication_id", "created_at"}), @Index({"enabled", "next_reminder_at"})})
 public class MedicationSchedule {
 
     @PrimaryKey(autoGenerate = true)
@@ -23,11 +28,8 @@ public class MedicationSchedule {
     @ColumnInfo(name = "cycle_type_index")
     private int cycleTypeIndex = 0; // 枚举索引，默认为0(DAILY)
 
-    @ColumnInfo(name = "times_per_day")
-    private int timesPerDay; // 每日次数（与 times_of_day 配合）
-
-    @ColumnInfo(name = "times_of_day")
-    private String timesOfDay; // 逗号分隔的 HH:mm 列表
+    @ColumnInfo(name = "dose_times")
+    private DoseTimes doseTimes = DoseTimes.EMPTY; // 每日提醒时间（排序去重），经 Converters 存为二进制
 
     @ColumnInfo(name = "days_of_week_mask")
     private int daysOfWeekMask; // 周一=1<<6 ... 周日=1<<0，便于循环计算
@@ -38,6 +40,12 @@ public class MedicationSchedule {
     @ColumnInfo(name = "interval_days")
     private int intervalDays; // 每隔X天的 X
 
+    @ColumnInfo(name = "interval_hours", defaultValue = "0")
+    private int intervalHours; // 每隔X小时的 X
+
+    @ColumnInfo(name = "custom_dates")
+    private CustomDates customDates = CustomDates.EMPTY; // 指定日期（排序去重），经 Converters 存为二进制
+
     @ColumnInfo(name = "start_date_millis")
     private long startDateMillis; // 计划起始日期(当天0点时间戳)
 
@@ -47,6 +55,18 @@ public class MedicationSchedule {
     @ColumnInfo(name = "enabled")
     private boolean enabled = true;
 
+    @ColumnInfo(name = "critical")
+    private boolean critical; // 关键剂量：始终使用精准闹钟，不受精准闹钟预算限制
+
+    @ColumnInfo(name = "escalation_interval_minutes")
+    private int escalationIntervalMinutes; // 未确认时每隔N分钟再次提醒，0 表示不升级
+
+    @ColumnInfo(name = "escalation_max_count")
+    private int escalationMaxCount; // 最多再次提醒M次
+
+    @ColumnInfo(name = "escalation_count")
+    private int escalationCount; // 当前剂量已再次提醒的次数，更新下一次提醒时间时清零
+
     @ColumnInfo(name = "created_at")
     private long createdAt;
 
@@ -68,11 +88,19 @@ public class MedicationSchedule {
     public int getCycleTypeIndex() { return cycleTypeIndex; }
     public void setCycleTypeIndex(int cycleTypeIndex) { this.cycleTypeIndex = cycleTypeIndex; }
 
-    public int getTimesPerDay() { return timesPerDay; }
-    public void setTimesPerDay(int timesPerDay) { this.timesPerDay = timesPerDay; }
+    public DoseTimes getDoseTimes() { return doseTimes; }
+    public void setDoseTimes(DoseTimes doseTimes) { this.doseTimes = doseTimes == null ? DoseTimes.EMPTY : doseTimes; }
 
-    public String getTimesOfDay() { return timesOfDay; }
-    public void setTimesOfDay(String timesOfDay) { this.timesOfDay = timesOfDay; }
+    /**
+     * 每日次数
+     */
+    public int getTimesPerDay() { return doseTimes.size(); }
+
+    /**
+     * 编辑界面使用的文本格式
+     */
+    public String getTimesOfDay() { return doseTimes.toCsv(); }
+    public void setTimesOfDay(String timesOfDay) { this.doseTimes = DoseTimes.parse(timesOfDay); }
 
     public int getDaysOfWeekMask() { return daysOfWeekMask; }
     public void setDaysOfWeekMask(int daysOfWeekMask) { this.daysOfWeekMask = daysOfWeekMask; }
@@ -83,6 +111,12 @@ public class MedicationSchedule {
     public int getIntervalDays() { return intervalDays; }
     public void setIntervalDays(int intervalDays) { this.intervalDays = intervalDays; }
 
+    public int getIntervalHours() { return intervalHours; }
+    public void setIntervalHours(int intervalHours) { this.intervalHours = intervalHours; }
+
+    public CustomDates getCustomDates() { return customDates; }
+    public void setCustomDates(CustomDates customDates) { this.customDates = customDates == null ? CustomDates.EMPTY : customDates; }
+
     public long getStartDateMillis() { return startDateMillis; }
     public void setStartDateMillis(long startDateMillis) { this.startDateMillis = startDateMillis; }
 
@@ -92,6 +126,18 @@ public class MedicationSchedule {
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
+    public boolean isCritical() { return critical; }
+    public void setCritical(boolean critical) { this.critical = critical; }
+
+    public int getEscalationIntervalMinutes() { return escalationIntervalMinutes; }
+    public void setEscalationIntervalMinutes(int escalationIntervalMinutes) { this.escalationIntervalMinutes = escalationIntervalMinutes; }
+
+    public int getEscalationMaxCount() { return escalationMaxCount; }
+    public void setEscalationMaxCount(int escalationMaxCount) { this.escalationMaxCount = escalationMaxCount; }
+
+    public int getEscalationCount() { return escalationCount; }
+    public void setEscalationCount(int escalationCount) { this.escalationCount = escalationCount; }
+
     public long getCreatedAt() { return createdAt; }
     public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
 
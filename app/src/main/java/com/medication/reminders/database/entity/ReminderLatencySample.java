@@ -0,0 +1,69 @@
+package com.medication.reminders.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 提醒延迟采样实体
+ * 表按固定容量的环形缓冲区使用：slot = seq % 容量，新样本覆盖最旧的样本，
+ * 因此表大小有上限，无需定期清理
+ */
+@Entity(
+    tableName = "reminder_latency_samples",
+    indices = {
+        @Index(value = {"metric", "recorded_at"})
+    }
+)
+public class ReminderLatencySample {
+
+    @PrimaryKey
+    @ColumnInfo(name = "slot")
+    private int slot;
+
+    @ColumnInfo(name = "seq")
+    private long seq; // 单调递增的写入序号
+
+    @ColumnInfo(name = "metric")
+    private int metric; // LatencyMetric 索引
+
+    @ColumnInfo(name = "schedule_id")
+    private long scheduleId;
+
+    @ColumnInfo(name = "recorded_at")
+    private long recordedAt; // 采样时间戳(ms)
+
+    @ColumnInfo(name = "latency_ms")
+    private long latencyMs;
+
+    public ReminderLatencySample() {
+    }
+
+    @Ignore
+    public ReminderLatencySample(int metric, long scheduleId, long recordedAt, long latencyMs) {
+        this.metric = metric;
+        this.scheduleId = scheduleId;
+        this.recordedAt = recordedAt;
+        this.latencyMs = latencyMs;
+    }
+
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+
+    public int getMetric() { return metric; }
+    public void setMetric(int metric) { this.metric = metric; }
+
+    public long getScheduleId() { return scheduleId; }
+    public void setScheduleId(long scheduleId) { this.scheduleId = scheduleId; }
+
+    public long getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(long recordedAt) { this.recordedAt = recordedAt; }
+
+    public long getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(long latencyMs) { this.latencyMs = latencyMs; }
+}
@@ -0,0 +1,72 @@
+package com.medication.reminders.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.medication.reminders.enums.OccurrenceStatus;
+
+/**
+ * 提醒实例实体
+ * 预先展开未来若干天内每个启用计划的具体提醒时间，
+ * 漏服检测、服药后的状态更新与依从性统计均可直接按 fire_at 做索引区间查询
+ */
+@Entity(
+    tableName = "reminder_occurrences",
+    indices = {
+        @Index(value = {"fire_at", "schedule_id"}, unique = true),
+        @Index(value = {"schedule_id", "fire_at"})
+    }
+)
+public class ReminderOccurrence {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    @ColumnInfo(name = "schedule_id")
+    private long scheduleId;
+
+    @ColumnInfo(name = "medication_id")
+    private long medicationId;
+
+    @ColumnInfo(name = "fire_at")
+    private long fireAt; // 计划提醒时间戳(ms)
+
+    @ColumnInfo(name = "status")
+    private int status = OccurrenceStatus.PENDING.getIndex(); // OccurrenceStatus 索引
+
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+
+    public ReminderOccurrence() {
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    @Ignore
+    public ReminderOccurrence(long scheduleId, long medicationId, long fireAt) {
+        this();
+        this.scheduleId = scheduleId;
+        this.medicationId = medicationId;
+        this.fireAt = fireAt;
+    }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public long getScheduleId() { return scheduleId; }
+    public void setScheduleId(long scheduleId) { this.scheduleId = scheduleId; }
+
+    public long getMedicationId() { return medicationId; }
+    public void setMedicationId(long medicationId) { this.medicationId = medicationId; }
+
+    public long getFireAt() { return fireAt; }
+    public void setFireAt(long fireAt) { this.fireAt = fireAt; }
+
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+
+    public long getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(long updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -3,6 +3,7 @@ package com.medication.reminders.database.entity;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
@@ -10,7 +11,20 @@ import androidx.annotation.NonNull;
  * User实体类，用于Room数据库
  * 包含用户的所有信息，包括基本认证信息、个人资料、医疗信息和会话管理
  */
-@Entity(tableName = "users")
+@Entity(
+    tableName = "users",
+    indices = {
+        @Index("username"),
+        @Index("email"),
+        @Index("phone"),
+        @Index("is_logged_in"),
+        @Index("remember_me"),
+        @Index("created_at"),
+        @Index(value = {"gender", "created_at"}),
+        @Index("last_login_time"),
+        @Index("last_attempt_time")
+    }
+)
 public class User {
     
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,53 @@
+package com.medication.reminders.database.paging;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.HealthDiaryDao;
+import com.medication.reminders.database.entity.HealthDiary;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 当前登录用户的健康日记分页数据源，按 (created_at, id) 倒序
+ * 用户ID在首次加载时（查询线程上）解析，没有登录用户时返回空列表
+ */
+public class HealthDiaryPagingSource extends KeysetPagingSource<HealthDiary> {
+
+    private final HealthDiaryDao dao;
+    private final LongSupplier userIdSupplier;
+    private volatile long userId = -1;
+
+    public HealthDiaryPagingSource(MedicationDatabase db, LongSupplier userIdSupplier) {
+        super(db, "health_diary");
+        this.dao = db.healthDiaryDao();
+        this.userIdSupplier = userIdSupplier;
+    }
+
+    @Override
+    protected List<HealthDiary> loadBefore(long time, long id, int limit) {
+        long user = userId();
+        return user > 0 ? dao.getDiariesBefore(user, time, id, limit) : Collections.emptyList();
+    }
+
+    @Override
+    protected List<HealthDiary> loadAfter(long time, long id, int limit) {
+        long user = userId();
+        return user > 0 ? dao.getDiariesAfter(user, time, id, limit) : Collections.emptyList();
+    }
+
+    private long userId() {
+        if (userId < 0) userId = userIdSupplier.getAsLong();
+        return userId;
+    }
+
+    @Override
+    protected long timeOf(HealthDiary item) {
+        return item.getCreatedAt();
+    }
+
+    @Override
+    protected long idOf(HealthDiary item) {
+        return item.getId();
+    }
+}
@@ -0,0 +1,40 @@
+package com.medication.reminders.database.paging;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.MedicationIntakeRecordDao;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+
+import java.util.List;
+
+/**
+ * 用药记录分页数据源，按 (intake_time, id) 倒序
+ */
+public class IntakeRecordPagingSource extends KeysetPagingSource<MedicationIntakeRecord> {
+
+    private final MedicationIntakeRecordDao dao;
+
+    public IntakeRecordPagingSource(MedicationDatabase db) {
+        super(db, "medication_intake_record");
+        this.dao = db.medicationIntakeRecordDao();
+    }
+
+    @Override
+    protected List<MedicationIntakeRecord> loadBefore(long time, long id, int limit) {
+        return dao.getIntakeRecordsBefore(time, id, limit);
+    }
+
+    @Override
+    protected List<MedicationIntakeRecord> loadAfter(long time, long id, int limit) {
+        return dao.getIntakeRecordsAfter(time, id, limit);
+    }
+
+    @Override
+    protected long timeOf(MedicationIntakeRecord item) {
+        return item.getIntakeTime();
+    }
+
+    @Override
+    protected long idOf(MedicationIntakeRecord item) {
+        return item.getId();
+    }
+}
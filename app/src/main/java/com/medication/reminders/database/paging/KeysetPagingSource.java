@@ -0,0 +1,175 @@
+package com.medication.reminders.database.paging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingState;
+import androidx.room.InvalidationTracker;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.medication.reminders.database.MedicationDatabase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import kotlin.Unit;
+
+/**
+ * 按 (排序时间, id) 键集分页的数据源，列表按时间倒序
+ * 每页以上一页边界行的 (时间, id) 作为游标做索引范围查找，深度翻页不受 OFFSET 线性跳过的影响；
+ * 支持向前加载，配合 PagingConfig.maxSize 丢弃远离可视区的页面，内存占用与总行数无关
+ *
+ * 监听的表发生变更时自动失效，由 Pager 从刷新游标重新加载；
+ * 与 Room 生成的数据源一样，首次加载时才在查询线程上注册监听（注册会同步触发器，不能放在主线程）
+ */
+public abstract class KeysetPagingSource<T> extends ListenableFuturePagingSource<KeysetPagingSource.Cursor, T> {
+
+    public static final int PAGE_SIZE = 30;
+
+    // 最多保留的行数，超出后丢弃远离可视区的页面
+    private static final int MAX_SIZE = 200;
+
+    private final ListeningExecutorService executor;
+    private final InvalidationTracker tracker;
+    private final InvalidationTracker.Observer observer;
+    private final AtomicBoolean registered = new AtomicBoolean(false);
+
+    protected KeysetPagingSource(MedicationDatabase db, String table) {
+        this.executor = MoreExecutors.listeningDecorator(db.getQueryExecutor());
+        this.tracker = db.getInvalidationTracker();
+        this.observer = new InvalidationTracker.Observer(table) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                invalidate();
+            }
+        };
+        registerInvalidatedCallback(() -> {
+            tracker.removeObserver(observer);
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * 列表分页配置：不使用占位符（无需 COUNT(*)），首屏加载两页
+     */
+    public static PagingConfig pagingConfig() {
+        return new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_SIZE);
+    }
+
+    /**
+     * 早于游标的行，按 (时间, id) 倒序
+     */
+    protected abstract List<T> loadBefore(long time, long id, int limit);
+
+    /**
+     * 晚于游标的行，按 (时间, id) 正序
+     */
+    protected abstract List<T> loadAfter(long time, long id, int limit);
+
+    protected abstract long timeOf(T item);
+
+    protected abstract long idOf(T item);
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<Cursor, T>> loadFuture(@NonNull LoadParams<Cursor> params) {
+        return executor.submit(() -> {
+            registerObserverIfNecessary();
+            try {
+                return load(params);
+            } catch (RuntimeException e) {
+                return new LoadResult.Error<>(e);
+            }
+        });
+    }
+
+    private void registerObserverIfNecessary() {
+        if (!registered.compareAndSet(false, true)) return;
+        tracker.addObserver(observer);
+        // 注册前已失效时失效回调已执行过，需自行移除
+        if (getInvalid()) tracker.removeObserver(observer);
+    }
+
+    private LoadResult<Cursor, T> load(LoadParams<Cursor> params) {
+        Cursor key = params.getKey();
+        int limit = params.getLoadSize();
+        if (params instanceof LoadParams.Prepend) {
+            List<T> rows = new ArrayList<>(loadAfter(key.time, key.id, limit));
+            Collections.reverse(rows);
+            if (rows.isEmpty()) return new LoadResult.Page<>(rows, null, null);
+            // 新页的末行就是原首行之前的一行，向后无需再加载
+            return new LoadResult.Page<>(rows, rows.size() < limit ? null : first(rows), null);
+        }
+        List<T> rows;
+        if (key == null) {
+            rows = loadBefore(Long.MAX_VALUE, Long.MAX_VALUE, limit);
+        } else if (params instanceof LoadParams.Refresh) {
+            // 刷新游标包含锚点行本身：(t, id) <= (t, k) 即 (t, id) < (t, k + 1)
+            rows = loadBefore(key.time, key.id + 1, limit);
+            if (rows.isEmpty()) {
+                // 锚点之后的行已全部删除，从头加载
+                key = null;
+                rows = loadBefore(Long.MAX_VALUE, Long.MAX_VALUE, limit);
+            }
+        } else {
+            rows = loadBefore(key.time, key.id, limit);
+        }
+        Cursor prev = key != null && params instanceof LoadParams.Refresh && !rows.isEmpty() ? first(rows) : null;
+        Cursor next = rows.size() < limit ? null : last(rows);
+        return new LoadResult.Page<>(rows, prev, next);
+    }
+
+    /**
+     * 刷新时从锚点前半页的位置开始加载，刷新后可视区域保持不变
+     */
+    @Nullable
+    @Override
+    public Cursor getRefreshKey(@NonNull PagingState<Cursor, T> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null) return null;
+        T item = state.closestItemToPosition(Math.max(0, anchor - state.getConfig().pageSize / 2));
+        return item == null ? null : new Cursor(timeOf(item), idOf(item));
+    }
+
+    private Cursor first(List<T> rows) {
+        T item = rows.get(0);
+        return new Cursor(timeOf(item), idOf(item));
+    }
+
+    private Cursor last(List<T> rows) {
+        T item = rows.get(rows.size() - 1);
+        return new Cursor(timeOf(item), idOf(item));
+    }
+
+    /**
+     * 分页游标：边界行的 (时间, id)
+     */
+    public static final class Cursor {
+        final long time;
+        final long id;
+
+        Cursor(long time, long id) {
+            this.time = time;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cursor)) return false;
+            Cursor other = (Cursor) o;
+            return time == other.time && id == other.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(time) + Long.hashCode(id);
+        }
+    }
+}
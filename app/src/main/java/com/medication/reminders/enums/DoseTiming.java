@@ -0,0 +1,38 @@
+package com.medication.reminders.enums;
+
+/**
+ * 服药时间分类枚举
+ */
+public enum DoseTiming {
+    ON_TIME(0, "On time"), // 计划时间前后窗口内服用
+    LATE(1, "Late"),       // 晚于窗口但仍对应某次计划提醒
+    EXTRA(2, "Extra");     // 不对应任何计划提醒（额外服用）
+
+    private final int index;
+    private final String displayName;
+
+    DoseTiming(int index, String displayName) {
+        this.index = index;
+        this.displayName = displayName;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 根据索引获取枚举值
+     */
+    public static DoseTiming fromIndex(int index) {
+        for (DoseTiming timing : values()) {
+            if (timing.index == index) {
+                return timing;
+            }
+        }
+        return EXTRA;
+    }
+}
@@ -0,0 +1,38 @@
+package com.medication.reminders.enums;
+
+/**
+ * 提醒延迟指标枚举
+ */
+public enum LatencyMetric {
+    FIRE_DRIFT(0, "Fire drift"),           // 实际触发时间 - 计划提醒时间（不含提前合并送达的载荷）
+    NOTIFICATION_POST(1, "Notification post"), // 收到广播 -> 通知发出
+    ACTION_COMMIT(2, "Action commit");     // 点击通知动作 -> 数据库提交
+
+    private final int index;
+    private final String displayName;
+
+    LatencyMetric(int index, String displayName) {
+        this.index = index;
+        this.displayName = displayName;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 根据索引获取枚举值
+     */
+    public static LatencyMetric fromIndex(int index) {
+        for (LatencyMetric metric : values()) {
+            if (metric.index == index) {
+                return metric;
+            }
+        }
+        return FIRE_DRIFT;
+    }
+}
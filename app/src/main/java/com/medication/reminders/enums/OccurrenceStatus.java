@@ -0,0 +1,39 @@
+package com.medication.reminders.enums;
+
+/**
+ * 提醒实例状态枚举
+ */
+public enum OccurrenceStatus {
+    PENDING(0, "Pending"),
+    TAKEN(1, "Taken"),
+    MISSED(2, "Missed"),
+    SNOOZED(3, "Snoozed");
+
+    private final int index;
+    private final String displayName;
+
+    OccurrenceStatus(int index, String displayName) {
+        this.index = index;
+        this.displayName = displayName;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 根据索引获取枚举值
+     */
+    public static OccurrenceStatus fromIndex(int index) {
+        for (OccurrenceStatus status : values()) {
+            if (status.index == index) {
+                return status;
+            }
+        }
+        return PENDING; // 默认返回待服用
+    }
+}
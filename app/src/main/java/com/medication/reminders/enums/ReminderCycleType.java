@@ -7,7 +7,9 @@ public enum ReminderCycleType {
     DAILY(0, "Daily"),
     WEEKLY(1, "Weekly"),
     MONTHLY(2, "Monthly"),
-    EVERY_X_DAYS(3, "Every X Days");
+    EVERY_X_DAYS(3, "Every X Days"),
+    INTERVAL_HOURS(4, "Every X Hours"), // 自第一个时间起每隔X小时（按实际经过时间）
+    CUSTOM_DATES(5, "Specific Dates");  // 仅在指定日期提醒
 
     private final int index;
     private final String displayName;
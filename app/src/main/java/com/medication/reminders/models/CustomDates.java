@@ -0,0 +1,143 @@
+package com.medication.reminders.models;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * 指定日期列表（不可变）
+ * 以升序、去重的本地纪元日 int 数组保存，下一提醒日通过二分查找 O(log n) 得到；
+ * 通过 Converters 以二进制存入 medication_schedules.custom_dates
+ *
+ * 二进制格式：日期个数 n（4字节）、n 个纪元日（各4字节）
+ * 文本格式（编辑界面）："2025-03-01,2025-03-15"
+ */
+public final class CustomDates {
+
+    public static final CustomDates EMPTY = new CustomDates(new int[0]);
+
+    private final int[] epochDays;
+
+    private CustomDates(int[] epochDays) {
+        this.epochDays = epochDays;
+    }
+
+    /**
+     * 由纪元日构建，排序去重
+     */
+    public static CustomDates of(long[] epochDays) {
+        if (epochDays.length == 0) return EMPTY;
+        int[] days = new int[epochDays.length];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = (int) epochDays[i];
+        }
+        Arrays.sort(days);
+        int unique = 1;
+        for (int k = 1; k < days.length; k++) {
+            if (days[k] != days[unique - 1]) days[unique++] = days[k];
+        }
+        return new CustomDates(Arrays.copyOf(days, unique));
+    }
+
+    /**
+     * 解析逗号分隔的 yyyy-MM-dd 列表，非法项忽略
+     */
+    public static CustomDates parse(String text) {
+        if (text == null || text.trim().isEmpty()) return EMPTY;
+        String[] parts = text.split(",");
+        long[] days = new long[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            try {
+                days[count] = LocalDate.parse(part.trim()).toEpochDay();
+                count++;
+            } catch (DateTimeParseException ignored) {
+                // 忽略非法日期
+            }
+        }
+        return of(Arrays.copyOf(days, count));
+    }
+
+    /**
+     * 转回编辑界面使用的文本格式
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder(epochDays.length * 11);
+        for (int i = 0; i < epochDays.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(LocalDate.ofEpochDay(epochDays[i]));
+        }
+        return sb.toString();
+    }
+
+    public int size() { return epochDays.length; }
+    public boolean isEmpty() { return epochDays.length == 0; }
+    public long getEpochDay(int i) { return epochDays[i]; }
+
+    /**
+     * 第一个不早于 epochDay 的日期下标（二分查找），没有时返回 size()
+     */
+    public int indexOfFirstOnOrAfter(long epochDay) {
+        int lo = 0;
+        int hi = epochDays.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDays[mid] < epochDay) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * 编码为二进制（数据库存储）
+     */
+    public byte[] toBytes() {
+        byte[] out = new byte[4 + epochDays.length * 4];
+        writeInt(out, 0, epochDays.length);
+        for (int i = 0; i < epochDays.length; i++) {
+            writeInt(out, 4 + i * 4, epochDays[i]);
+        }
+        return out;
+    }
+
+    /**
+     * 由二进制解码，数据不完整时返回空
+     */
+    public static CustomDates fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 4) return EMPTY;
+        int n = readInt(bytes, 0);
+        if (n <= 0 || bytes.length < 4 + (long) n * 4) return EMPTY;
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            days[i] = readInt(bytes, 4 + i * 4);
+        }
+        return new CustomDates(days);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CustomDates)) return false;
+        return Arrays.equals(epochDays, ((CustomDates) o).epochDays);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(epochDays);
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    private static void writeInt(byte[] out, int p, int v) {
+        out[p] = (byte) (v >>> 24);
+        out[p + 1] = (byte) (v >>> 16);
+        out[p + 2] = (byte) (v >>> 8);
+        out[p + 3] = (byte) v;
+    }
+
+    private static int readInt(byte[] in, int p) {
+        return ((in[p] & 0xFF) << 24) | ((in[p + 1] & 0xFF) << 16) | ((in[p + 2] & 0xFF) << 8) | (in[p + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,39 @@
+package com.medication.reminders.models;
+
+import com.medication.reminders.database.entity.HealthDiary;
+
+/**
+ * 健康日记检索结果
+ * 包含日记本身、命中位置附近的摘要、摘要中需要高亮的区间以及相关度得分
+ */
+public class DiarySearchResult {
+
+    private final HealthDiary diary;
+    private final String snippet;
+    private final int[] highlights;
+    private final double score;
+
+    public DiarySearchResult(HealthDiary diary, String snippet, int[] highlights, double score) {
+        this.diary = diary;
+        this.snippet = snippet;
+        this.highlights = highlights;
+        this.score = score;
+    }
+
+    public HealthDiary getDiary() { return diary; }
+
+    /**
+     * 命中位置附近的内容，截断处以省略号表示
+     */
+    public String getSnippet() { return snippet; }
+
+    /**
+     * 摘要中的高亮区间，按 [start0, end0, start1, end1 ...] 排列，已按起点排序且互不重叠
+     */
+    public int[] getHighlights() { return highlights; }
+
+    /**
+     * BM25 相关度，越大越相关
+     */
+    public double getScore() { return score; }
+}
@@ -0,0 +1,228 @@
+package com.medication.reminders.models;
+
+import java.util.Arrays;
+
+/**
+ * 计划的每日提醒时间（不可变）
+ * 以升序、去重的当天分钟数 short 数组保存，可选每个时间点单独的剂量；
+ * 通过 Converters 以紧凑二进制存入 medication_schedules.dose_times，读取时无需解析字符串
+ *
+ * 二进制格式：1字节标志位（bit0 = 含剂量）、时间点个数 n（1字节）、n 个分钟数（各2字节），
+ * 含剂量时再跟 n 个剂量（各2字节，0 表示使用药品的默认剂量）
+ *
+ * 文本格式（编辑界面）："08:00,12:30*2,20:15"，"*N" 为该时间点的剂量
+ */
+public final class DoseTimes {
+
+    public static final DoseTimes EMPTY = new DoseTimes(new short[0], null);
+
+    private static final int FLAG_DOSES = 1;
+    // 每天最多的时间点个数（计数以1字节保存）
+    private static final int MAX_SLOTS = 255;
+
+    private final short[] minutes;
+    private final short[] doses; // null 表示全部使用默认剂量
+
+    private DoseTimes(short[] minutes, short[] doses) {
+        this.minutes = minutes;
+        this.doses = doses;
+    }
+
+    /**
+     * 由当天分钟数与对应剂量构建，按分钟排序去重（重复的时间点保留第一个剂量）
+     *
+     * @param doses 与 minutes 对应的剂量，可为null
+     */
+    public static DoseTimes of(int[] minutes, int[] doses) {
+        int n = minutes.length;
+        long[] keyed = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int m = minutes[i];
+            if (m < 0 || m >= 24 * 60) continue;
+            int dose = doses == null ? 0 : Math.max(0, Math.min(Short.MAX_VALUE, doses[i]));
+            // 高位为分钟、中间为原始顺序（稳定排序）、低位为剂量
+            keyed[count++] = ((long) m << 40) | ((long) i << 16) | dose;
+        }
+        if (count == 0) return EMPTY;
+        Arrays.sort(keyed, 0, count);
+        short[] outMinutes = new short[Math.min(count, MAX_SLOTS)];
+        short[] outDoses = new short[outMinutes.length];
+        boolean anyDose = false;
+        int unique = 0;
+        for (int k = 0; k < count && unique < MAX_SLOTS; k++) {
+            short m = (short) (keyed[k] >>> 40);
+            if (unique > 0 && outMinutes[unique - 1] == m) continue;
+            outMinutes[unique] = m;
+            outDoses[unique] = (short) (keyed[k] & 0xFFFF);
+            anyDose |= outDoses[unique] != 0;
+            unique++;
+        }
+        return new DoseTimes(Arrays.copyOf(outMinutes, unique), anyDose ? Arrays.copyOf(outDoses, unique) : null);
+    }
+
+    /**
+     * 解析 "HH:mm[*N],HH:mm[*N]"，非法项忽略
+     */
+    public static DoseTimes parse(String csv) {
+        if (csv == null || csv.isEmpty()) return EMPTY;
+        int[] minutes = new int[8];
+        int[] doses = new int[8];
+        int count = 0;
+        int len = csv.length();
+        int i = 0;
+        while (i < len) {
+            int end = csv.indexOf(',', i);
+            if (end < 0) end = len;
+            int star = csv.indexOf('*', i);
+            int timeEnd = star >= 0 && star < end ? star : end;
+            int minute = parseHourMinute(csv, i, timeEnd);
+            int dose = timeEnd < end ? parseNumber(csv, timeEnd + 1, end) : 0;
+            if (minute >= 0 && dose >= 0) {
+                if (count == minutes.length) {
+                    minutes = Arrays.copyOf(minutes, count * 2);
+                    doses = Arrays.copyOf(doses, count * 2);
+                }
+                minutes[count] = minute;
+                doses[count] = dose;
+                count++;
+            }
+            i = end + 1;
+        }
+        return of(Arrays.copyOf(minutes, count), Arrays.copyOf(doses, count));
+    }
+
+    /**
+     * 转回编辑界面使用的文本格式
+     */
+    public String toCsv() {
+        StringBuilder sb = new StringBuilder(minutes.length * 6);
+        for (int i = 0; i < minutes.length; i++) {
+            if (i > 0) sb.append(',');
+            int m = minutes[i];
+            appendTwoDigits(sb, m / 60).append(':');
+            appendTwoDigits(sb, m % 60);
+            if (doses != null && doses[i] != 0) sb.append('*').append(doses[i]);
+        }
+        return sb.toString();
+    }
+
+    public int size() { return minutes.length; }
+    public boolean isEmpty() { return minutes.length == 0; }
+    public boolean hasDoses() { return doses != null; }
+
+    /**
+     * 第 slot 个时间点的当天分钟数
+     */
+    public int getMinuteOfDay(int slot) { return minutes[slot]; }
+
+    /**
+     * 第 slot 个时间点的剂量，0 表示使用药品的默认剂量
+     */
+    public int getDose(int slot) { return doses == null ? 0 : doses[slot]; }
+
+    /**
+     * 指定当天分钟数的剂量（二分查找），不是计划时间点或未设置时返回0
+     */
+    public int doseAtMinute(int minuteOfDay) {
+        if (doses == null) return 0;
+        int i = Arrays.binarySearch(minutes, (short) minuteOfDay);
+        return i >= 0 ? doses[i] : 0;
+    }
+
+    /**
+     * 编码为二进制（数据库存储）
+     */
+    public byte[] toBytes() {
+        int n = minutes.length;
+        byte[] out = new byte[2 + n * 2 * (doses != null ? 2 : 1)];
+        out[0] = (byte) (doses != null ? FLAG_DOSES : 0);
+        out[1] = (byte) n;
+        int p = 2;
+        for (short m : minutes) {
+            out[p++] = (byte) (m >>> 8);
+            out[p++] = (byte) m;
+        }
+        if (doses != null) {
+            for (short d : doses) {
+                out[p++] = (byte) (d >>> 8);
+                out[p++] = (byte) d;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 由二进制解码，数据不完整时返回空
+     */
+    public static DoseTimes fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) return EMPTY;
+        boolean hasDoses = (bytes[0] & FLAG_DOSES) != 0;
+        int n = bytes[1] & 0xFF;
+        if (bytes.length < 2 + n * 2 * (hasDoses ? 2 : 1)) return EMPTY;
+        short[] minutes = new short[n];
+        int p = 2;
+        for (int i = 0; i < n; i++, p += 2) {
+            minutes[i] = (short) (((bytes[p] & 0xFF) << 8) | (bytes[p + 1] & 0xFF));
+        }
+        short[] doses = null;
+        if (hasDoses) {
+            doses = new short[n];
+            for (int i = 0; i < n; i++, p += 2) {
+                doses[i] = (short) (((bytes[p] & 0xFF) << 8) | (bytes[p + 1] & 0xFF));
+            }
+        }
+        return n == 0 ? EMPTY : new DoseTimes(minutes, doses);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DoseTimes)) return false;
+        DoseTimes other = (DoseTimes) o;
+        return Arrays.equals(minutes, other.minutes) && Arrays.equals(doses, other.doses);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(minutes) + Arrays.hashCode(doses);
+    }
+
+    @Override
+    public String toString() {
+        return toCsv();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder sb, int v) {
+        if (v < 10) sb.append('0');
+        return sb.append(v);
+    }
+
+    private static int parseHourMinute(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') from++;
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        int colon = s.indexOf(':', from);
+        if (colon < 0 || colon >= to) return -1;
+        int h = parseDigits(s, from, colon, 2);
+        int m = parseDigits(s, colon + 1, to, 2);
+        if (h < 0 || h >= 24 || m < 0 || m >= 60) return -1;
+        return h * 60 + m;
+    }
+
+    private static int parseNumber(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') from++;
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        return parseDigits(s, from, to, 4);
+    }
+
+    private static int parseDigits(String s, int from, int to, int maxDigits) {
+        if (from >= to || to - from > maxDigits) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+}
@@ -0,0 +1,36 @@
+package com.medication.reminders.models;
+
+/**
+ * 某一天某项延迟指标的分位数统计
+ */
+public class LatencyPercentiles {
+
+    private final long epochDay; // 本地日期（自1970-01-01起的天数）
+    private final int count;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long max;
+
+    public LatencyPercentiles(long epochDay, int count, long p50, long p95, long p99, long max) {
+        this.epochDay = epochDay;
+        this.count = count;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public long getEpochDay() { return epochDay; }
+    public int getCount() { return count; }
+    public long getP50() { return p50; }
+    public long getP95() { return p95; }
+    public long getP99() { return p99; }
+    public long getMax() { return max; }
+
+    @Override
+    public String toString() {
+        return "LatencyPercentiles{day=" + epochDay + ", n=" + count
+                + ", p50=" + p50 + ", p95=" + p95 + ", p99=" + p99 + ", max=" + max + "}";
+    }
+}
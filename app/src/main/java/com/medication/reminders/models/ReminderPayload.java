@@ -0,0 +1,204 @@
+package com.medication.reminders.models;
+
+import android.content.Intent;
+
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationSchedule;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 提醒通知载荷
+ * 注册闹钟时把通知所需的药品信息随 PendingIntent 一起保存，
+ * 闹钟触发时无需打开数据库即可展示完整通知
+ */
+public class ReminderPayload {
+
+    private static final String EXTRA_SCHEDULE_IDS = "payload_schedule_ids";
+    private static final String EXTRA_MEDICATION_IDS = "payload_medication_ids";
+    private static final String EXTRA_NAMES = "payload_names";
+    private static final String EXTRA_DOSAGES = "payload_dosages";
+    private static final String EXTRA_UNITS = "payload_units";
+    private static final String EXTRA_COLORS = "payload_colors";
+    private static final String EXTRA_SCHEDULED_AT = "payload_scheduled_at";
+    private static final String EXTRA_CRITICAL = "payload_critical";
+    private static final String EXTRA_ESCALATION_LEVELS = "payload_escalation_levels";
+
+    private final long scheduleId;
+    private final long medicationId;
+    private final String medicationName;
+    private final int dosage;
+    private final String unit;
+    private final String color;
+    private final long scheduledAt;
+    private final boolean critical;
+    private final int escalationLevel; // 0 为按计划提醒，1..M 为未确认后的第几次再次提醒
+
+    public ReminderPayload(long scheduleId, long medicationId, String medicationName,
+                           int dosage, String unit, String color, long scheduledAt) {
+        this(scheduleId, medicationId, medicationName, dosage, unit, color, scheduledAt, false, 0);
+    }
+
+    public ReminderPayload(long scheduleId, long medicationId, String medicationName,
+                           int dosage, String unit, String color, long scheduledAt, boolean critical,
+                           int escalationLevel) {
+        this.scheduleId = scheduleId;
+        this.medicationId = medicationId;
+        this.medicationName = medicationName;
+        this.dosage = dosage;
+        this.unit = unit;
+        this.color = color;
+        this.scheduledAt = scheduledAt;
+        this.critical = critical;
+        this.escalationLevel = escalationLevel;
+    }
+
+    /**
+     * 根据计划与药品信息构建载荷，药品不存在时只保留计划信息
+     */
+    public static ReminderPayload from(MedicationSchedule schedule, MedicationInfo medication) {
+        if (medication == null) {
+            return new ReminderPayload(schedule.getId(), schedule.getMedicationId(), null, 0, null, null,
+                    schedule.getNextReminderAt(), schedule.isCritical(), schedule.getEscalationCount());
+        }
+        return new ReminderPayload(schedule.getId(), schedule.getMedicationId(), medication.getName(),
+                medication.getDosagePerIntake(), medication.getUnit(), medication.getColor(),
+                schedule.getNextReminderAt(), schedule.isCritical(), schedule.getEscalationCount());
+    }
+
+    /**
+     * 复制载荷并替换提醒时间与升级级别
+     */
+    public ReminderPayload withSchedule(long newScheduledAt, int newEscalationLevel) {
+        return new ReminderPayload(scheduleId, medicationId, medicationName, dosage, unit, color,
+                newScheduledAt, critical, newEscalationLevel);
+    }
+
+    public long getScheduleId() { return scheduleId; }
+    public long getMedicationId() { return medicationId; }
+    public String getMedicationName() { return medicationName; }
+    public int getDosage() { return dosage; }
+    public String getUnit() { return unit; }
+    public String getColor() { return color; }
+    public long getScheduledAt() { return scheduledAt; }
+    public boolean isCritical() { return critical; }
+    public int getEscalationLevel() { return escalationLevel; }
+
+    /**
+     * 是否包含展示通知所需的药品信息
+     */
+    public boolean hasMedicationInfo() {
+        return medicationName != null;
+    }
+
+    /**
+     * 以并列数组形式写入 Intent extras
+     */
+    public static void putAll(Intent intent, List<ReminderPayload> payloads) {
+        int n = payloads.size();
+        long[] scheduleIds = new long[n];
+        long[] medicationIds = new long[n];
+        String[] names = new String[n];
+        int[] dosages = new int[n];
+        String[] units = new String[n];
+        String[] colors = new String[n];
+        long[] scheduledAts = new long[n];
+        boolean[] criticals = new boolean[n];
+        int[] escalationLevels = new int[n];
+        for (int i = 0; i < n; i++) {
+            ReminderPayload p = payloads.get(i);
+            scheduleIds[i] = p.scheduleId;
+            medicationIds[i] = p.medicationId;
+            names[i] = p.medicationName;
+            dosages[i] = p.dosage;
+            units[i] = p.unit;
+            colors[i] = p.color;
+            scheduledAts[i] = p.scheduledAt;
+            criticals[i] = p.critical;
+            escalationLevels[i] = p.escalationLevel;
+        }
+        intent.putExtra(EXTRA_SCHEDULE_IDS, scheduleIds);
+        intent.putExtra(EXTRA_MEDICATION_IDS, medicationIds);
+        intent.putExtra(EXTRA_NAMES, names);
+        intent.putExtra(EXTRA_DOSAGES, dosages);
+        intent.putExtra(EXTRA_UNITS, units);
+        intent.putExtra(EXTRA_COLORS, colors);
+        intent.putExtra(EXTRA_SCHEDULED_AT, scheduledAts);
+        intent.putExtra(EXTRA_CRITICAL, criticals);
+        intent.putExtra(EXTRA_ESCALATION_LEVELS, escalationLevels);
+    }
+
+    /**
+     * 从 Intent extras 读取载荷，没有或格式不完整时返回空列表
+     */
+    public static List<ReminderPayload> readAll(Intent intent) {
+        List<ReminderPayload> result = new ArrayList<>();
+        long[] scheduleIds = intent.getLongArrayExtra(EXTRA_SCHEDULE_IDS);
+        long[] medicationIds = intent.getLongArrayExtra(EXTRA_MEDICATION_IDS);
+        String[] names = intent.getStringArrayExtra(EXTRA_NAMES);
+        int[] dosages = intent.getIntArrayExtra(EXTRA_DOSAGES);
+        String[] units = intent.getStringArrayExtra(EXTRA_UNITS);
+        String[] colors = intent.getStringArrayExtra(EXTRA_COLORS);
+        long[] scheduledAts = intent.getLongArrayExtra(EXTRA_SCHEDULED_AT);
+        boolean[] criticals = intent.getBooleanArrayExtra(EXTRA_CRITICAL);
+        int[] escalationLevels = intent.getIntArrayExtra(EXTRA_ESCALATION_LEVELS);
+        if (scheduleIds == null || medicationIds == null || names == null || dosages == null
+                || units == null || colors == null || scheduledAts == null) {
+            return result;
+        }
+        int n = scheduleIds.length;
+        if (medicationIds.length != n || names.length != n || dosages.length != n
+                || units.length != n || colors.length != n || scheduledAts.length != n) {
+            return result;
+        }
+        for (int i = 0; i < n; i++) {
+            boolean critical = criticals != null && criticals.length == n && criticals[i];
+            int level = escalationLevels != null && escalationLevels.length == n ? escalationLevels[i] : 0;
+            result.add(new ReminderPayload(scheduleIds[i], medicationIds[i], names[i], dosages[i],
+                    units[i], colors[i], scheduledAts[i], critical, level));
+        }
+        return result;
+    }
+
+    /**
+     * 写入二进制流（用于提醒队列持久化）
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(scheduleId);
+        out.writeLong(medicationId);
+        writeNullableString(out, medicationName);
+        out.writeInt(dosage);
+        writeNullableString(out, unit);
+        writeNullableString(out, color);
+        out.writeLong(scheduledAt);
+        out.writeBoolean(critical);
+        out.writeInt(escalationLevel);
+    }
+
+    public static ReminderPayload readFrom(DataInputStream in) throws IOException {
+        long scheduleId = in.readLong();
+        long medicationId = in.readLong();
+        String name = readNullableString(in);
+        int dosage = in.readInt();
+        String unit = readNullableString(in);
+        String color = readNullableString(in);
+        long scheduledAt = in.readLong();
+        boolean critical = in.readBoolean();
+        int escalationLevel = in.readInt();
+        return new ReminderPayload(scheduleId, medicationId, name, dosage, unit, color, scheduledAt, critical,
+                escalationLevel);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -12,11 +12,19 @@ import com.medication.reminders.database.MedicationDatabase;
 import com.medication.reminders.database.dao.HealthDiaryDao;
 import com.medication.reminders.database.dao.UserDao;
 import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.entity.HealthDiaryFts;
 import com.medication.reminders.database.entity.User;
+import com.medication.reminders.database.paging.HealthDiaryPagingSource;
 import com.medication.reminders.models.BaseDataAccess;
+import com.medication.reminders.models.DiarySearchResult;
 import com.medication.reminders.models.RepositoryCallback;
+import com.medication.reminders.utils.DiarySearchIndex;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -29,6 +37,9 @@ public class HealthDiaryRepository implements BaseDataAccess<HealthDiary, Long>
     
     private static final String TAG = "HealthDiaryRepository";
     
+    // 全文检索返回的最大结果数
+    private static final int MAX_SEARCH_RESULTS = 100;
+    
     private HealthDiaryDao healthDiaryDao;
     private UserDao userDao;
     private Application context;
@@ -422,6 +433,15 @@ public class HealthDiaryRepository implements BaseDataAccess<HealthDiary, Long>
         });
     }
     
+    /**
+     * 创建当前登录用户健康日记的键集分页数据源（按创建时间倒序）
+     * 每次失效后 Pager 会调用此方法创建新的数据源
+     * @return 分页数据源
+     */
+    public HealthDiaryPagingSource createDiaryPagingSource() {
+        return new HealthDiaryPagingSource(MedicationDatabase.getDatabase(context), this::getCurrentLoggedInUserId);
+    }
+    
     /**
      * 获取当前用户的所有健康日记（LiveData）
      * @return 当前用户健康日记列表的LiveData
@@ -539,11 +559,12 @@ public class HealthDiaryRepository implements BaseDataAccess<HealthDiary, Long>
     }
     
     /**
-     * 根据内容搜索健康日记
-     * @param searchQuery 搜索关键词
+     * 全文检索健康日记，按相关度（BM25）降序返回，并附带高亮摘要
+     * 排序只用 FTS 的 matchinfo，正文只为排名前 MAX_SEARCH_RESULTS 的日记读取
+     * @param searchQuery 搜索关键词，空白分隔的多个关键词需同时命中
      * @param callback 搜索结果回调
      */
-    public void searchDiaries(String searchQuery, RepositoryCallback<List<HealthDiary>> callback) {
+    public void searchDiaries(String searchQuery, RepositoryCallback<List<DiarySearchResult>> callback) {
         executeTask(() -> {
             try {
                 // 验证用户身份
@@ -559,10 +580,48 @@ public class HealthDiaryRepository implements BaseDataAccess<HealthDiary, Long>
                     return;
                 }
                 
-                // 搜索日记
-                String searchPattern = "%" + searchQuery.trim() + "%";
-                List<HealthDiary> diaries = healthDiaryDao.searchDiariesByContent(currentUserId, searchPattern);
-                callback.onSuccess(diaries);
+                // 关键词中没有可检索的字符（如只有标点）时没有结果
+                String match = DiarySearchIndex.toMatchQuery(searchQuery);
+                if (match == null) {
+                    callback.onSuccess(new ArrayList<>());
+                    return;
+                }
+                
+                // 按相关度排序，同分时较新的日记在前
+                List<HealthDiaryFts.Match> matches = healthDiaryDao.matchDiaries(currentUserId, match);
+                int n = matches.size();
+                double[] scores = new double[n];
+                Integer[] order = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    scores[i] = DiarySearchIndex.bm25(matches.get(i).matchInfo);
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> {
+                    int byScore = Double.compare(scores[b], scores[a]);
+                    return byScore != 0 ? byScore : Long.compare(matches.get(b).id, matches.get(a).id);
+                });
+                
+                int count = Math.min(n, MAX_SEARCH_RESULTS);
+                List<Long> ids = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    ids.add(matches.get(order[i]).id);
+                }
+                Map<Long, HealthDiary> diaries = new HashMap<>();
+                if (!ids.isEmpty()) {
+                    for (HealthDiary diary : healthDiaryDao.getDiariesByIdsSync(ids)) {
+                        diaries.put(diary.getId(), diary);
+                    }
+                }
+                
+                String[] terms = DiarySearchIndex.terms(searchQuery);
+                List<DiarySearchResult> results = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    HealthDiary diary = diaries.get(ids.get(i));
+                    if (diary != null) {
+                        results.add(DiarySearchIndex.toResult(diary, scores[order[i]], terms));
+                    }
+                }
+                callback.onSuccess(results);
                 
             } catch (Exception e) {
                 DatabaseErrorHandler.DatabaseError error = 
@@ -8,13 +8,26 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.medication.reminders.database.DatabaseErrorHandler;
 import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.MedicationDao;
 import com.medication.reminders.database.dao.MedicationIntakeRecordDao;
+import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
 import com.medication.reminders.database.dao.UserDao;
+import com.medication.reminders.database.entity.MedicationInfo;
 import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
 import com.medication.reminders.database.entity.User;
+import com.medication.reminders.database.paging.IntakeRecordPagingSource;
+import com.medication.reminders.enums.OccurrenceStatus;
 import com.medication.reminders.models.BaseDataAccess;
 import com.medication.reminders.models.RepositoryCallback;
+import com.medication.reminders.utils.DoseMatcher;
+import com.medication.reminders.utils.ReminderCalculator;
+import com.medication.reminders.utils.ReminderClock;
+import com.medication.reminders.utils.ZoneOffsetCache;
 
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -28,7 +41,11 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
     
     private static final String TAG = "MedicationIntakeRecordRepository";
     
+    private MedicationDatabase database;
     private MedicationIntakeRecordDao intakeRecordDao;
+    private MedicationDao medicationDao;
+    private MedicationScheduleDao scheduleDao;
+    private ReminderOccurrenceDao occurrenceDao;
     private UserDao userDao;
     private Context context;
     private ExecutorService executorService;
@@ -49,8 +66,11 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
      * @param context 应用程序上下文
      */
     private void initializeRepository(Context context) {
-        MedicationDatabase database = MedicationDatabase.getDatabase(context);
+        this.database = MedicationDatabase.getDatabase(context);
         this.intakeRecordDao = database.medicationIntakeRecordDao();
+        this.medicationDao = database.medicationDao();
+        this.scheduleDao = database.medicationScheduleDao();
+        this.occurrenceDao = database.reminderOccurrenceDao();
         this.userDao = database.userDao();
         this.context = context.getApplicationContext();
         this.executorService = Executors.newFixedThreadPool(2);
@@ -197,6 +217,9 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
                     record.setIntakeTime(System.currentTimeMillis());
                 }
                 
+                // 关联药品，否则按药物ID的查询与删除都看不到这条记录
+                resolveMedicationId(record);
+                
                 // 插入记录到数据库
                 long recordId = intakeRecordDao.insertIntakeRecord(record);
                 DatabaseErrorHandler.DatabaseResult<Long> result = 
@@ -248,6 +271,9 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
                     return;
                 }
                 
+                // 关联药品
+                resolveMedicationId(record);
+                
                 // 更新记录
                 int result = intakeRecordDao.updateIntakeRecord(record);
                 DatabaseErrorHandler.DatabaseResult<Integer> updateResult = 
@@ -307,6 +333,15 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
         return intakeRecordDao.getAllIntakeRecords();
     }
     
+    /**
+     * 创建用药记录的键集分页数据源（按服用时间倒序）
+     * 每次失效后 Pager 会调用此方法创建新的数据源
+     * @return 分页数据源
+     */
+    public IntakeRecordPagingSource createIntakeRecordPagingSource() {
+        return new IntakeRecordPagingSource(MedicationDatabase.getDatabase(context));
+    }
+    
     /**
      * 获取最近的用药记录（LiveData）
      * @param limit 记录数量限制
@@ -318,13 +353,13 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
     }
     
     /**
-     * 根据药物名称获取用药记录（LiveData）
-     * @param medicationName 药物名称
+     * 根据药物ID获取用药记录（LiveData）
+     * @param medicationId 药物ID
      * @return 该药物的用药记录列表的LiveData
      */
-    public LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationName(String medicationName) {
-        Log.d(TAG, "获取药物 " + medicationName + " 的用药记录");
-        return intakeRecordDao.getIntakeRecordsByMedicationName(medicationName);
+    public LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationId(long medicationId) {
+        Log.d(TAG, "获取药物 " + medicationId + " 的用药记录");
+        return intakeRecordDao.getIntakeRecordsByMedicationId(medicationId);
     }
     
     /**
@@ -367,6 +402,157 @@ public class MedicationIntakeRecordRepository implements BaseDataAccess<Medicati
         });
     }
     
+    /**
+     * 未指定药物ID的记录按与 MIGRATION_18_19 回填相同的规则关联药品：
+     * 优先取对应计划的药品，否则按药物名称匹配（重名时取最新创建的药品），都找不到时保持为 NULL
+     * @param record 用药记录实体
+     */
+    private void resolveMedicationId(MedicationIntakeRecord record) {
+        if (record.getMedicationId() != null) return;
+        if (record.getScheduleId() > 0) {
+            MedicationSchedule schedule = scheduleDao.getByIdSync(record.getScheduleId());
+            if (schedule != null && medicationDao.getMedicationByIdSync(schedule.getMedicationId()) != null) {
+                record.setMedicationId(schedule.getMedicationId());
+                return;
+            }
+        }
+        record.setMedicationId(medicationDao.getLatestMedicationIdByName(record.getMedicationName()));
+    }
+    
+    // ========== 服药事务 ==========
+    
+    /**
+     * 服用一次药物（单事务）：写入与计划提醒匹配后的用药记录并扣减库存
+     * 库存扣减使用 reduceMedicationQuantity 在 SQL 中完成，并发操作不会丢失更新；
+     * 匹配到的时间点单独设置了剂量时按该剂量记录与扣减
+     * 需在后台线程调用
+     * @param medicationId 药物ID
+     * @param scheduleId 已知对应的计划ID（来自提醒通知），0 表示在该药物所有启用计划中匹配
+     * @param now 服用时间
+     * @return 扣减后的药物信息，药物不存在时返回null
+     */
+    public MedicationInfo consumeDoseSync(long medicationId, long scheduleId, long now) {
+        return database.runInTransaction(() -> consumeDose(medicationId, scheduleId, now));
+    }
+    
+    /**
+     * 提醒"已服用"（单事务）：写入用药记录、扣减库存、标记提醒实例并推进计划
+     * 需在后台线程调用
+     * @param scheduleId 计划ID
+     * @param medicationId 药物ID
+     * @param now 服用时间
+     * @return 已推进到下一次提醒的计划，计划不存在时返回null
+     */
+    public MedicationSchedule recordDoseTakenSync(long scheduleId, long medicationId, long now) {
+        return database.runInTransaction(() -> recordDoseTaken(scheduleId, medicationId, now));
+    }
+    
+    /**
+     * 提醒组"全部已服用"：同一组内的所有计划在一个事务中记录
+     * 需在后台线程调用
+     * @param scheduleIds 计划ID列表
+     * @param medicationIds 与计划对应的药物ID列表
+     * @param now 服用时间
+     * @return 已推进到下一次提醒的计划（不存在的计划被跳过）
+     */
+    public List<MedicationSchedule> recordDosesTakenSync(long[] scheduleIds, long[] medicationIds, long now) {
+        return database.runInTransaction(() -> {
+            List<MedicationSchedule> updated = new ArrayList<>(scheduleIds.length);
+            for (int i = 0; i < scheduleIds.length; i++) {
+                MedicationSchedule s = recordDoseTaken(scheduleIds[i], medicationIds[i], now);
+                if (s != null) updated.add(s);
+            }
+            return updated;
+        });
+    }
+    
+    /**
+     * 写入用药记录、标记对应的提醒实例并扣减库存，调用方负责开启事务
+     * 匹配到的提醒已有漏服记录时改写该记录，不再另外插入
+     */
+    private MedicationInfo consumeDose(long medicationId, long scheduleId, long now) {
+        MedicationInfo medication = medicationDao.getMedicationByIdSync(medicationId);
+        if (medication == null) return null;
+        MedicationIntakeRecord record = new MedicationIntakeRecord();
+        record.setMedicationId(medicationId);
+        record.setMedicationName(medication.getName());
+        record.setIntakeTime(now);
+        record.setDosageTaken(medication.getDosagePerIntake());
+        matchScheduledDose(record, medicationId, scheduleId, now);
+        MedicationIntakeRecord missed = record.getScheduleId() > 0
+                ? intakeRecordDao.getMissedRecordSync(record.getScheduleId(), record.getScheduledAt())
+                : null;
+        if (missed != null) {
+            // 该次提醒已补录为漏服：改写为已服用，按计划时间分类为迟服
+            record.setId(missed.getId());
+            intakeRecordDao.updateIntakeRecord(record);
+        } else {
+            intakeRecordDao.insertIntakeRecord(record);
+        }
+        if (record.getScheduleId() > 0) {
+            occurrenceDao.updateStatus(record.getScheduleId(), record.getScheduledAt(),
+                    OccurrenceStatus.TAKEN.getIndex(), now);
+        } else if (scheduleId > 0) {
+            occurrenceDao.updateLatestDueStatus(scheduleId, OccurrenceStatus.TAKEN.getIndex(), now);
+        }
+        medicationDao.reduceMedicationQuantity(medicationId, record.getDosageTaken(), now);
+        return medicationDao.getMedicationByIdSync(medicationId);
+    }
+    
+    /**
+     * 记录提醒对应的一次服药并将计划推进到下一次提醒，调用方负责开启事务
+     */
+    private MedicationSchedule recordDoseTaken(long scheduleId, long medicationId, long now) {
+        consumeDose(medicationId, scheduleId, now);
+        MedicationSchedule schedule = scheduleDao.getByIdSync(scheduleId);
+        if (schedule == null) return null;
+        long next = ReminderCalculator.computeNextReminderEpochMillis(schedule, now);
+        scheduleDao.updateNextReminder(scheduleId, next, now);
+        schedule.setNextReminderAt(next);
+        return schedule;
+    }
+    
+    /**
+     * 将用药记录匹配到最近的未被占用的计划提醒，写入 schedule_id / scheduled_at
+     * 只展开服药时间附近窗口内的提醒，已被其他记录占用的提醒不再匹配；无可匹配提醒时保持为0（额外服用）
+     */
+    private void matchScheduledDose(MedicationIntakeRecord record, long medicationId, long scheduleId, long now) {
+        List<MedicationSchedule> schedules = new ArrayList<>();
+        if (scheduleId > 0) {
+            MedicationSchedule schedule = scheduleDao.getByIdSync(scheduleId);
+            if (schedule != null) schedules.add(schedule);
+        } else {
+            for (MedicationSchedule s : scheduleDao.getSchedulesForMedicationSync(medicationId)) {
+                if (s.isEnabled()) schedules.add(s);
+            }
+        }
+        if (schedules.isEmpty()) return;
+        
+        long from = now - DoseMatcher.LATE_WINDOW_MILLIS;
+        long to = now + DoseMatcher.ON_TIME_WINDOW_MILLIS;
+        ZoneId zone = ReminderClock.get().zone();
+        DoseMatcher matcher = DoseMatcher.forSchedules(schedules, from, to + 1, zone);
+        if (matcher.size() == 0) return;
+        List<Long> scheduleIds = new ArrayList<>(schedules.size());
+        for (MedicationSchedule s : schedules) {
+            scheduleIds.add(s.getId());
+        }
+        for (MedicationIntakeRecordDao.MatchedSlot slot : intakeRecordDao.getMatchedSlots(scheduleIds, from, to)) {
+            matcher.claim(slot.scheduleId, slot.scheduledAt);
+        }
+        int i = matcher.match(now);
+        if (i < 0) return;
+        record.setScheduleId(matcher.getScheduleId(i));
+        record.setScheduledAt(matcher.getScheduledAt(i));
+        // 该时间点单独设置了剂量时按该剂量记录
+        for (MedicationSchedule s : schedules) {
+            if (s.getId() != record.getScheduleId() || !s.getDoseTimes().hasDoses()) continue;
+            int minute = (int) (ZoneOffsetCache.forZone(zone).toLocalMillisOfDay(record.getScheduledAt()) / 60_000L);
+            int dose = s.getDoseTimes().doseAtMinute(minute);
+            if (dose > 0) record.setDosageTaken(dose);
+        }
+    }
+    
     // ========== 清理方法 ==========
     
     /**
@@ -7,9 +7,7 @@ import androidx.lifecycle.LiveData;
 import com.medication.reminders.R;
 import com.medication.reminders.database.MedicationDatabase;
 import com.medication.reminders.database.dao.MedicationDao;
-import com.medication.reminders.database.dao.MedicationIntakeRecordDao;
 import com.medication.reminders.database.entity.MedicationInfo;
-import com.medication.reminders.database.entity.MedicationIntakeRecord;
 import com.medication.reminders.models.MedicationValidationResult;
 
 import java.util.List;
@@ -28,7 +26,6 @@ public class MedicationRepository {
 
     private Application application;
     private MedicationDao medicationDao;
-    private MedicationIntakeRecordDao intakeRecordDao;
     private LiveData<List<MedicationInfo>> allMedications;
     private ExecutorService databaseWriteExecutor;
     
@@ -41,7 +38,6 @@ public class MedicationRepository {
         this.application = application;
         MedicationDatabase db = MedicationDatabase.getDatabase(application);
         medicationDao = db.medicationDao();
-        intakeRecordDao = db.medicationIntakeRecordDao();
         allMedications = medicationDao.getAllMedications();
         
         // Create a single-threaded executor for database write operations
@@ -364,8 +360,9 @@ public class MedicationRepository {
     public void consumeMedication(long medicationId, ConsumeCallback callback) {
         databaseWriteExecutor.execute(() -> {
             try {
-                // 获取药物信息
-                MedicationInfo medication = medicationDao.getMedicationByIdSync(medicationId);
+                // 单事务写入用药记录并扣减库存：剩余量 = max(0, 剩余量 - 每次用量)
+                MedicationInfo medication = MedicationIntakeRecordRepository.getInstance(application)
+                        .consumeDoseSync(medicationId, 0L, System.currentTimeMillis());
                 if (medication == null) {
                     if (callback != null) {
                         callback.onError("未找到指定的药物");
@@ -373,44 +370,13 @@ public class MedicationRepository {
                     return;
                 }
                 
-                // 检查库存是否足够
-                int dosagePerIntake = medication.getDosagePerIntake();
-                int currentRemaining = medication.getRemainingQuantity();
+                // 检查库存状态并返回结果
+                int newRemainingQuantity = medication.getRemainingQuantity();
+                boolean isLowStock = newRemainingQuantity <= medication.getLowStockThreshold() && newRemainingQuantity > 0;
+                boolean isOutOfStock = newRemainingQuantity == 0;
                 
-                // 计算用药后的剩余量：剩余量 = max(0, 剩余量 - 每次用量)
-                int newRemainingQuantity = Math.max(0, currentRemaining - dosagePerIntake);
-                
-                // 更新药物剩余量
-                long currentTime = System.currentTimeMillis();
-                int rowsUpdated = medicationDao.updateMedicationQuantity(medicationId, newRemainingQuantity, currentTime);
-                
-                if (rowsUpdated == 0) {
-                    if (callback != null) {
-                        callback.onError("更新药物库存失败");
-                    }
-                    return;
-                }
-                
-                // 创建用药记录
-                MedicationIntakeRecord intakeRecord = new MedicationIntakeRecord();
-                intakeRecord.setMedicationName(medication.getName());
-                intakeRecord.setIntakeTime(currentTime);
-                intakeRecord.setDosageTaken(dosagePerIntake);
-                
-                long recordId = intakeRecordDao.insertIntakeRecord(intakeRecord);
-                
-                if (recordId > 0) {
-                    // 检查库存状态并返回结果
-                    boolean isLowStock = newRemainingQuantity <= medication.getLowStockThreshold() && newRemainingQuantity > 0;
-                    boolean isOutOfStock = newRemainingQuantity == 0;
-                    
-                    if (callback != null) {
-                        callback.onSuccess(newRemainingQuantity, isLowStock, isOutOfStock);
-                    }
-                } else {
-                    if (callback != null) {
-                        callback.onError("创建用药记录失败");
-                    }
+                if (callback != null) {
+                    callback.onSuccess(newRemainingQuantity, isLowStock, isOutOfStock);
                 }
                 
             } catch (Exception e) {
@@ -6,9 +6,18 @@ import androidx.lifecycle.LiveData;
 
 import com.medication.reminders.database.MedicationDatabase;
 import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.dao.ReminderLatencyDao;
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
 import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.LatencyMetric;
+import com.medication.reminders.models.LatencyPercentiles;
+import com.medication.reminders.models.RepositoryCallback;
+import com.medication.reminders.utils.DirectBootSnapshot;
+import com.medication.reminders.utils.OccurrenceHorizon;
 import com.medication.reminders.utils.ReminderCalculator;
+import com.medication.reminders.utils.ReminderClock;
 import com.medication.reminders.utils.ReminderScheduler;
+import com.medication.reminders.utils.ReminderTelemetry;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -20,6 +29,8 @@ import java.util.concurrent.Executors;
 public class MedicationScheduleRepository {
 
     private final MedicationScheduleDao scheduleDao;
+    private final ReminderOccurrenceDao occurrenceDao;
+    private final ReminderLatencyDao latencyDao;
     private final ExecutorService executor = Executors.newFixedThreadPool(4);
     private final Application application;
 
@@ -27,6 +38,8 @@ public class MedicationScheduleRepository {
         this.application = application;
         MedicationDatabase db = MedicationDatabase.getDatabase(application);
         this.scheduleDao = db.medicationScheduleDao();
+        this.occurrenceDao = db.reminderOccurrenceDao();
+        this.latencyDao = db.reminderLatencyDao();
     }
 
     public LiveData<List<MedicationSchedule>> getAllEnabledSchedules() {
@@ -41,16 +54,32 @@ public class MedicationScheduleRepository {
         return scheduleDao.getSchedulesForMedicationSync(medicationId);
     }
 
+    /**
+     * 按天统计提醒延迟指标在 [from, to) 内的 p50/p95/p99
+     */
+    public void getDailyLatencyPercentiles(LatencyMetric metric, long from, long to,
+                                           RepositoryCallback<List<LatencyPercentiles>> callback) {
+        executor.execute(() -> {
+            try {
+                callback.onSuccess(ReminderTelemetry.dailyPercentiles(latencyDao, metric, from, to));
+            } catch (Exception e) {
+                callback.onError(e.getMessage());
+            }
+        });
+    }
+
     public void insertAndSchedule(MedicationSchedule schedule, Callback callback) {
         executor.execute(() -> {
             try {
-                long now = System.currentTimeMillis();
+                long now = ReminderClock.get().currentTimeMillis();
                 schedule.setUpdatedAt(now);
                 long next = ReminderCalculator.computeNextReminderEpochMillis(schedule, now);
                 schedule.setNextReminderAt(next);
                 long id = scheduleDao.insert(schedule);
                 schedule.setId(id);
+                OccurrenceHorizon.refillSchedule(occurrenceDao, schedule, now);
                 ReminderScheduler.scheduleNext(application, schedule);
+                DirectBootSnapshot.refresh(application, now);
                 if (callback != null) callback.onSuccess(id);
             } catch (Exception e) {
                 if (callback != null) callback.onError(e.getMessage());
@@ -61,12 +90,15 @@ public class MedicationScheduleRepository {
     public void updateAndReschedule(MedicationSchedule schedule, Callback callback) {
         executor.execute(() -> {
             try {
-                long now = System.currentTimeMillis();
+                long now = ReminderClock.get().currentTimeMillis();
+                // 规则字段变化时已缓存的旧计划自动失效（见 SchedulePlan#matches）
+                schedule.setUpdatedAt(now);
                 long next = ReminderCalculator.computeNextReminderEpochMillis(schedule, now);
                 schedule.setNextReminderAt(next);
-                schedule.setUpdatedAt(now);
                 scheduleDao.update(schedule);
+                OccurrenceHorizon.refillSchedule(occurrenceDao, schedule, now);
                 ReminderScheduler.scheduleNext(application, schedule);
+                DirectBootSnapshot.refresh(application, now);
                 if (callback != null) callback.onSuccess(schedule.getId());
             } catch (Exception e) {
                 if (callback != null) callback.onError(e.getMessage());
@@ -76,8 +108,11 @@ public class MedicationScheduleRepository {
 
     public void disableAndCancel(long scheduleId) {
         executor.execute(() -> {
-            scheduleDao.setEnabled(scheduleId, false, System.currentTimeMillis());
+            long now = ReminderClock.get().currentTimeMillis();
+            scheduleDao.setEnabled(scheduleId, false, now);
+            occurrenceDao.deletePendingFrom(scheduleId, now);
             ReminderScheduler.cancel(application, scheduleId);
+            DirectBootSnapshot.refresh(application, now);
         });
     }
 
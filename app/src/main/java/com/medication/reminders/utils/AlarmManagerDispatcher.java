@@ -0,0 +1,34 @@
+package com.medication.reminders.utils;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * 基于 AlarmManager 的投递后端，闹钟精准程度由 {@link AlarmTierPolicy} 决定
+ */
+public class AlarmManagerDispatcher implements ReminderDispatcher {
+
+    private static final int FLAGS = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+
+    @Override
+    public void dispatch(Context context, int requestCode, long triggerAt, Intent intent, boolean critical) {
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (am == null) return;
+        AlarmTierPolicy.arm(context, am, triggerAt, PendingIntent.getBroadcast(context, requestCode, intent, FLAGS), critical);
+    }
+
+    @Override
+    public void cancel(Context context, int requestCode, Intent intent) {
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (am == null) return;
+        am.cancel(PendingIntent.getBroadcast(context, requestCode, intent, FLAGS));
+    }
+
+    @Override
+    public boolean isPending(Context context, int requestCode, Intent intent) {
+        int flags = PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE;
+        return PendingIntent.getBroadcast(context, requestCode, intent, flags) != null;
+    }
+}
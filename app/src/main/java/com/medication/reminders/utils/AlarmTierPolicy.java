@@ -0,0 +1,103 @@
+package com.medication.reminders.utils;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 闹钟分级策略
+ * 根据精准闹钟权限、是否关键剂量以及最近一小时已用的精准闹钟数，为每次注册选择：
+ * - EXACT：setExactAndAllowWhileIdle，准时触发
+ * - WINDOW：setWindow，在 [triggerAt, triggerAt + WINDOW_MILLIS] 内触发，系统可与其他闹钟合并唤醒
+ * - INEXACT：setAndAllowWhileIdle，由系统批量安排
+ * 关键剂量在有权限时始终使用精准闹钟，且不计入预算
+ * 预算只在精准闹钟会带来新的唤醒时扣减：同一 PendingIntent 的上一个精准闹钟已触发，或新的触发时间更早；
+ * 单闹钟模式下反复替换尚未触发的全局闹钟（时间不变或推后）不重复计入
+ */
+public class AlarmTierPolicy {
+
+    public enum Tier {
+        EXACT,
+        WINDOW,
+        INEXACT
+    }
+
+    // 每小时可用于非关键剂量的精准闹钟数
+    public static final int EXACT_BUDGET_PER_HOUR = 12;
+
+    // setWindow 的窗口长度（Android 14 起系统要求不少于10分钟）
+    public static final long WINDOW_MILLIS = 10 * 60 * 1000L;
+
+    private static final long BUDGET_PERIOD_MILLIS = 60 * 60 * 1000L;
+
+    // 最近使用精准闹钟的时间环形缓冲，最旧的一项仍在一小时内即预算已用尽
+    private static final long[] recentExact = new long[EXACT_BUDGET_PER_HOUR];
+    private static int recentIndex;
+
+    // 各 PendingIntent 当前精准闹钟的触发时间，用于识别对尚未触发闹钟的替换
+    private static final Map<PendingIntent, Long> armedExact = new HashMap<>();
+
+    /**
+     * 选择闹钟级别（纯函数，便于推演）
+     *
+     * @param exactAllowed    是否允许精准闹钟
+     * @param critical        是否关键剂量
+     * @param budgetExhausted 最近一小时的精准闹钟预算是否已用尽
+     */
+    public static Tier choose(boolean exactAllowed, boolean critical, boolean budgetExhausted) {
+        if (critical) {
+            // 无权限时精准闹钟可能被拒绝，退而使用窗口闹钟
+            return exactAllowed ? Tier.EXACT : Tier.WINDOW;
+        }
+        if (!exactAllowed) return Tier.INEXACT;
+        return budgetExhausted ? Tier.WINDOW : Tier.EXACT;
+    }
+
+    /**
+     * 按选出的级别注册闹钟
+     *
+     * @return 实际使用的级别
+     */
+    public static Tier arm(Context context, AlarmManager am, long triggerAt, PendingIntent pi, boolean critical) {
+        long now = ReminderClock.get().currentTimeMillis();
+        Tier tier;
+        synchronized (recentExact) {
+            Long armed = armedExact.get(pi);
+            // 替换尚未触发且不提前的精准闹钟不会多唤醒一次，既不扣预算也不因预算降级
+            boolean replacing = armed != null && armed > now && triggerAt >= armed;
+            tier = choose(ExactAlarmPermissionHelper.canScheduleExactAlarms(context), critical,
+                    !replacing && isBudgetExhausted(now));
+            if (tier == Tier.EXACT) {
+                if (!critical && !replacing) {
+                    armedExact.values().removeIf(t -> t <= now);
+                    recentExact[recentIndex] = now;
+                    recentIndex = (recentIndex + 1) % recentExact.length;
+                }
+                armedExact.put(pi, triggerAt);
+            } else {
+                armedExact.remove(pi);
+            }
+        }
+        switch (tier) {
+            case EXACT:
+                am.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pi);
+                break;
+            case WINDOW:
+                am.setWindow(AlarmManager.RTC_WAKEUP, triggerAt, WINDOW_MILLIS, pi);
+                break;
+            case INEXACT:
+            default:
+                am.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pi);
+                break;
+        }
+        return tier;
+    }
+
+    private static boolean isBudgetExhausted(long now) {
+        long oldest = recentExact[recentIndex];
+        return oldest > 0 && now - oldest < BUDGET_PERIOD_MILLIS;
+    }
+}
@@ -2,6 +2,8 @@ package com.medication.reminders.utils;
 
 import androidx.room.TypeConverter;
 
+import com.medication.reminders.models.CustomDates;
+import com.medication.reminders.models.DoseTimes;
 import com.medication.reminders.models.MedicationColor;
 import com.medication.reminders.models.MedicationDosageForm;
 
@@ -96,4 +98,48 @@ public class Converters {
     public static String dosageFormToString(MedicationDosageForm dosageForm) {
         return dosageForm == null ? null : dosageForm.name();
     }
-}
\ No newline at end of file
+    
+    /**
+     * Convert packed binary to DoseTimes
+     * 
+     * @param blob The packed minute-of-day array (see DoseTimes)
+     * @return DoseTimes, empty if blob is null or malformed
+     */
+    @TypeConverter
+    public static DoseTimes fromDoseTimesBlob(byte[] blob) {
+        return DoseTimes.fromBytes(blob);
+    }
+    
+    /**
+     * Convert DoseTimes to packed binary
+     * 
+     * @param doseTimes The DoseTimes
+     * @return Packed binary or null if doseTimes is null
+     */
+    @TypeConverter
+    public static byte[] doseTimesToBlob(DoseTimes doseTimes) {
+        return doseTimes == null ? null : doseTimes.toBytes();
+    }
+    
+    /**
+     * Convert packed binary to CustomDates
+     * 
+     * @param blob The packed epoch-day array (see CustomDates)
+     * @return CustomDates, empty if blob is null or malformed
+     */
+    @TypeConverter
+    public static CustomDates fromCustomDatesBlob(byte[] blob) {
+        return CustomDates.fromBytes(blob);
+    }
+    
+    /**
+     * Convert CustomDates to packed binary
+     * 
+     * @param customDates The CustomDates
+     * @return Packed binary or null if customDates is null
+     */
+    @TypeConverter
+    public static byte[] customDatesToBlob(CustomDates customDates) {
+        return customDates == null ? null : customDates.toBytes();
+    }
+}
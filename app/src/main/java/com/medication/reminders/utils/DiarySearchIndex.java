@@ -0,0 +1,248 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.models.DiarySearchResult;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 健康日记全文检索的分词、查询构造、排序与摘要
+ *
+ * SQLite 自带的 simple/unicode61 分词器把连续的中文整段视为一个词，无法按子串检索，
+ * 因此分词在写入 health_diary_fts 前完成，表上使用 simple 分词器只按空格切分：
+ * - 中日韩文字的连续片段 c1c2...cn 产生 n 个词：c1c2、c2c3 ... c(n-1)cn 与末字 cn，
+ *   词的位置与字的位置一一对应
+ * - 字母数字片段整体作为一个词（小写）
+ * - 其余字符（标点、空白）只作分隔
+ *
+ * 查询按同样规则分词，每个片段的末字改为前缀词 "cn*"（匹配文中的末字或以其开头的二元词），
+ * 组成短语查询，因此任意长度的中文子串都能命中；最后一个字母数字词同样按前缀匹配（边输入边搜索）
+ */
+public final class DiarySearchIndex {
+
+    // BM25 参数
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // 摘要长度（字符）与命中位置之前保留的上下文长度
+    private static final int SNIPPET_LENGTH = 64;
+    private static final int SNIPPET_CONTEXT = 16;
+    private static final String ELLIPSIS = "…";
+
+    private DiarySearchIndex() {
+    }
+
+    /**
+     * 日记内容 -> 以空格分隔的索引词
+     */
+    public static String tokenize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder(text.length() * 2);
+        appendTokens(sb, text, false);
+        return sb.toString();
+    }
+
+    /**
+     * 用户输入 -> FTS MATCH 表达式，按空白分段，每段一个短语，各短语需同时命中
+     *
+     * @return 没有可检索的字符时返回null
+     */
+    public static String toMatchQuery(String query) {
+        if (query == null) return null;
+        StringBuilder sb = new StringBuilder(query.length() * 3);
+        for (String segment : query.trim().split("\\s+")) {
+            StringBuilder phrase = new StringBuilder(segment.length() * 3);
+            appendTokens(phrase, segment, true);
+            if (phrase.length() == 0) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('"').append(phrase).append('"');
+        }
+        if (sb.length() == 0) return null;
+        // 最后一个字母数字词按前缀匹配
+        int end = sb.length() - 1;
+        if (sb.charAt(end - 1) != '*') sb.insert(end, '*');
+        return sb.toString();
+    }
+
+    /**
+     * 用于高亮的检索词：用户输入中连续的可检索字符（小写）
+     */
+    public static String[] terms(String query) {
+        if (query == null) return new String[0];
+        List<String> terms = new ArrayList<>();
+        int n = query.length();
+        int i = 0;
+        while (i < n) {
+            int cp = query.codePointAt(i);
+            if (!isTokenChar(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < n && isTokenChar(query.codePointAt(i))) {
+                i += Character.charCount(query.codePointAt(i));
+            }
+            terms.add(lowerCase(query.substring(start, i)));
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    /**
+     * 由 matchinfo(health_diary_fts, 'pcnalx') 计算 BM25 相关度，越大越相关
+     * matchinfo 为本机字节序的 32 位无符号整数数组
+     */
+    public static double bm25(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 12) return 0;
+        IntBuffer ints = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = ints.get(0);
+        int columns = ints.get(1);
+        int rows = ints.get(2);
+        if (ints.limit() < 3 + 2 * columns + 3 * phrases * columns) return 0;
+        double score = 0;
+        for (int col = 0; col < columns; col++) {
+            double avgLength = Math.max(1, ints.get(3 + col));
+            double length = ints.get(3 + columns + col);
+            double norm = K1 * (1 - B + B * length / avgLength);
+            for (int p = 0; p < phrases; p++) {
+                int x = 3 + 2 * columns + 3 * (p * columns + col);
+                int hits = ints.get(x);
+                int docs = ints.get(x + 2);
+                if (hits == 0) continue;
+                double idf = Math.log(1 + (rows - docs + 0.5) / (docs + 0.5));
+                score += idf * hits * (K1 + 1) / (hits + norm);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * 生成检索结果：截取第一个命中位置附近的内容作为摘要，并标出其中所有命中的位置
+     */
+    public static DiarySearchResult toResult(HealthDiary diary, double score, String[] terms) {
+        String content = diary.getContent() == null ? "" : diary.getContent();
+        String lower = lowerCase(content);
+        int first = -1;
+        for (String term : terms) {
+            int at = lower.indexOf(term);
+            if (at >= 0 && (first < 0 || at < first)) first = at;
+        }
+        int start = Math.max(0, (first < 0 ? 0 : first) - SNIPPET_CONTEXT);
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+        start = Math.max(0, end - SNIPPET_LENGTH);
+        // 不截断代理对
+        if (start > 0 && Character.isLowSurrogate(content.charAt(start))) start--;
+        if (end < content.length() && Character.isLowSurrogate(content.charAt(end))) end++;
+
+        String prefix = start > 0 ? ELLIPSIS : "";
+        String snippet = prefix + content.substring(start, end).replace('\n', ' ')
+                + (end < content.length() ? ELLIPSIS : "");
+
+        int[] highlights = new int[8];
+        int count = 0;
+        for (String term : terms) {
+            if (term.isEmpty()) continue;
+            for (int at = lower.indexOf(term, start); at >= 0 && at + term.length() <= end;
+                 at = lower.indexOf(term, at + term.length())) {
+                if (count == highlights.length) highlights = Arrays.copyOf(highlights, count * 2);
+                highlights[count++] = at - start + prefix.length();
+                highlights[count++] = at - start + prefix.length() + term.length();
+            }
+        }
+        return new DiarySearchResult(diary, snippet, mergeRanges(highlights, count), score);
+    }
+
+    /**
+     * 按起点排序并合并重叠的 [start, end) 区间
+     */
+    private static int[] mergeRanges(int[] ranges, int count) {
+        int n = count / 2;
+        if (n == 0) return new int[0];
+        long[] keyed = new long[n];
+        for (int i = 0; i < n; i++) {
+            keyed[i] = ((long) ranges[2 * i] << 32) | ranges[2 * i + 1];
+        }
+        Arrays.sort(keyed);
+        int[] out = new int[count];
+        int m = 0;
+        for (long k : keyed) {
+            int s = (int) (k >>> 32);
+            int e = (int) k;
+            if (m > 0 && s <= out[m - 1]) {
+                out[m - 1] = Math.max(out[m - 1], e);
+            } else {
+                out[m++] = s;
+                out[m++] = e;
+            }
+        }
+        return Arrays.copyOf(out, m);
+    }
+
+    private static void appendTokens(StringBuilder sb, String text, boolean query) {
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            int cp = text.codePointAt(i);
+            if (isCjk(cp)) {
+                // c1c2 c2c3 ... cn，查询时末字为前缀词 cn*
+                int start = i;
+                int next = i + Character.charCount(cp);
+                while (next < n && isCjk(text.codePointAt(next))) {
+                    int after = next + Character.charCount(text.codePointAt(next));
+                    appendToken(sb, text, start, after);
+                    start = next;
+                    next = after;
+                }
+                appendToken(sb, text, start, next);
+                if (query) sb.append('*');
+                i = next;
+            } else if (isWordChar(cp)) {
+                int start = i;
+                while (i < n && isWordChar(text.codePointAt(i))) {
+                    i += Character.charCount(text.codePointAt(i));
+                }
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(lowerCase(text.substring(start, i)));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+    }
+
+    private static void appendToken(StringBuilder sb, String text, int start, int end) {
+        if (sb.length() > 0) sb.append(' ');
+        sb.append(text, start, end);
+    }
+
+    private static boolean isTokenChar(int cp) {
+        return isCjk(cp) || isWordChar(cp);
+    }
+
+    private static boolean isWordChar(int cp) {
+        return Character.isLetterOrDigit(cp) && !isCjk(cp);
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    /**
+     * 逐字符转小写，长度不变（摘要的命中位置与原文一一对应）
+     */
+    private static String lowerCase(String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,154 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.os.Build;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.ReminderPayload;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直接启动（Direct Boot）提醒快照
+ * 数据库位于凭据加密存储，重启后用户解锁前无法打开。本快照保存在设备加密存储中，
+ * 包含未来 {@link #HORIZON_MILLIS} 内每次提醒的时间与通知载荷，计划变化时重写；
+ * 解锁前由 DirectBootReminderReceiver 读取并注册闹钟、展示通知，不访问数据库
+ */
+public class DirectBootSnapshot {
+
+    private static final String TAG = "DirectBootSnapshot";
+    private static final String FILE_NAME = "reminder_direct_boot_snapshot.bin";
+    private static final int FILE_VERSION = 2;
+
+    // 快照覆盖的时长：足以覆盖重启后长时间未解锁的情况
+    public static final long HORIZON_MILLIS = 48L * 60 * 60 * 1000;
+
+    // 快照条目上限，防止计划过多时文件过大
+    public static final int MAX_ENTRIES = 512;
+
+    private static final Object LOCK = new Object();
+
+    /**
+     * 从数据库读取所有启用计划并重写快照（需在用户解锁后调用）
+     */
+    public static void refresh(Context context, long now) {
+        if (context == null) return;
+        try {
+            MedicationDatabase db = MedicationDatabase.getDatabase(context);
+            List<MedicationSchedule> schedules = db.medicationScheduleDao().getAllEnabledSchedulesSync();
+            Map<Long, MedicationInfo> medications = new HashMap<>();
+            for (MedicationInfo m : db.medicationDao().getAllMedicationsSync()) {
+                medications.put(m.getId(), m);
+            }
+            write(context, schedules, medications, now);
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to refresh direct boot snapshot", e);
+        }
+    }
+
+    /**
+     * 展开计划在 [now, now + HORIZON_MILLIS) 内的提醒并写入快照
+     * 延迟等不在规则内的 nextReminderAt 也一并写入
+     */
+    public static void write(Context context, List<MedicationSchedule> schedules,
+                             Map<Long, MedicationInfo> medications, long now) {
+        List<ReminderPayload> entries = new ArrayList<>();
+        long to = now + HORIZON_MILLIS;
+        ReminderOccurrences.MergedIterator it = ReminderOccurrences.merge(schedules, now, to);
+        while (it.hasNext() && entries.size() < MAX_ENTRIES) {
+            long fireAt = it.nextLong();
+            MedicationSchedule s = schedules.get(it.lastSourceIndex());
+            entries.add(payloadAt(s, medications.get(s.getMedicationId()), fireAt));
+        }
+        boolean extra = false;
+        for (MedicationSchedule s : schedules) {
+            long next = s.getNextReminderAt();
+            if (s.isEnabled() && next > now && next < to && !contains(entries, s.getId(), next)) {
+                entries.add(payloadAt(s, medications.get(s.getMedicationId()), next));
+                extra = true;
+            }
+        }
+        if (extra) {
+            Collections.sort(entries, (a, b) -> Long.compare(a.getScheduledAt(), b.getScheduledAt()));
+            if (entries.size() > MAX_ENTRIES) entries = entries.subList(0, MAX_ENTRIES);
+        }
+        save(context, entries);
+    }
+
+    /**
+     * 读取快照中触发时间在 [from, to) 内的条目（按时间先后）
+     */
+    public static List<ReminderPayload> read(Context context, long from, long to) {
+        List<ReminderPayload> result = new ArrayList<>();
+        synchronized (LOCK) {
+            try (DataInputStream in = new DataInputStream(file(context).openRead())) {
+                if (in.readInt() != FILE_VERSION) return result;
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    ReminderPayload p = ReminderPayload.readFrom(in);
+                    if (p.getScheduledAt() >= to) break;
+                    if (p.getScheduledAt() >= from) result.add(p);
+                }
+            } catch (FileNotFoundException e) {
+                // 尚未生成快照
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to read direct boot snapshot", e);
+            }
+        }
+        return result;
+    }
+
+    private static ReminderPayload payloadAt(MedicationSchedule s, MedicationInfo m, long fireAt) {
+        return ReminderPayload.from(s, m).withSchedule(fireAt, 0);
+    }
+
+    private static boolean contains(List<ReminderPayload> entries, long scheduleId, long fireAt) {
+        for (ReminderPayload p : entries) {
+            if (p.getScheduleId() == scheduleId && p.getScheduledAt() == fireAt) return true;
+        }
+        return false;
+    }
+
+    private static void save(Context context, List<ReminderPayload> entries) {
+        synchronized (LOCK) {
+            AtomicFile file = file(context);
+            FileOutputStream out = null;
+            try {
+                out = file.startWrite();
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeInt(FILE_VERSION);
+                data.writeInt(entries.size());
+                for (ReminderPayload p : entries) {
+                    p.writeTo(data);
+                }
+                data.flush();
+                file.finishWrite(out);
+            } catch (IOException e) {
+                if (out != null) file.failWrite(out);
+                Log.w(TAG, "Failed to write direct boot snapshot", e);
+            }
+        }
+    }
+
+    private static AtomicFile file(Context context) {
+        Context storage = context;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            storage = context.createDeviceProtectedStorageContext();
+        }
+        return new AtomicFile(new File(storage.getFilesDir(), FILE_NAME));
+    }
+}
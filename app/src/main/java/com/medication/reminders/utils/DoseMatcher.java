@@ -0,0 +1,140 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.DoseTiming;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 服药记录与计划提醒的匹配
+ * 以按时间排序的提醒数组（并列计划ID数组）为索引，二分查找服药时间的插入点，
+ * 向两侧各取最近一个未被占用的提醒作为候选，取较近者；每次匹配 O(log n)
+ * 匹配结果写入用药记录的 schedule_id / scheduled_at，之后分类无需再扫描历史
+ */
+public final class DoseMatcher {
+
+    // 计划时间前后此窗口内服用视为准时，提前服用也只接受此窗口
+    public static final long ON_TIME_WINDOW_MILLIS = 30 * 60 * 1000L;
+
+    // 晚于计划时间此窗口内服用仍对应该次提醒（迟服），否则视为额外服用
+    public static final long LATE_WINDOW_MILLIS = 4 * 60 * 60 * 1000L;
+
+    private final long[] times;
+    private final long[] scheduleIds;
+    private final boolean[] claimed;
+
+    /**
+     * @param sortedTimes 升序排列的计划提醒时间
+     * @param scheduleIds 与 sortedTimes 对应的计划ID
+     */
+    public DoseMatcher(long[] sortedTimes, long[] scheduleIds) {
+        this.times = sortedTimes;
+        this.scheduleIds = scheduleIds;
+        this.claimed = new boolean[sortedTimes.length];
+    }
+
+    /**
+     * 以 k 路归并展开一组计划在 [from, to) 内的提醒，结果天然有序
+     */
+    public static DoseMatcher forSchedules(List<MedicationSchedule> schedules, long from, long to, ZoneId zone) {
+        long[] times = new long[16];
+        long[] ids = new long[16];
+        int n = 0;
+        ReminderOccurrences.MergedIterator it = ReminderOccurrences.merge(schedules, from, to, zone);
+        while (it.hasNext()) {
+            if (n == times.length) {
+                times = Arrays.copyOf(times, n * 2);
+                ids = Arrays.copyOf(ids, n * 2);
+            }
+            times[n] = it.nextLong();
+            ids[n] = it.lastScheduleId();
+            n++;
+        }
+        return new DoseMatcher(Arrays.copyOf(times, n), Arrays.copyOf(ids, n));
+    }
+
+    public int size() { return times.length; }
+    public long getScheduledAt(int i) { return times[i]; }
+    public long getScheduleId(int i) { return scheduleIds[i]; }
+
+    /**
+     * 标记已被其他记录占用的提醒
+     *
+     * @return 是否找到该提醒
+     */
+    public boolean claim(long scheduleId, long scheduledAt) {
+        int i = lowerBound(scheduledAt);
+        for (; i < times.length && times[i] == scheduledAt; i++) {
+            if (scheduleIds[i] == scheduleId) {
+                claimed[i] = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为服药时间匹配最近的未占用提醒并将其标记为已占用
+     *
+     * @return 匹配的下标，没有可匹配的提醒（额外服用）时返回-1
+     */
+    public int match(long takenAt) {
+        int pos = lowerBound(takenAt);
+        // 不晚于服药时间的最近未占用提醒（迟服/准时）
+        int before = -1;
+        for (int i = pos - 1; i >= 0 && times[i] >= takenAt - LATE_WINDOW_MILLIS; i--) {
+            if (!claimed[i]) {
+                before = i;
+                break;
+            }
+        }
+        // 晚于服药时间的最近未占用提醒（提前服用）
+        int after = -1;
+        for (int i = pos; i < times.length && times[i] <= takenAt + ON_TIME_WINDOW_MILLIS; i++) {
+            if (!claimed[i]) {
+                after = i;
+                break;
+            }
+        }
+        int best;
+        if (before < 0) {
+            best = after;
+        } else if (after < 0) {
+            best = before;
+        } else {
+            best = times[after] - takenAt < takenAt - times[before] ? after : before;
+        }
+        if (best >= 0) claimed[best] = true;
+        return best;
+    }
+
+    /**
+     * 按已匹配的计划提醒对服药时间分类
+     *
+     * @param scheduleId 匹配的计划ID，0 表示未匹配
+     */
+    public static DoseTiming classify(long scheduleId, long scheduledAt, long takenAt) {
+        if (scheduleId <= 0 || scheduledAt <= 0) return DoseTiming.EXTRA;
+        return takenAt - scheduledAt <= ON_TIME_WINDOW_MILLIS ? DoseTiming.ON_TIME : DoseTiming.LATE;
+    }
+
+    /**
+     * 对用药记录分类，漏服记录（{@link MedicationIntakeRecord#isMissed()}）不应参与分类
+     */
+    public static DoseTiming classify(MedicationIntakeRecord record) {
+        return classify(record.getScheduleId(), record.getScheduledAt(), record.getIntakeTime());
+    }
+
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,133 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.ReminderPayload;
+import com.medication.reminders.view.ReminderReceiver;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 漏服补录
+ * 进程被杀或设备休眠错过闹钟时，计划的 next_reminder_at 停留在过去，
+ * 其间的提醒既未展示也不会被再次计算。补录时：
+ * - 以各计划的 next_reminder_at 作为已处理到的时间，一次 k 路归并枚举所有启用计划
+ *   在 [next_reminder_at, now - 漏服宽限) 内的提醒，按时间顺序批量写入漏服记录
+ * - 同一事务内将对应的提醒实例标记为漏服，并批量推进 next_reminder_at 到宽限内（或之后）的第一次提醒，随后批量重新入队
+ * - 读取落后的计划与上述写入在同一事务中完成，多处同时触发的补录按事务串行，同一剂量只补录一次
+ * - 补录到漏服时发出一条漏服通知，用户不会因闹钟被延迟而对漏服一无所知
+ * 宽限内的提醒仍保留为下一次提醒，随后正常触发
+ */
+public class MissedDoseCatchUp {
+
+    /**
+     * 最早的待触发提醒是否已落后超过漏服宽限（闹钟触发时的快速检查，不访问数据库）
+     */
+    public static boolean isBehind(Context context, long now) {
+        long earliest = ReminderAlarmQueue.getInstance(context).peekTime();
+        return earliest > 0 && earliest < now - OccurrenceHorizon.MISSED_GRACE_MILLIS;
+    }
+
+    /**
+     * @return 补录的漏服记录数
+     */
+    public static int catchUp(Context context, long now) {
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        // 读取与写入在同一事务中：闹钟触发、对账任务、重排与服药记录的写事务互相串行，
+        // 后执行的补录读到的是已推进的 next_reminder_at，不会重复写入漏服，也不会覆盖刚记录服药后的下一次提醒
+        Result result = db.runInTransaction(() -> collect(db, now));
+        if (result == null) return 0;
+
+        for (long id : result.finished) {
+            ReminderScheduler.cancel(context, id);
+        }
+        ReminderScheduler.requeue(context, result.requeue);
+        // 漏服的提醒从未展示过，补录后通知用户
+        ReminderReceiver.showMissedNotification(context, result.missed, now);
+        return result.missed.size();
+    }
+
+    /**
+     * 在事务内读取落后的计划，写入漏服记录、标记提醒实例并推进下一次提醒
+     *
+     * @return 需要在事务提交后重新入队或取消的计划，没有落后的计划时返回null
+     */
+    private static Result collect(MedicationDatabase db, long now) {
+        long cutoff = now - OccurrenceHorizon.MISSED_GRACE_MILLIS;
+
+        List<MedicationSchedule> behind = new ArrayList<>();
+        Set<Long> medicationIds = new HashSet<>();
+        long from = Long.MAX_VALUE;
+        for (MedicationSchedule s : db.medicationScheduleDao().getAllEnabledSchedulesSync()) {
+            long next = s.getNextReminderAt();
+            if (next <= 0 || next >= cutoff) continue;
+            behind.add(s);
+            medicationIds.add(s.getMedicationId());
+            from = Math.min(from, next);
+        }
+        if (behind.isEmpty()) return null;
+
+        // 多个计划共用同一药品时只绑定一次，避免超出 SQLite 的参数数量上限
+        Map<Long, MedicationInfo> medications = new HashMap<>();
+        for (MedicationInfo m : db.medicationDao().getMedicationsByIdsSync(new ArrayList<>(medicationIds))) {
+            medications.put(m.getId(), m);
+        }
+
+        // 归并结果按时间有序，写入的漏服记录也按时间有序
+        ZoneId zone = ReminderClock.get().zone();
+        Result result = new Result();
+        ReminderOccurrences.MergedIterator it = ReminderOccurrences.merge(behind, from, cutoff, zone);
+        while (it.hasNext()) {
+            long at = it.nextLong();
+            MedicationSchedule s = behind.get(it.lastSourceIndex());
+            if (at < s.getNextReminderAt()) continue; // 早于该计划已处理到的时间
+            MedicationInfo m = medications.get(s.getMedicationId());
+            result.missed.add(m != null
+                    ? MedicationIntakeRecord.missed(m.getId(), m.getName(), s.getId(), at)
+                    : MedicationIntakeRecord.missed(null, null, s.getId(), at));
+        }
+
+        int n = behind.size();
+        long[] ids = new long[n];
+        long[] nextAts = new long[n];
+        for (int i = 0; i < n; i++) {
+            MedicationSchedule s = behind.get(i);
+            long next = ReminderCalculator.computeNextReminderEpochMillis(s, cutoff - 1, zone);
+            s.setNextReminderAt(next);
+            s.setEscalationCount(0);
+            ids[i] = s.getId();
+            nextAts[i] = next;
+            if (next > 0) {
+                result.requeue.add(ReminderPayload.from(s, medications.get(s.getMedicationId())));
+            } else {
+                result.finished.add(s.getId());
+            }
+        }
+
+        // 漏服记录与对应提醒实例的状态在同一事务中写入，两张表不会对同一剂量给出不同结论
+        if (!result.missed.isEmpty()) {
+            db.medicationIntakeRecordDao().insertIntakeRecords(result.missed);
+            for (MedicationIntakeRecord r : result.missed) {
+                db.reminderOccurrenceDao().markMissed(r.getScheduleId(), r.getScheduledAt(), now);
+            }
+        }
+        db.medicationScheduleDao().updateNextReminders(ids, nextAts, now);
+        return result;
+    }
+
+    private static final class Result {
+        final List<MedicationIntakeRecord> missed = new ArrayList<>();
+        final List<ReminderPayload> requeue = new ArrayList<>();
+        final List<Long> finished = new ArrayList<>();
+    }
+}
@@ -0,0 +1,78 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.database.entity.ReminderOccurrence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 提醒实例展开工具
+ * 负责将计划在未来 {@link #HORIZON_DAYS} 天内的提醒时间写入 reminder_occurrences 表
+ */
+public class OccurrenceHorizon {
+
+    public static final int HORIZON_DAYS = 7;
+    public static final long HORIZON_MILLIS = HORIZON_DAYS * 24L * 60 * 60 * 1000;
+
+    // 超过该时长仍未处理的提醒视为漏服
+    public static final long MISSED_GRACE_MILLIS = 60L * 60 * 1000;
+
+    // 历史提醒实例保留时长
+    public static final long RETENTION_MILLIS = 90L * 24 * 60 * 60 * 1000;
+
+    /**
+     * 展开计划在 [from, to) 内的提醒实例
+     */
+    public static List<ReminderOccurrence> expand(MedicationSchedule schedule, long from, long to) {
+        List<ReminderOccurrence> result = new ArrayList<>();
+        if (schedule == null || !schedule.isEnabled() || from >= to) return result;
+        ReminderOccurrences.ScheduleIterator it = ReminderOccurrences.between(schedule, from, to);
+        while (it.hasNext()) {
+            result.add(new ReminderOccurrence(schedule.getId(), schedule.getMedicationId(), it.nextLong()));
+        }
+        return result;
+    }
+
+    /**
+     * 计划新增/修改后重建其未来的待服用实例；停用的计划只删除不重建
+     */
+    public static void refillSchedule(ReminderOccurrenceDao dao, MedicationSchedule schedule, long now) {
+        if (dao == null || schedule == null || schedule.getId() <= 0) return;
+        dao.replacePendingFrom(schedule.getId(), now, expand(schedule, now, now + HORIZON_MILLIS));
+    }
+
+    /**
+     * 补齐所有启用计划的展开窗口，并标记漏服、清理过期实例
+     * 每个计划只从已展开到的最晚时间之后继续展开
+     *
+     * @return 新写入的提醒实例数
+     */
+    public static int topUp(ReminderOccurrenceDao dao, List<MedicationSchedule> enabledSchedules, long now) {
+        if (dao == null) return 0;
+        dao.markMissedBefore(now - MISSED_GRACE_MILLIS, now);
+        dao.deleteOlderThan(now - RETENTION_MILLIS);
+        if (enabledSchedules == null || enabledSchedules.isEmpty()) return 0;
+
+        List<ReminderOccurrenceDao.ScheduleHorizon> horizons = dao.getScheduleHorizons();
+        Map<Long, Long> lastFireAt = new HashMap<>(horizons.size() * 2);
+        for (ReminderOccurrenceDao.ScheduleHorizon h : horizons) {
+            lastFireAt.put(h.scheduleId, h.lastFireAt);
+        }
+
+        long to = now + HORIZON_MILLIS;
+        List<ReminderOccurrence> batch = new ArrayList<>();
+        for (MedicationSchedule s : enabledSchedules) {
+            Long last = lastFireAt.get(s.getId());
+            long from = last == null ? now : Math.max(now, last + 1);
+            batch.addAll(expand(s, from, to));
+        }
+        if (!batch.isEmpty()) {
+            dao.insertAll(batch);
+        }
+        return batch.size();
+    }
+}
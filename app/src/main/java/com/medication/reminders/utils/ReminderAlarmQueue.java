@@ -0,0 +1,322 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import com.medication.reminders.models.ReminderPayload;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 持久化的提醒最小堆
+ * 以 (nextReminderAt, scheduleId) 为元素，堆顶即全局最早的提醒时间，
+ * 单闹钟模式下只需为堆顶注册一个系统闹钟。每次修改后写入 filesDir 下的二进制文件
+ * 每个计划同时保存一份通知载荷，闹钟触发时无需查询数据库
+ */
+public class ReminderAlarmQueue {
+
+    private static final String TAG = "ReminderAlarmQueue";
+    private static final String FILE_NAME = "reminder_alarm_queue.bin";
+    private static final int FILE_VERSION = 4;
+
+    private static volatile ReminderAlarmQueue INSTANCE;
+
+    private final AtomicFile file;
+    private long[] times = new long[16];
+    private long[] ids = new long[16];
+    private int size;
+    // scheduleId -> 堆中下标，用于 O(log n) 更新/删除
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final Map<Long, ReminderPayload> payloads = new HashMap<>();
+
+    private ReminderAlarmQueue(Context context) {
+        this.file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+        load();
+    }
+
+    public static ReminderAlarmQueue getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (ReminderAlarmQueue.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ReminderAlarmQueue(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 新增或更新计划的下一次提醒时间
+     *
+     * @return 更新后堆顶的提醒时间，堆为空时返回0
+     */
+    public synchronized long upsert(long scheduleId, long triggerAt, ReminderPayload payload) {
+        if (payload != null) payloads.put(scheduleId, payload);
+        Integer pos = positions.get(scheduleId);
+        if (pos == null) {
+            ensureCapacity(size + 1);
+            times[size] = triggerAt;
+            ids[size] = scheduleId;
+            positions.put(scheduleId, size);
+            siftUp(size++);
+        } else {
+            long old = times[pos];
+            times[pos] = triggerAt;
+            if (triggerAt < old) siftUp(pos); else siftDown(pos);
+        }
+        save();
+        return peekTime();
+    }
+
+    /**
+     * 用一批计划整体替换队列内容（开机/时间变化后的批量重排），
+     * O(n) 建堆且只写一次文件；triggerAt <= 0 的计划不入队
+     *
+     * @return 替换后堆顶的提醒时间，堆为空时返回0
+     */
+    public synchronized long replaceAll(long[] scheduleIds, long[] triggerAts, ReminderPayload[] newPayloads) {
+        size = 0;
+        positions.clear();
+        payloads.clear();
+        ensureCapacity(scheduleIds.length);
+        for (int i = 0; i < scheduleIds.length; i++) {
+            if (triggerAts[i] <= 0) continue;
+            times[size] = triggerAts[i];
+            ids[size] = scheduleIds[i];
+            positions.put(scheduleIds[i], size);
+            if (newPayloads != null && newPayloads[i] != null) payloads.put(scheduleIds[i], newPayloads[i]);
+            size++;
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        save();
+        return peekTime();
+    }
+
+    /**
+     * 批量新增/更新与移除计划（对账修复），只写一次文件
+     *
+     * @return 更新后堆顶的提醒时间，堆为空时返回0
+     */
+    public synchronized long applyAll(long[] upsertIds, long[] upsertTimes, ReminderPayload[] upsertPayloads,
+                                      long[] removeIds) {
+        boolean changed = false;
+        for (long id : removeIds) {
+            Integer pos = positions.remove(id);
+            payloads.remove(id);
+            if (pos != null) {
+                removeAt(pos);
+                changed = true;
+            }
+        }
+        for (int i = 0; i < upsertIds.length; i++) {
+            long id = upsertIds[i];
+            if (upsertPayloads != null && upsertPayloads[i] != null) payloads.put(id, upsertPayloads[i]);
+            Integer pos = positions.get(id);
+            if (pos == null) {
+                ensureCapacity(size + 1);
+                times[size] = upsertTimes[i];
+                ids[size] = id;
+                positions.put(id, size);
+                siftUp(size++);
+            } else {
+                long old = times[pos];
+                times[pos] = upsertTimes[i];
+                if (upsertTimes[i] < old) siftUp(pos); else siftDown(pos);
+            }
+            changed = true;
+        }
+        if (changed) save();
+        return peekTime();
+    }
+
+    /**
+     * 计划在队列中的提醒时间，不在队列中时返回0
+     */
+    public synchronized long timeOf(long scheduleId) {
+        Integer pos = positions.get(scheduleId);
+        return pos == null ? 0L : times[pos];
+    }
+
+    /**
+     * 当前队列中所有计划ID（顺序不保证）
+     */
+    public synchronized long[] scheduleIds() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * 移除计划
+     *
+     * @return 更新后堆顶的提醒时间，堆为空时返回0
+     */
+    public synchronized long remove(long scheduleId) {
+        Integer pos = positions.remove(scheduleId);
+        payloads.remove(scheduleId);
+        if (pos != null) {
+            removeAt(pos);
+            save();
+        }
+        return peekTime();
+    }
+
+    /**
+     * 堆顶（最早）的提醒时间，堆为空时返回0
+     */
+    public synchronized long peekTime() {
+        return size == 0 ? 0L : times[0];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 取出所有 triggerAt <= dueBefore 的计划载荷（按时间先后）
+     * 没有保存载荷的计划返回只含计划ID的载荷
+     */
+    public synchronized List<ReminderPayload> pollDue(long dueBefore) {
+        List<ReminderPayload> due = new ArrayList<>();
+        while (size > 0 && times[0] <= dueBefore) {
+            long id = ids[0];
+            due.add(payloadOrEmpty(id, times[0]));
+            positions.remove(id);
+            payloads.remove(id);
+            removeAt(0);
+        }
+        if (!due.isEmpty()) save();
+        return due;
+    }
+
+    /**
+     * 查看所有 triggerAt <= dueBefore 的计划载荷但不出队（顺序不保证）
+     * 满足条件的元素必然构成以堆顶为根的子树，只需遍历该子树
+     */
+    public synchronized List<ReminderPayload> peekDue(long dueBefore) {
+        List<ReminderPayload> due = new ArrayList<>();
+        if (size == 0 || times[0] > dueBefore) return due;
+        int[] stack = new int[Math.max(1, size)];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            due.add(payloadOrEmpty(ids[i], times[i]));
+            int child = 2 * i + 1;
+            if (child < size && times[child] <= dueBefore) stack[top++] = child;
+            if (child + 1 < size && times[child + 1] <= dueBefore) stack[top++] = child + 1;
+        }
+        return due;
+    }
+
+    private ReminderPayload payloadOrEmpty(long scheduleId, long triggerAt) {
+        ReminderPayload p = payloads.get(scheduleId);
+        return p != null ? p : new ReminderPayload(scheduleId, -1, null, 0, null, null, triggerAt);
+    }
+
+    private void removeAt(int pos) {
+        int last = --size;
+        if (pos != last) {
+            long movedId = ids[last];
+            times[pos] = times[last];
+            ids[pos] = movedId;
+            positions.put(movedId, pos);
+            siftDown(pos);
+            if (ids[pos] == movedId) siftUp(pos);
+        }
+    }
+
+    private boolean less(int a, int b) {
+        return times[a] < times[b] || (times[a] == times[b] && ids[a] < ids[b]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && less(child + 1, child)) child++;
+            if (!less(child, i)) break;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long t = times[a]; times[a] = times[b]; times[b] = t;
+        long id = ids[a]; ids[a] = ids[b]; ids[b] = id;
+        positions.put(ids[a], a);
+        positions.put(ids[b], b);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int newLength = Math.max(capacity, times.length * 2);
+            times = Arrays.copyOf(times, newLength);
+            ids = Arrays.copyOf(ids, newLength);
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(file.openRead())) {
+            if (in.readInt() != FILE_VERSION) return;
+            int n = in.readInt();
+            ensureCapacity(n);
+            for (int i = 0; i < n; i++) {
+                times[i] = in.readLong();
+                ids[i] = in.readLong();
+                positions.put(ids[i], i);
+                if (in.readBoolean()) payloads.put(ids[i], ReminderPayload.readFrom(in));
+            }
+            size = n;
+        } catch (FileNotFoundException e) {
+            // 首次使用，队列为空
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to load alarm queue, starting empty", e);
+            size = 0;
+            positions.clear();
+            payloads.clear();
+        }
+    }
+
+    private void save() {
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(FILE_VERSION);
+            data.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                data.writeLong(times[i]);
+                data.writeLong(ids[i]);
+                ReminderPayload p = payloads.get(ids[i]);
+                data.writeBoolean(p != null);
+                if (p != null) p.writeTo(data);
+            }
+            data.flush();
+            file.finishWrite(out);
+        } catch (IOException e) {
+            if (out != null) file.failWrite(out);
+            Log.w(TAG, "Failed to persist alarm queue", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.medication.reminders.utils;
+
+import java.time.ZoneId;
+
+/**
+ * 可注入的时钟
+ * 提醒计算、计划仓库与提醒接收器通过 {@link #get()} 读取当前时间与时区，
+ * 测试或压测时可替换为虚拟时钟（见测试源码中的 VirtualClock），在普通 JVM 上推进虚拟时间
+ */
+public abstract class ReminderClock {
+
+    /**
+     * 系统时钟
+     */
+    public static final ReminderClock SYSTEM = new ReminderClock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile ReminderClock current = SYSTEM;
+
+    public static ReminderClock get() {
+        return current;
+    }
+
+    /**
+     * 替换全局时钟，传入null恢复系统时钟
+     */
+    public static void set(ReminderClock clock) {
+        current = clock == null ? SYSTEM : clock;
+    }
+
+    public abstract long currentTimeMillis();
+
+    public ZoneId zone() {
+        return ZoneId.systemDefault();
+    }
+}
@@ -0,0 +1,29 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * 提醒投递后端
+ * 在指定时间把 intent 投递给 ReminderReceiver；同一 requestCode 的新任务替换旧任务。
+ * 实现：{@link AlarmManagerDispatcher}（默认）、{@link WorkManagerDispatcher}；测试中另有进程内的 VirtualClockDispatcher
+ */
+public interface ReminderDispatcher {
+
+    /**
+     * 在 triggerAt 投递 intent
+     *
+     * @param critical 是否包含关键剂量（影响闹钟精准程度）
+     */
+    void dispatch(Context context, int requestCode, long triggerAt, Intent intent, boolean critical);
+
+    /**
+     * 取消 requestCode 对应的待投递任务，intent 需与注册时的 action/组件一致
+     */
+    void cancel(Context context, int requestCode, Intent intent);
+
+    /**
+     * requestCode 对应的任务是否仍待投递
+     */
+    boolean isPending(Context context, int requestCode, Intent intent);
+}
@@ -0,0 +1,72 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.ReminderPayload;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 未确认提醒的升级
+ * 提醒触发后为每个计划只保留一个"下一次提醒"：若计划开启升级（每隔N分钟、最多M次）且尚未用尽，
+ * 下一次提醒为 min(再次提醒时间, 下一次按计划提醒)，否则为下一次按计划提醒。
+ * 升级状态保存在计划行（next_reminder_at、escalation_count），不额外注册闹钟；
+ * 用户点击"已服用"/"延迟"时更新下一次提醒时间，升级随之结束
+ */
+public class ReminderEscalation {
+
+    /**
+     * 计算已触发提醒的下一次提醒并单事务写回计划行
+     *
+     * @return 需要重新入队的载荷（scheduledAt 为下一次提醒时间）
+     */
+    public static List<ReminderPayload> followUps(Context context, List<ReminderPayload> fired, long now) {
+        List<ReminderPayload> result = new ArrayList<>();
+        if (context == null || fired == null || fired.isEmpty()) return result;
+
+        MedicationScheduleDao scheduleDao = MedicationDatabase.getDatabase(context).medicationScheduleDao();
+        List<Long> ids = new ArrayList<>(fired.size());
+        for (ReminderPayload p : fired) ids.add(p.getScheduleId());
+        Map<Long, MedicationSchedule> schedules = new HashMap<>();
+        for (MedicationSchedule s : scheduleDao.getByIdsSync(ids)) {
+            schedules.put(s.getId(), s);
+        }
+
+        long[] updateIds = new long[fired.size()];
+        long[] nextAts = new long[fired.size()];
+        int[] levels = new int[fired.size()];
+        int n = 0;
+        for (ReminderPayload p : fired) {
+            MedicationSchedule s = schedules.get(p.getScheduleId());
+            if (s == null || !s.isEnabled()) continue;
+            long base = Math.max(now, p.getScheduledAt());
+            long next = ReminderCalculator.computeNextReminderEpochMillis(s, base);
+            int level = 0;
+            if (s.getEscalationIntervalMinutes() > 0 && p.getEscalationLevel() < s.getEscalationMaxCount()) {
+                long escalateAt = base + s.getEscalationIntervalMinutes() * 60_000L;
+                if (next <= 0 || escalateAt < next) {
+                    next = escalateAt;
+                    level = p.getEscalationLevel() + 1;
+                }
+            }
+            if (next <= 0) continue;
+            updateIds[n] = s.getId();
+            nextAts[n] = next;
+            levels[n] = level;
+            n++;
+            result.add(p.withSchedule(next, level));
+        }
+        if (n > 0) {
+            scheduleDao.updateAfterFired(Arrays.copyOf(updateIds, n), Arrays.copyOf(nextAts, n),
+                    Arrays.copyOf(levels, n), now);
+        }
+        return result;
+    }
+}
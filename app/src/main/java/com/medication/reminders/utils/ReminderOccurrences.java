@@ -0,0 +1,227 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.ReminderCycleType;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 提醒时间区间枚举
+ * 惰性地按时间顺序产出计划在 [from, to) 内的每一次提醒时间，
+ * 多个计划可通过 k 路归并按时间顺序合并，内存占用与区间长度无关
+ */
+public final class ReminderOccurrences {
+
+    private ReminderOccurrences() {
+    }
+
+    /**
+     * 单个计划在 [fromInclusive, toExclusive) 内的提醒时间，按 {@link ReminderClock} 的时区展开
+     */
+    public static ScheduleIterator between(MedicationSchedule schedule, long fromInclusive, long toExclusive) {
+        return between(schedule, fromInclusive, toExclusive, ReminderClock.get().zone());
+    }
+
+    public static ScheduleIterator between(MedicationSchedule schedule, long fromInclusive, long toExclusive, ZoneId zone) {
+        if (schedule == null || !schedule.isEnabled() || fromInclusive >= toExclusive) {
+            return new ScheduleIterator(null, fromInclusive, toExclusive);
+        }
+        SchedulePlan plan = ReminderCalculator.planFor(schedule, zone, fromInclusive);
+        return new ScheduleIterator(plan, fromInclusive, toExclusive);
+    }
+
+    /**
+     * 以 LongStream 形式返回单个计划的提醒时间（有序、不重复）
+     */
+    public static LongStream stream(MedicationSchedule schedule, long fromInclusive, long toExclusive) {
+        ScheduleIterator it = between(schedule, fromInclusive, toExclusive);
+        int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(it, characteristics), false);
+    }
+
+    /**
+     * 多个计划的提醒时间按时间顺序合并，按 {@link ReminderClock} 的时区展开
+     */
+    public static MergedIterator merge(List<MedicationSchedule> schedules, long fromInclusive, long toExclusive) {
+        return merge(schedules, fromInclusive, toExclusive, ReminderClock.get().zone());
+    }
+
+    public static MergedIterator merge(List<MedicationSchedule> schedules, long fromInclusive, long toExclusive, ZoneId zone) {
+        int n = schedules == null ? 0 : schedules.size();
+        ScheduleIterator[] sources = new ScheduleIterator[n];
+        long[] scheduleIds = new long[n];
+        for (int i = 0; i < n; i++) {
+            MedicationSchedule s = schedules.get(i);
+            sources[i] = between(s, fromInclusive, toExclusive, zone);
+            scheduleIds[i] = s == null ? 0L : s.getId();
+        }
+        return new MergedIterator(sources, scheduleIds);
+    }
+
+    /**
+     * 单个计划的惰性提醒时间迭代器
+     */
+    public static final class ScheduleIterator implements PrimitiveIterator.OfLong {
+
+        private final SchedulePlan plan;
+        private final ZoneOffsetCache zoneCache;
+        private final long from;
+        private final long to;
+        private long day;
+        private int slot;
+        private long next;
+        private long last = Long.MIN_VALUE;
+        private boolean hasNext;
+
+        ScheduleIterator(SchedulePlan plan, long fromInclusive, long toExclusive) {
+            this.plan = plan;
+            this.zoneCache = plan == null ? null : plan.getZoneCache();
+            this.from = fromInclusive;
+            this.to = toExclusive;
+            if (plan == null || plan.getTimesCount() == 0) {
+                this.day = SchedulePlan.NO_DAY;
+            } else {
+                this.day = plan.nextActiveDay(zoneCache.toLocalEpochDay(fromInclusive));
+            }
+            advance();
+        }
+
+        private void advance() {
+            hasNext = false;
+            if (day != SchedulePlan.NO_DAY && plan.getCycleType() == ReminderCycleType.INTERVAL_HOURS) {
+                // 每隔X小时不按日排列，直接由计划逐个计算
+                long t = plan.nextAfter(last == Long.MIN_VALUE ? from - 1 : last);
+                if (t <= 0 || t >= to) {
+                    day = SchedulePlan.NO_DAY;
+                    return;
+                }
+                next = t;
+                last = t;
+                hasNext = true;
+                return;
+            }
+            while (day != SchedulePlan.NO_DAY) {
+                while (slot < plan.getTimesCount()) {
+                    long t = zoneCache.toEpochMillis(day, plan.getMinuteOfDay(slot++));
+                    // 夏令时空档内的多个时间点会落在同一时刻，只产出一次
+                    if (t < from || t <= last) continue;
+                    if (t >= to) {
+                        day = SchedulePlan.NO_DAY;
+                        return;
+                    }
+                    next = t;
+                    last = t;
+                    hasNext = true;
+                    return;
+                }
+                day = plan.nextActiveDay(day + 1);
+                slot = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext) throw new NoSuchElementException();
+            long result = next;
+            advance();
+            return result;
+        }
+
+        /**
+         * 查看下一个提醒时间但不前进
+         */
+        public long peek() {
+            if (!hasNext) throw new NoSuchElementException();
+            return next;
+        }
+    }
+
+    /**
+     * 多计划 k 路归并迭代器（以最小堆维护各计划的下一次提醒时间）
+     * 每次 nextLong() 之后可通过 {@link #lastScheduleId()} 获取该时间所属计划
+     */
+    public static final class MergedIterator implements PrimitiveIterator.OfLong {
+
+        private final ScheduleIterator[] sources;
+        private final long[] scheduleIds;
+        private final int[] heap;
+        private int size;
+        private int lastSource = -1;
+
+        MergedIterator(ScheduleIterator[] sources, long[] scheduleIds) {
+            this.sources = sources;
+            this.scheduleIds = scheduleIds;
+            this.heap = new int[sources.length];
+            for (int i = 0; i < sources.length; i++) {
+                if (sources[i].hasNext()) heap[size++] = i;
+            }
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return size > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (size == 0) throw new NoSuchElementException();
+            int src = heap[0];
+            long result = sources[src].nextLong();
+            lastSource = src;
+            if (!sources[src].hasNext()) {
+                heap[0] = heap[--size];
+            }
+            if (size > 0) siftDown(0);
+            return result;
+        }
+
+        /**
+         * 上一次 nextLong() 返回值所属计划在输入列表中的下标
+         */
+        public int lastSourceIndex() {
+            return lastSource;
+        }
+
+        /**
+         * 上一次 nextLong() 返回值所属计划的ID
+         */
+        public long lastScheduleId() {
+            return lastSource < 0 ? 0L : scheduleIds[lastSource];
+        }
+
+        private boolean less(int a, int b) {
+            long ta = sources[a].peek();
+            long tb = sources[b].peek();
+            return ta < tb || (ta == tb && a < b);
+        }
+
+        private void siftDown(int i) {
+            int item = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && less(heap[child + 1], heap[child])) child++;
+                if (!less(heap[child], item)) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
+import com.medication.reminders.database.entity.MedicationSchedule;
+
+import java.util.List;
+
+/**
+ * 批量重排所有启用计划的提醒
+ * 先补录关机或时钟跳变期间错过的提醒为漏服，再一次查询读出全部启用计划，
+ * 单遍重新计算下一次提醒时间，单事务写回，最后统一注册闹钟
+ */
+public class ReminderRearmer {
+
+    /**
+     * @param context 上下文
+     * @param now 当前时间
+     * @param recomputeAll true：全部重新计算（时间/时区变化）；false：仅重算已过期的时间（开机/应用更新），保留未到期的延迟等时间
+     * @return 处理的计划数
+     */
+    public static int rearmAll(Context context, long now, boolean recomputeAll) {
+        // 重排会把过期的下一次提醒直接推进到未来，须先补录其间的漏服
+        MissedDoseCatchUp.catchUp(context, now);
+
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        MedicationScheduleDao scheduleDao = db.medicationScheduleDao();
+        List<MedicationSchedule> schedules = scheduleDao.getAllEnabledSchedulesSync();
+
+        int n = schedules.size();
+        long[] ids = new long[n];
+        long[] nextAts = new long[n];
+        for (int i = 0; i < n; i++) {
+            MedicationSchedule s = schedules.get(i);
+            long next = s.getNextReminderAt();
+            if (recomputeAll || next <= now) {
+                next = ReminderCalculator.computeNextReminderEpochMillis(s, now);
+                s.setNextReminderAt(next);
+            }
+            ids[i] = s.getId();
+            nextAts[i] = next;
+        }
+        scheduleDao.updateNextReminders(ids, nextAts, now);
+
+        if (recomputeAll) {
+            // 时区变化后未来的提醒实例需按新时区重新展开
+            ReminderOccurrenceDao occurrenceDao = db.reminderOccurrenceDao();
+            db.runInTransaction(() -> {
+                occurrenceDao.deleteAllPendingFrom(now);
+                OccurrenceHorizon.topUp(occurrenceDao, schedules, now);
+            });
+        }
+
+        ReminderScheduler.scheduleAll(context, schedules);
+        DirectBootSnapshot.refresh(context, now);
+        return n;
+    }
+}
@@ -0,0 +1,137 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.ReminderPayload;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 提醒闹钟对账
+ * 对比 medication_schedules 中的启用计划与实际已注册的闹钟，只修复差异：
+ * - 已过期或缺失的 next_reminder_at 批量重新计算并单事务写回
+ * - 队列中缺失/时间不一致的计划批量入队，已停用的计划批量出队
+ * - 系统闹钟被清除（强制停止、应用更新）时重新注册
+ * 无差异时只执行一次覆盖索引查询，不会取消或重新注册任何闹钟
+ */
+public class ReminderReconciler {
+
+    /**
+     * @return 修复的计划数（重新计算、重新入队或移出队列）
+     */
+    public static int reconcile(Context context, long now) {
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        MedicationScheduleDao scheduleDao = db.medicationScheduleDao();
+        List<MedicationScheduleDao.ArmState> states = scheduleDao.getEnabledArmStatesSync();
+
+        boolean singleAlarm = ReminderScheduler.getMode() == ReminderScheduler.Mode.SINGLE_ALARM;
+        ReminderAlarmQueue queue = ReminderAlarmQueue.getInstance(context);
+
+        // 找出需要修复的计划
+        List<Long> staleIds = new ArrayList<>();
+        List<Long> unarmedIds = new ArrayList<>();
+        Set<Long> enabledIds = new HashSet<>(states.size() * 2);
+        for (MedicationScheduleDao.ArmState state : states) {
+            enabledIds.add(state.id);
+            if (state.nextReminderAt <= now) {
+                staleIds.add(state.id);
+            } else if (singleAlarm
+                    ? queue.timeOf(state.id) != state.nextReminderAt
+                    : !ReminderScheduler.isScheduleAlarmArmed(context, state.id)) {
+                unarmedIds.add(state.id);
+            }
+        }
+        List<Long> removeIds = new ArrayList<>();
+        if (singleAlarm) {
+            for (long id : queue.scheduleIds()) {
+                if (!enabledIds.contains(id)) removeIds.add(id);
+            }
+        }
+
+        int repaired = staleIds.size() + unarmedIds.size() + removeIds.size();
+        if (repaired == 0) {
+            if (singleAlarm && queue.size() > 0 && !ReminderScheduler.isGlobalAlarmArmed(context)) {
+                ReminderScheduler.armEarliest(context);
+            }
+            return 0;
+        }
+
+        List<Long> fetchIds = new ArrayList<>(staleIds.size() + unarmedIds.size());
+        fetchIds.addAll(staleIds);
+        fetchIds.addAll(unarmedIds);
+        List<MedicationSchedule> schedules = fetchIds.isEmpty()
+                ? new ArrayList<>() : scheduleDao.getByIdsSync(fetchIds);
+
+        // 批量重算过期的下一次提醒时间
+        Set<Long> stale = new HashSet<>(staleIds);
+        List<Long> recomputedIds = new ArrayList<>();
+        List<Long> recomputedAts = new ArrayList<>();
+        for (MedicationSchedule s : schedules) {
+            if (stale.contains(s.getId())) {
+                long next = ReminderCalculator.computeNextReminderEpochMillis(s, now);
+                if (next == s.getNextReminderAt()) continue; // 没有后续提醒的计划无需重复写回
+                s.setNextReminderAt(next);
+                recomputedIds.add(s.getId());
+                recomputedAts.add(next);
+            }
+        }
+        if (!recomputedIds.isEmpty()) {
+            scheduleDao.updateNextReminders(toArray(recomputedIds), toArray(recomputedAts), now);
+        }
+
+        Map<Long, MedicationInfo> medications = new HashMap<>();
+        if (!schedules.isEmpty()) {
+            Set<Long> medicationIds = new HashSet<>();
+            for (MedicationSchedule s : schedules) medicationIds.add(s.getMedicationId());
+            for (MedicationInfo m : db.medicationDao().getMedicationsByIdsSync(new ArrayList<>(medicationIds))) {
+                medications.put(m.getId(), m);
+            }
+        }
+
+        if (!singleAlarm) {
+            for (MedicationSchedule s : schedules) {
+                ReminderScheduler.scheduleNext(context, s, medications.get(s.getMedicationId()));
+            }
+            DirectBootSnapshot.refresh(context, now);
+            return repaired;
+        }
+
+        // 单闹钟模式：一次批量修改队列，只在需要时重新注册全局闹钟
+        List<MedicationSchedule> armable = new ArrayList<>(schedules.size());
+        for (MedicationSchedule s : schedules) {
+            if (s.getNextReminderAt() > 0) armable.add(s); else removeIds.add(s.getId());
+        }
+        int n = armable.size();
+        long[] upsertIds = new long[n];
+        long[] upsertTimes = new long[n];
+        ReminderPayload[] payloads = new ReminderPayload[n];
+        for (int i = 0; i < n; i++) {
+            MedicationSchedule s = armable.get(i);
+            upsertIds[i] = s.getId();
+            upsertTimes[i] = s.getNextReminderAt();
+            payloads[i] = ReminderPayload.from(s, medications.get(s.getMedicationId()));
+        }
+        DirectBootSnapshot.refresh(context, now);
+        long before = queue.peekTime();
+        long after = queue.applyAll(upsertIds, upsertTimes, payloads, toArray(removeIds));
+        if (after != before || !ReminderScheduler.isGlobalAlarmArmed(context)) {
+            ReminderScheduler.armEarliest(context);
+        }
+        return repaired;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] result = new long[values.size()];
+        for (int i = 0; i < result.length; i++) result[i] = values.get(i);
+        return result;
+    }
+}
@@ -1,57 +1,248 @@
 package com.medication.reminders.utils;
 
-import android.app.AlarmManager;
-import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.os.Build;
 
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
 import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.ReminderPayload;
 import com.medication.reminders.view.ReminderReceiver;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
- * 使用 AlarmManager 调度下一次提醒
+ * 调度下一次提醒，通过可替换的 {@link ReminderDispatcher} 投递（默认 AlarmManager）
+ * 支持两种模式：
+ * - SINGLE_ALARM（默认）：所有计划进入持久化最小堆 {@link ReminderAlarmQueue}，只为最早的提醒注册一个系统闹钟
+ * - PER_SCHEDULE：每个计划单独注册一个系统闹钟
+ * 注册时把通知载荷写入 intent，闹钟触发时无需访问数据库即可展示通知
+ * AlarmManager 后端下闹钟的精准程度由 {@link AlarmTierPolicy} 按权限、关键剂量与精准闹钟预算决定
  */
 public class ReminderScheduler {
 
+    public enum Mode {
+        PER_SCHEDULE,
+        SINGLE_ALARM
+    }
+
+    // 全局闹钟的 requestCode，与计划ID区分
+    private static final int GLOBAL_REQUEST_CODE = Integer.MAX_VALUE;
+
+    // 全局闹钟依赖堆顶之后这段时间内的计划：合并窗口内的载荷随闹钟保存，分级窗口内的关键剂量决定精准级别
+    private static final long ARMED_WINDOW_MILLIS =
+            Math.max(ReminderReceiver.COALESCE_WINDOW_MILLIS, AlarmTierPolicy.WINDOW_MILLIS);
+
+    private static volatile Mode mode = Mode.SINGLE_ALARM;
+    private static volatile ReminderDispatcher dispatcher = new AlarmManagerDispatcher();
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode newMode) {
+        mode = newMode == null ? Mode.SINGLE_ALARM : newMode;
+    }
+
+    public static ReminderDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * 替换投递后端，传入null恢复 AlarmManager
+     */
+    public static void setDispatcher(ReminderDispatcher newDispatcher) {
+        dispatcher = newDispatcher == null ? new AlarmManagerDispatcher() : newDispatcher;
+    }
+
     public static void scheduleNext(Context context, MedicationSchedule schedule) {
-        if (context == null || schedule == null || !schedule.isEnabled()) return;
+        if (context == null || schedule == null) return;
+        MedicationInfo medication = schedule.isEnabled() && schedule.getNextReminderAt() > 0
+                ? MedicationDatabase.getDatabase(context).medicationDao().getMedicationByIdSync(schedule.getMedicationId())
+                : null;
+        scheduleNext(context, schedule, medication);
+    }
+
+    /**
+     * 调度下一次提醒，并把通知载荷（药品名、剂量、单位、颜色、计划时间）随闹钟保存
+     */
+    public static void scheduleNext(Context context, MedicationSchedule schedule, MedicationInfo medication) {
+        if (context == null || schedule == null) return;
+        ReminderPayload payload = ReminderPayload.from(schedule, medication);
+        if (mode == Mode.SINGLE_ALARM) {
+            scheduleInQueue(context, schedule, payload);
+            return;
+        }
+        if (!schedule.isEnabled()) return;
         long triggerAt = schedule.getNextReminderAt();
         if (triggerAt <= 0) return;
 
-        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        if (am == null) return;
+        dispatcher.dispatch(context, (int) schedule.getId(), triggerAt, buildIntent(context, payload), schedule.isCritical());
+    }
 
-        PendingIntent pi = buildPendingIntent(context, schedule);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            am.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAt, pi);
-        } else {
-            am.setExact(AlarmManager.RTC_WAKEUP, triggerAt, pi);
+    /**
+     * 批量调度一组计划（开机/时间变化后的重排）
+     * 单闹钟模式下整体替换队列并只注册一次系统闹钟
+     */
+    public static void scheduleAll(Context context, List<MedicationSchedule> schedules) {
+        if (context == null || schedules == null) return;
+        // 一次查询读出全部药品，避免逐个计划查询
+        Map<Long, MedicationInfo> medications = new HashMap<>();
+        for (MedicationInfo m : MedicationDatabase.getDatabase(context).medicationDao().getAllMedicationsSync()) {
+            medications.put(m.getId(), m);
+        }
+        if (mode == Mode.SINGLE_ALARM) {
+            int n = schedules.size();
+            long[] ids = new long[n];
+            long[] triggerAts = new long[n];
+            ReminderPayload[] payloads = new ReminderPayload[n];
+            for (int i = 0; i < n; i++) {
+                MedicationSchedule s = schedules.get(i);
+                ids[i] = s.getId();
+                triggerAts[i] = s.isEnabled() ? s.getNextReminderAt() : 0L;
+                payloads[i] = ReminderPayload.from(s, medications.get(s.getMedicationId()));
+            }
+            ReminderAlarmQueue.getInstance(context).replaceAll(ids, triggerAts, payloads);
+            armEarliest(context);
+            return;
+        }
+        for (MedicationSchedule s : schedules) {
+            scheduleNext(context, s, medications.get(s.getMedicationId()));
         }
     }
 
+    /**
+     * 全局闹钟是否仍待投递（强制停止/应用更新后系统会清除闹钟）
+     */
+    public static boolean isGlobalAlarmArmed(Context context) {
+        return dispatcher.isPending(context, GLOBAL_REQUEST_CODE, buildGlobalIntent(context, Collections.emptyList()));
+    }
+
+    /**
+     * 计划的单独闹钟是否仍待投递（PER_SCHEDULE 模式）
+     */
+    public static boolean isScheduleAlarmArmed(Context context, long scheduleId) {
+        return dispatcher.isPending(context, (int) scheduleId, buildIntent(context, scheduleId));
+    }
+
     public static void cancel(Context context, long scheduleId) {
-        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
-        if (am == null) return;
-        PendingIntent pi = buildPendingIntent(context, scheduleId);
-        am.cancel(pi);
+        dispatcher.cancel(context, (int) scheduleId, buildIntent(context, scheduleId));
+
+        ReminderAlarmQueue queue = ReminderAlarmQueue.getInstance(context);
+        long before = queue.peekTime();
+        long oldTime = queue.timeOf(scheduleId);
+        if (queue.remove(scheduleId) != before || affectsArmedAlarm(before, oldTime)) {
+            armEarliest(context);
+        }
+    }
+
+    /**
+     * 全局闹钟触发时调用：取出所有已到期的计划
+     * 处理完成后须调用 {@link #requeue} 放回各计划的下一次提醒并重新注册闹钟
+     *
+     * @return 已到期计划的通知载荷
+     */
+    public static List<ReminderPayload> pollDue(Context context, long now) {
+        return ReminderAlarmQueue.getInstance(context).pollDue(now);
+    }
+
+    /**
+     * 提醒触发后批量放回各计划的下一次提醒（载荷的 scheduledAt 为触发时间），
+     * 单闹钟模式下只重新注册一次全局闹钟
+     */
+    public static void requeue(Context context, List<ReminderPayload> next) {
+        if (context == null) return;
+        if (mode == Mode.SINGLE_ALARM) {
+            int n = next.size();
+            long[] ids = new long[n];
+            long[] triggerAts = new long[n];
+            ReminderPayload[] payloads = new ReminderPayload[n];
+            for (int i = 0; i < n; i++) {
+                ReminderPayload p = next.get(i);
+                ids[i] = p.getScheduleId();
+                triggerAts[i] = p.getScheduledAt();
+                payloads[i] = p;
+            }
+            if (n > 0) {
+                ReminderAlarmQueue.getInstance(context).applyAll(ids, triggerAts, payloads, new long[0]);
+            }
+            armEarliest(context);
+            return;
+        }
+        for (ReminderPayload p : next) {
+            dispatcher.dispatch(context, (int) p.getScheduleId(), p.getScheduledAt(), buildIntent(context, p), p.isCritical());
+        }
+    }
+
+    /**
+     * 为堆顶的提醒时间注册（或取消）全局闹钟
+     */
+    public static void armEarliest(Context context) {
+        ReminderAlarmQueue queue = ReminderAlarmQueue.getInstance(context);
+        long triggerAt = queue.peekTime();
+        if (triggerAt <= 0) {
+            dispatcher.cancel(context, GLOBAL_REQUEST_CODE, buildGlobalIntent(context, Collections.emptyList()));
+        } else {
+            // 携带本次触发将合并提醒的所有计划的载荷
+            List<ReminderPayload> payloads = queue.peekDue(triggerAt + ReminderReceiver.COALESCE_WINDOW_MILLIS);
+            // 非精准闹钟最多推迟一个窗口，窗口内有关键剂量时按关键剂量选择级别，避免其被推迟
+            boolean critical = false;
+            for (ReminderPayload p : queue.peekDue(triggerAt + AlarmTierPolicy.WINDOW_MILLIS)) {
+                if (p.isCritical()) {
+                    critical = true;
+                    break;
+                }
+            }
+            dispatcher.dispatch(context, GLOBAL_REQUEST_CODE, triggerAt, buildGlobalIntent(context, payloads), critical);
+        }
+    }
+
+    private static void scheduleInQueue(Context context, MedicationSchedule schedule, ReminderPayload payload) {
+        ReminderAlarmQueue queue = ReminderAlarmQueue.getInstance(context);
+        long before = queue.peekTime();
+        long oldTime = queue.timeOf(schedule.getId());
+        long after;
+        long triggerAt = schedule.getNextReminderAt();
+        if (!schedule.isEnabled() || triggerAt <= 0) {
+            triggerAt = 0L;
+            after = queue.remove(schedule.getId());
+        } else {
+            after = queue.upsert(schedule.getId(), triggerAt, payload);
+        }
+        // 最早时间变化，或计划移入、移出、留在已注册闹钟依赖的窗口内（载荷或精准级别随之变化）时才重新注册
+        if (after != before || affectsArmedAlarm(before, oldTime) || affectsArmedAlarm(after, triggerAt)) {
+            armEarliest(context);
+        }
+    }
+
+    /**
+     * 提醒时间 triggerAt 是否落在堆顶为 head 的全局闹钟所依赖的窗口内
+     */
+    private static boolean affectsArmedAlarm(long head, long triggerAt) {
+        return head > 0 && triggerAt > 0 && triggerAt <= head + ARMED_WINDOW_MILLIS;
     }
 
-    private static PendingIntent buildPendingIntent(Context context, MedicationSchedule schedule) {
+    private static Intent buildGlobalIntent(Context context, List<ReminderPayload> payloads) {
         Intent i = new Intent(context, ReminderReceiver.class);
-        i.setAction("com.medication.reminders.ACTION_REMIND");
-        i.putExtra("schedule_id", schedule.getId());
-        i.putExtra("medication_id", schedule.getMedicationId());
-        int flags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
-        return PendingIntent.getBroadcast(context, (int) schedule.getId(), i, flags);
+        i.setAction(ReminderReceiver.ACTION_REMIND_DUE);
+        ReminderPayload.putAll(i, payloads);
+        return i;
     }
 
-    private static PendingIntent buildPendingIntent(Context context, long scheduleId) {
+    private static Intent buildIntent(Context context, ReminderPayload payload) {
+        Intent i = buildIntent(context, payload.getScheduleId());
+        i.putExtra("medication_id", payload.getMedicationId());
+        ReminderPayload.putAll(i, Collections.singletonList(payload));
+        return i;
+    }
+
+    private static Intent buildIntent(Context context, long scheduleId) {
         Intent i = new Intent(context, ReminderReceiver.class);
-        i.setAction("com.medication.reminders.ACTION_REMIND");
+        i.setAction(ReminderReceiver.ACTION_REMIND);
         i.putExtra("schedule_id", scheduleId);
-        int flags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
-        return PendingIntent.getBroadcast(context, (int) scheduleId, i, flags);
+        return i;
     }
 }
-
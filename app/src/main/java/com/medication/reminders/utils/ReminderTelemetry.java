@@ -0,0 +1,111 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.dao.ReminderLatencyDao;
+import com.medication.reminders.database.entity.ReminderLatencySample;
+import com.medication.reminders.enums.LatencyMetric;
+import com.medication.reminders.models.LatencyPercentiles;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 提醒延迟遥测
+ * 记录闹钟触发漂移、通知发出耗时与动作提交耗时，写入固定容量的环形缓冲表，
+ * 并按本地日期统计 p50/p95/p99，用于评估 Doze 下的调度策略
+ * 触发漂移只统计计划时间不晚于实际触发时间的载荷：单闹钟模式下合并窗口内提前送达的载荷
+ * 不是该次闹钟的目标时间，其负值会拉低分位数，因此不记录（而非截断为 0）
+ */
+public class ReminderTelemetry {
+
+    private static final String TAG = "ReminderTelemetry";
+
+    // 环形缓冲区容量（所有指标共用）
+    public static final int CAPACITY = 4096;
+
+    private static final Object LOCK = new Object();
+    // 下一个写入序号，首次写入时从表中恢复；-1 表示尚未恢复
+    private static long nextSeq = -1;
+
+    /**
+     * 写入一批样本；遥测失败不影响提醒流程
+     */
+    public static void record(Context context, List<ReminderLatencySample> samples) {
+        if (context == null || samples == null || samples.isEmpty()) return;
+        try {
+            ReminderLatencyDao dao = MedicationDatabase.getDatabase(context).reminderLatencyDao();
+            synchronized (LOCK) {
+                if (nextSeq < 0) {
+                    Long max = dao.getMaxSeq();
+                    nextSeq = max == null ? 0 : max + 1;
+                }
+                for (ReminderLatencySample s : samples) {
+                    s.setSeq(nextSeq);
+                    s.setSlot((int) (nextSeq % CAPACITY));
+                    nextSeq++;
+                }
+                dao.insertAll(samples);
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to record latency samples", e);
+        }
+    }
+
+    public static void record(Context context, LatencyMetric metric, long scheduleId, long recordedAt, long latencyMs) {
+        List<ReminderLatencySample> samples = new ArrayList<>(1);
+        samples.add(new ReminderLatencySample(metric.getIndex(), scheduleId, recordedAt, latencyMs));
+        record(context, samples);
+    }
+
+    /**
+     * 按本地日期统计指标在 [from, to) 内的分位数，没有样本的日期不返回
+     */
+    public static List<LatencyPercentiles> dailyPercentiles(ReminderLatencyDao dao, LatencyMetric metric,
+                                                            long from, long to, ZoneId zone) {
+        List<LatencyPercentiles> result = new ArrayList<>();
+        if (dao == null || from >= to) return result;
+        List<ReminderLatencyDao.LatencyPoint> points = dao.getLatencies(metric.getIndex(), from, to);
+        if (points.isEmpty()) return result;
+
+        ZoneOffsetCache zoneCache = ZoneOffsetCache.forZone(zone);
+        long[] values = new long[points.size()];
+        int n = 0;
+        long day = zoneCache.toLocalEpochDay(points.get(0).recordedAt);
+        // 样本按 recorded_at 升序，同一天的样本连续
+        for (ReminderLatencyDao.LatencyPoint p : points) {
+            long d = zoneCache.toLocalEpochDay(p.recordedAt);
+            if (d != day) {
+                result.add(summarize(day, values, n));
+                day = d;
+                n = 0;
+            }
+            values[n++] = p.latencyMs;
+        }
+        result.add(summarize(day, values, n));
+        return result;
+    }
+
+    public static List<LatencyPercentiles> dailyPercentiles(ReminderLatencyDao dao, LatencyMetric metric,
+                                                            long from, long to) {
+        return dailyPercentiles(dao, metric, from, to, ZoneId.systemDefault());
+    }
+
+    private static LatencyPercentiles summarize(long epochDay, long[] values, int n) {
+        Arrays.sort(values, 0, n);
+        return new LatencyPercentiles(epochDay, n,
+                percentile(values, n, 50), percentile(values, n, 95), percentile(values, n, 99), values[n - 1]);
+    }
+
+    /**
+     * 最近秩法分位数：排序后第 ceil(p/100 * n) 个值
+     */
+    static long percentile(long[] sorted, int n, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * n);
+        return sorted[Math.max(0, Math.min(n, rank) - 1)];
+    }
+}
@@ -0,0 +1,243 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.ReminderCycleType;
+import com.medication.reminders.models.CustomDates;
+import com.medication.reminders.models.DoseTimes;
+
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+
+/**
+ * 编译后的用药计划（不可变）
+ * 将 MedicationSchedule 预先整理为：排序去重的当天分钟数组（直接引用实体中已打包的 {@link DoseTimes}）、
+ * 星期位掩码、起始纪元日等，之后的下一次提醒计算只做整数运算，不再解析字符串或创建 Calendar
+ * - 每隔X小时：以起始日第一个提醒时间为起点按固定毫秒步长计算，O(1)，夏令时切换不改变间隔
+ * - 指定日期：在排序的纪元日数组上二分查找，O(log n)
+ */
+public final class SchedulePlan {
+
+    /** 没有后续提醒日 */
+    public static final long NO_DAY = Long.MAX_VALUE;
+
+    private final long scheduleId;
+    // 编译时的原始规则字段，用于判断缓存是否仍有效
+    private final int ruleCycleTypeIndex;
+    private final int ruleDaysOfWeekMask;
+    private final int ruleDayOfMonth;
+    private final int ruleIntervalDays;
+    private final int ruleIntervalHours;
+    private final long ruleStartDateMillis;
+    private final ReminderCycleType cycleType;
+    private final DoseTimes doseTimes;
+    private final int weekdayMask;
+    private final int dayOfMonth;
+    private final int intervalDays;
+    private final long anchorEpochDay;
+    private final long intervalMillis;
+    private final long anchorMillis;
+    private final CustomDates customDates;
+    private final ZoneOffsetCache zoneCache;
+
+    private SchedulePlan(MedicationSchedule s, ZoneOffsetCache zoneCache, long now) {
+        this.scheduleId = s.getId();
+        this.ruleCycleTypeIndex = s.getCycleTypeIndex();
+        this.ruleDaysOfWeekMask = s.getDaysOfWeekMask();
+        this.ruleDayOfMonth = s.getDayOfMonth();
+        this.ruleIntervalDays = s.getIntervalDays();
+        this.ruleIntervalHours = s.getIntervalHours();
+        this.ruleStartDateMillis = s.getStartDateMillis();
+        this.cycleType = ReminderCycleType.fromIndex(s.getCycleTypeIndex());
+        this.doseTimes = s.getDoseTimes();
+        this.weekdayMask = s.getDaysOfWeekMask() & 0x7F;
+        this.dayOfMonth = Math.max(1, Math.min(31, s.getDayOfMonth()));
+        this.intervalDays = Math.max(1, s.getIntervalDays());
+        long start = s.getStartDateMillis();
+        this.anchorEpochDay = zoneCache.toLocalEpochDay(start > 0 ? start : now);
+        this.intervalMillis = Math.max(1, s.getIntervalHours()) * 60L * 60 * 1000;
+        this.anchorMillis = doseTimes.isEmpty() ? 0L : zoneCache.toEpochMillis(anchorEpochDay, doseTimes.getMinuteOfDay(0));
+        this.customDates = s.getCustomDates();
+        this.zoneCache = zoneCache;
+    }
+
+    /**
+     * 将计划编译为不可变的计算计划
+     *
+     * @param schedule 用药计划
+     * @param zone 计算所用时区
+     * @param now 当前时间，用于起始日期缺省时作为锚点
+     */
+    public static SchedulePlan compile(MedicationSchedule schedule, ZoneId zone, long now) {
+        return new SchedulePlan(schedule, ZoneOffsetCache.forZone(zone), now);
+    }
+
+    /**
+     * 计划是否仍与实体一致（同一计划、同一提醒规则、同一时区）
+     * 只比较规则字段：触发、延迟、已服用、再次提醒与对账推进 next_reminder_at 时也会更新 updated_at，
+     * 以 updated_at 判断会使这些热路径每次都重新编译
+     */
+    public boolean matches(MedicationSchedule schedule, ZoneId zone) {
+        return scheduleId == schedule.getId()
+                && ruleCycleTypeIndex == schedule.getCycleTypeIndex()
+                && ruleDaysOfWeekMask == schedule.getDaysOfWeekMask()
+                && ruleDayOfMonth == schedule.getDayOfMonth()
+                && ruleIntervalDays == schedule.getIntervalDays()
+                && ruleIntervalHours == schedule.getIntervalHours()
+                && ruleStartDateMillis == schedule.getStartDateMillis()
+                && doseTimes.equals(schedule.getDoseTimes())
+                && customDates.equals(schedule.getCustomDates())
+                && zoneCache.getZone().equals(zone);
+    }
+
+    public long getScheduleId() { return scheduleId; }
+    public ReminderCycleType getCycleType() { return cycleType; }
+    public int getTimesCount() { return doseTimes.size(); }
+    public int getMinuteOfDay(int slot) { return doseTimes.getMinuteOfDay(slot); }
+    public ZoneOffsetCache getZoneCache() { return zoneCache; }
+
+    /**
+     * 计算严格晚于 now 的下一次提醒时间，无可用时间时返回0
+     */
+    public long nextAfter(long now) {
+        if (doseTimes.size() == 0) return 0L;
+        if (cycleType == ReminderCycleType.INTERVAL_HOURS) return nextInterval(now);
+        long today = zoneCache.toLocalEpochDay(now);
+        long day = nextActiveDay(today);
+        int slot = day == today ? firstSlotAfter(zoneCache.toLocalMillisOfDay(now)) : 0;
+        while (day != NO_DAY) {
+            for (; slot < doseTimes.size(); slot++) {
+                long t = zoneCache.toEpochMillis(day, doseTimes.getMinuteOfDay(slot));
+                if (t > now) return t;
+            }
+            day = nextActiveDay(day + 1);
+            slot = 0;
+        }
+        return 0L;
+    }
+
+    /**
+     * 返回 >= fromEpochDay 的第一个提醒日，没有则返回 {@link #NO_DAY}
+     */
+    public long nextActiveDay(long fromEpochDay) {
+        switch (cycleType) {
+            case DAILY:
+                return fromEpochDay;
+            case WEEKLY:
+                return nextWeeklyDay(fromEpochDay);
+            case MONTHLY:
+                return nextMonthlyDay(fromEpochDay);
+            case EVERY_X_DAYS:
+                return nextEveryXDay(fromEpochDay);
+            case INTERVAL_HOURS:
+                // 提醒时间不按日排列，由 nextAfter 直接计算；起始日之前没有提醒
+                return Math.max(fromEpochDay, anchorEpochDay);
+            case CUSTOM_DATES:
+                return nextCustomDay(fromEpochDay);
+            default:
+                return NO_DAY;
+        }
+    }
+
+    private long nextWeeklyDay(long from) {
+        if (weekdayMask == 0) return NO_DAY;
+        for (int i = 0; i < 7; i++) {
+            if ((weekdayMask & weekdayBit(from + i)) != 0) return from + i;
+        }
+        return NO_DAY;
+    }
+
+    private long nextMonthlyDay(long from) {
+        long packed = civilFromDays(from);
+        int year = (int) (packed >> 9);
+        int month = (int) ((packed >> 5) & 0xF);
+        int day = (int) (packed & 0x1F);
+        int target = Math.min(dayOfMonth, lengthOfMonth(year, month));
+        if (day <= target) {
+            return daysFromCivil(year, month, target);
+        }
+        if (++month > 12) {
+            month = 1;
+            year++;
+        }
+        return daysFromCivil(year, month, Math.min(dayOfMonth, lengthOfMonth(year, month)));
+    }
+
+    private long nextEveryXDay(long from) {
+        if (from <= anchorEpochDay) return anchorEpochDay;
+        long r = Math.floorMod(from - anchorEpochDay, (long) intervalDays);
+        return r == 0 ? from : from + intervalDays - r;
+    }
+
+    /**
+     * 每隔X小时：起点之后第一个严格晚于 now 的 anchor + k * interval
+     */
+    private long nextInterval(long now) {
+        if (now < anchorMillis) return anchorMillis;
+        long k = (now - anchorMillis) / intervalMillis + 1;
+        return anchorMillis + k * intervalMillis;
+    }
+
+    private long nextCustomDay(long from) {
+        int i = customDates.indexOfFirstOnOrAfter(from);
+        return i < customDates.size() ? customDates.getEpochDay(i) : NO_DAY;
+    }
+
+    /**
+     * 二分查找当天第一个严格晚于 millisOfDay 的时间点下标
+     */
+    private int firstSlotAfter(long millisOfDay) {
+        int lo = 0;
+        int hi = doseTimes.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (doseTimes.getMinuteOfDay(mid) * 60_000L > millisOfDay) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 纪元日 -> 星期位（约定：周一=1<<6 ... 周日=1<<0）
+     * 1970-01-01 为周四
+     */
+    static int weekdayBit(long epochDay) {
+        int isoDow = (int) Math.floorMod(epochDay + 3, 7L) + 1; // 周一=1 ... 周日=7
+        return 1 << (7 - isoDow);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return Month.of(month).length(Year.isLeap(year));
+    }
+
+    /**
+     * 年月日 -> 纪元日（Howard Hinnant 的 days_from_civil 算法）
+     */
+    static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400L);
+        long yoe = y - era * 400;
+        long doy = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * 纪元日 -> 打包的年月日：year << 9 | month << 5 | day
+     */
+    static long civilFromDays(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097L);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+}
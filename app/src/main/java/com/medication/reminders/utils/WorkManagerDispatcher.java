@@ -0,0 +1,55 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import com.medication.reminders.worker.ReminderDispatchWorker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 WorkManager 的投递后端
+ * 以一次性延迟任务投递，不保证准时（受 Doze 与系统调度影响），
+ * 适用于不要求准时的场景或无法使用精准闹钟的设备
+ */
+public class WorkManagerDispatcher implements ReminderDispatcher {
+
+    private static final String WORK_NAME_PREFIX = "reminder_dispatch_";
+
+    @Override
+    public void dispatch(Context context, int requestCode, long triggerAt, Intent intent, boolean critical) {
+        long delay = Math.max(0, triggerAt - ReminderClock.get().currentTimeMillis());
+        Data data = ReminderDispatchWorker.toData(intent);
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ReminderDispatchWorker.class)
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .setInputData(data)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                WORK_NAME_PREFIX + requestCode, ExistingWorkPolicy.REPLACE, request);
+    }
+
+    @Override
+    public void cancel(Context context, int requestCode, Intent intent) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME_PREFIX + requestCode);
+    }
+
+    @Override
+    public boolean isPending(Context context, int requestCode, Intent intent) {
+        try {
+            List<WorkInfo> infos = WorkManager.getInstance(context)
+                    .getWorkInfosForUniqueWork(WORK_NAME_PREFIX + requestCode).get();
+            for (WorkInfo info : infos) {
+                if (!info.getState().isFinished()) return true;
+            }
+        } catch (Exception ignored) {
+        }
+        return false;
+    }
+}
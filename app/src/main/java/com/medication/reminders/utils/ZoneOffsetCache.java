@@ -0,0 +1,127 @@
+package com.medication.reminders.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 时区偏移缓存
+ * 缓存当前所在的"无夏令时切换"区间及其偏移量，区间内的本地时间/时间戳互转只做整数运算，
+ * 仅在跨越切换点或落在切换点附近时才回退到 java.time 的完整计算
+ */
+public final class ZoneOffsetCache {
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final ConcurrentHashMap<ZoneId, ZoneOffsetCache> CACHES = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private volatile Window window;
+
+    private ZoneOffsetCache(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+    }
+
+    /**
+     * 获取指定时区共享的缓存实例
+     */
+    public static ZoneOffsetCache forZone(ZoneId zone) {
+        ZoneOffsetCache cache = CACHES.get(zone);
+        if (cache == null) {
+            cache = CACHES.computeIfAbsent(zone, ZoneOffsetCache::new);
+        }
+        return cache;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 获取某一时刻相对UTC的偏移(ms)
+     */
+    public int offsetAt(long epochMillis) {
+        Window w = window;
+        if (w != null && epochMillis >= w.start && epochMillis < w.end) {
+            return w.offsetMillis;
+        }
+        return refresh(epochMillis).offsetMillis;
+    }
+
+    /**
+     * 时间戳 -> 本地纪元日（1970-01-01 为第0天）
+     */
+    public long toLocalEpochDay(long epochMillis) {
+        return Math.floorDiv(epochMillis + offsetAt(epochMillis), DAY_MILLIS);
+    }
+
+    /**
+     * 时间戳 -> 本地当天已过去的毫秒数
+     */
+    public long toLocalMillisOfDay(long epochMillis) {
+        return Math.floorMod(epochMillis + offsetAt(epochMillis), DAY_MILLIS);
+    }
+
+    /**
+     * 本地纪元日 + 当天分钟 -> 时间戳
+     * 夏令时空档内的时间取切换时刻，重叠时与 java.time 一致取较早的偏移
+     */
+    public long toEpochMillis(long localEpochDay, int minuteOfDay) {
+        long localMillis = localEpochDay * DAY_MILLIS + minuteOfDay * 60_000L;
+        Window w = window;
+        if (w != null) {
+            long guess = localMillis - w.offsetMillis;
+            // 距切换点一天以上时本地时间必然唯一且合法，可直接返回
+            if (guess - w.start >= DAY_MILLIS && w.end - guess > DAY_MILLIS) {
+                return guess;
+            }
+        }
+        LocalDateTime ldt = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(localMillis, 1000L),
+                (int) Math.floorMod(localMillis, 1000L) * 1_000_000,
+                ZoneOffset.UTC);
+        long result;
+        ZoneOffsetTransition gap = rules.getTransition(ldt);
+        if (gap != null && gap.isGap()) {
+            // 不存在的本地时间统一取切换时刻，保证同一天内时间点的先后顺序不变
+            result = gap.toEpochSecond() * 1000L;
+        } else {
+            result = ldt.atZone(zone).toInstant().toEpochMilli();
+        }
+        offsetAt(result);
+        return result;
+    }
+
+    private Window refresh(long epochMillis) {
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        int offset = rules.getOffset(instant).getTotalSeconds() * 1000;
+        // previousTransition 只返回严格早于参数的切换点，+1ms 使恰好落在切换点上的时刻也归入新区间
+        ZoneOffsetTransition prev = rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long start = prev == null ? Long.MIN_VALUE / 2 : prev.toEpochSecond() * 1000L;
+        long end = next == null ? Long.MAX_VALUE / 2 : next.toEpochSecond() * 1000L;
+        Window w = new Window(start, end, offset);
+        window = w;
+        return w;
+    }
+
+    /**
+     * 不可变的偏移区间 [start, end)
+     */
+    private static final class Window {
+        final long start;
+        final long end;
+        final int offsetMillis;
+
+        Window(long start, long end, int offsetMillis) {
+            this.start = start;
+            this.end = end;
+            this.offsetMillis = offsetMillis;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.medication.reminders.view;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import androidx.core.os.UserManagerCompat;
+
+import com.medication.reminders.models.ReminderPayload;
+import com.medication.reminders.utils.AlarmTierPolicy;
+import com.medication.reminders.utils.DirectBootSnapshot;
+import com.medication.reminders.utils.ReminderClock;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 直接启动模式下的提醒
+ * 重启后用户解锁前数据库不可用：收到 LOCKED_BOOT_COMPLETED 后从设备加密存储中的快照
+ * 注册下一次提醒，触发时直接用快照载荷展示通知并注册下一次，直到用户解锁后
+ * 由 ReminderRearmReceiver 接管（BOOT_COMPLETED 时取消本闹钟）
+ */
+public class DirectBootReminderReceiver extends BroadcastReceiver {
+
+    public static final String ACTION_REMIND_LOCKED = "com.medication.reminders.ACTION_REMIND_LOCKED";
+
+    private static final String TAG = "DirectBootReminder";
+    private static final String EXTRA_ARMED_AT = "armed_at";
+    // 与全局闹钟及计划闹钟的 requestCode 区分
+    private static final int REQUEST_CODE = Integer.MAX_VALUE - 2;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || context == null) return;
+        String action = intent.getAction();
+        if (!Intent.ACTION_LOCKED_BOOT_COMPLETED.equals(action) && !ACTION_REMIND_LOCKED.equals(action)) return;
+
+        final Context appContext = context.getApplicationContext();
+        final PendingResult result = goAsync();
+        executor.execute(() -> {
+            try {
+                if (UserManagerCompat.isUserUnlocked(appContext)) {
+                    // 已解锁：正常提醒链路已接管
+                    cancel(appContext);
+                    return;
+                }
+                long now = ReminderClock.get().currentTimeMillis();
+                // 展示 [本次闹钟时间, 当前时间 + 合并窗口) 内的提醒，下一次闹钟从该区间之后开始
+                long dueBefore = now + ReminderReceiver.COALESCE_WINDOW_MILLIS;
+                if (ACTION_REMIND_LOCKED.equals(action)) {
+                    long armedAt = intent.getLongExtra(EXTRA_ARMED_AT, dueBefore);
+                    List<ReminderPayload> due = DirectBootSnapshot.read(appContext, armedAt, dueBefore);
+                    ReminderReceiver.showNotifications(appContext, due);
+                } else {
+                    // 刚开机：不补发关机期间错过的提醒，解锁后按正常链路处理
+                    dueBefore = now;
+                }
+                armNext(appContext, dueBefore);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to handle " + action, e);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    /**
+     * 为快照中 from 之后最早的提醒注册闹钟
+     */
+    private static void armNext(Context context, long from) {
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (am == null) return;
+        List<ReminderPayload> next = DirectBootSnapshot.read(context, from, Long.MAX_VALUE);
+        if (next.isEmpty()) return;
+        ReminderPayload first = next.get(0);
+        Intent i = new Intent(context, DirectBootReminderReceiver.class);
+        i.setAction(ACTION_REMIND_LOCKED);
+        i.putExtra(EXTRA_ARMED_AT, first.getScheduledAt());
+        AlarmTierPolicy.arm(context, am, first.getScheduledAt(), PendingIntent.getBroadcast(context, REQUEST_CODE, i,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE), first.isCritical());
+    }
+
+    /**
+     * 取消直接启动模式的闹钟（用户解锁后调用）
+     */
+    public static void cancel(Context context) {
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (am != null) am.cancel(buildPendingIntent(context));
+    }
+
+    private static PendingIntent buildPendingIntent(Context context) {
+        Intent i = new Intent(context, DirectBootReminderReceiver.class);
+        i.setAction(ACTION_REMIND_LOCKED);
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+        return PendingIntent.getBroadcast(context, REQUEST_CODE, i, flags);
+    }
+}
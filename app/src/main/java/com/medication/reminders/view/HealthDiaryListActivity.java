@@ -11,6 +11,7 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -22,7 +23,7 @@ import com.medication.reminders.utils.ErrorHandler;
 import com.medication.reminders.utils.LoadingIndicator;
 import com.medication.reminders.viewmodels.HealthDiaryViewModel;
 
-import java.util.ArrayList;
+import kotlin.Unit;
 
 /**
  * HealthDiaryListActivity - 健康日记列表界面
@@ -54,6 +55,7 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
     // 工具类
     private LoadingIndicator.Manager loadingManager;
     private boolean isRefreshing = false;
+    private boolean awaitingRefresh = false; // 分页刷新进行中，完成后更新列表状态
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -127,10 +129,27 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
      * 设置RecyclerView
      */
     private void setupRecyclerView() {
-        adapter = new HealthDiaryAdapter(new ArrayList<>(), this);
+        adapter = new HealthDiaryAdapter(this);
         recyclerViewHealthDiary.setLayoutManager(new LinearLayoutManager(this));
         recyclerViewHealthDiary.setAdapter(adapter);
         
+        // 首屏加载或刷新完成后切换列表/空状态/错误状态
+        adapter.addLoadStateListener(loadStates -> {
+            LoadState refresh = loadStates.getRefresh();
+            if (refresh instanceof LoadState.Loading) {
+                awaitingRefresh = true;
+            } else if (awaitingRefresh) {
+                awaitingRefresh = false;
+                if (refresh instanceof LoadState.Error) {
+                    isRefreshing = false;
+                    showErrorState(((LoadState.Error) refresh).getError().getMessage());
+                } else {
+                    onDiariesLoaded(adapter.getItemCount());
+                }
+            }
+            return Unit.INSTANCE;
+        });
+        
         // 设置RecyclerView的可访问性
         recyclerViewHealthDiary.setContentDescription(getString(R.string.health_diary_list_title));
     }
@@ -139,34 +158,9 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
      * 设置LiveData观察者
      */
     private void setupObservers() {
-        // 观察日记列表数据
-        viewModel.getUserDiaries().observe(this, diaries -> {
-            android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_received_data, (diaries != null ? diaries.size() + getString(R.string.diary_list_data_count) : getString(R.string.diary_list_data_null))));
-            
-            // 隐藏加载指示器
-            loadingManager.hideAll();
-            hideAllStates();
-            
-            if (diaries != null && !diaries.isEmpty()) {
-                android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_show_list, diaries.size()));
-                // 显示日记列表
-                adapter.updateDiaries(diaries);
-                recyclerViewHealthDiary.setVisibility(View.VISIBLE);
-                
-                // 显示成功加载消息（仅在刷新时）
-                if (isRefreshing) {
-                    ErrorHandler.showSuccessToast(this, getString(R.string.diary_list_load_success, diaries.size()));
-                    isRefreshing = false;
-                }
-            } else {
-                android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_show_empty));
-                // 显示空状态
-                showEmptyState();
-                if (isRefreshing) {
-                    isRefreshing = false;
-                }
-            }
-        });
+        // 观察分页日记数据，数据库变更时自动重新加载
+        viewModel.getDiaryPages().observe(this, pagingData ->
+            adapter.submitData(getLifecycle(), pagingData));
         
         // 观察操作结果
         viewModel.getOperationResult().observe(this, result -> {
@@ -220,6 +214,36 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
         });
     }
     
+    /**
+     * 分页首屏加载完成
+     * @param count 已加载的日记条数
+     */
+    private void onDiariesLoaded(int count) {
+        android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_received_data, getString(R.string.diary_list_data_count, count)));
+        
+        // 隐藏加载指示器
+        loadingManager.hideAll();
+        hideAllStates();
+        
+        if (count > 0) {
+            android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_show_list, count));
+            // 显示日记列表
+            recyclerViewHealthDiary.setVisibility(View.VISIBLE);
+            
+            // 显示成功加载消息（仅在刷新时）
+            if (isRefreshing) {
+                // 分页只加载了首屏，不显示总条数
+                ErrorHandler.showSuccessToast(this, getString(R.string.diary_load_success));
+                isRefreshing = false;
+            }
+        } else {
+            android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_show_empty));
+            // 显示空状态
+            showEmptyState();
+            isRefreshing = false;
+        }
+    }
+    
     /**
      * 设置点击监听器
      */
@@ -312,7 +336,8 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
         android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_viewmodel_status, (viewModel != null ? getString(R.string.diary_list_viewmodel_initialized) : getString(R.string.diary_list_viewmodel_not_initialized))));
         android.util.Log.d(getString(R.string.log_tag_health_diary_list), getString(R.string.diary_list_adapter_status, (adapter != null ? getString(R.string.diary_list_adapter_initialized, adapter.getItemCount()) : getString(R.string.diary_list_adapter_not_initialized))));
         
-        viewModel.refreshDiaries();
+        // 重新创建分页数据源，从当前可见位置附近重新加载
+        adapter.refresh();
     }
     
     /**
@@ -320,7 +345,7 @@ public class HealthDiaryListActivity extends AppCompatActivity implements Health
      */
     private void retryLoadDiaries() {
         showLoadingState();
-        viewModel.refreshDiaries();
+        adapter.refresh();
     }
     
     /**
@@ -292,7 +292,9 @@ public class MedicationIntakeRecordDetailActivity extends AppCompatActivity {
             
             // 显示服用剂量
             if (tvDosageTaken != null) {
-                String dosageText = getString(R.string.dosage_unit_format, record.getDosageTaken());
+                String dosageText = record.isMissed()
+                        ? getString(R.string.intake_record_missed)
+                        : getString(R.string.dosage_unit_format, record.getDosageTaken());
                 tvDosageTaken.setText(dosageText);
                 tvDosageTaken.setContentDescription(getString(R.string.intake_record_detail_dosage_content_description, dosageText));
             }
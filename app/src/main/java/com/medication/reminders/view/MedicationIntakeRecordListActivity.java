@@ -9,6 +9,7 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -18,12 +19,11 @@ import com.medication.reminders.database.entity.MedicationIntakeRecord;
 import com.medication.reminders.utils.LoadingIndicator;
 import com.medication.reminders.viewmodels.MedicationIntakeRecordViewModel;
 
-import java.util.ArrayList;
-import java.util.List;
+import kotlin.Unit;
 
 /**
  * 用药记录列表页面
- * 显示用户的用药记录历史，按时间倒序排列
+ * 显示用户的用药记录历史，按时间倒序分页加载
  * 支持点击查看详情，提供空状态显示和返回导航功能
  */
 public class MedicationIntakeRecordListActivity extends AppCompatActivity implements MedicationIntakeRecordAdapter.OnIntakeRecordClickListener {
@@ -38,7 +38,7 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
     
     // 数据和适配器
     private MedicationIntakeRecordAdapter adapter;
-    private List<MedicationIntakeRecord> intakeRecords;
+    private boolean awaitingRefresh = false; // 分页刷新进行中，完成后更新空状态
     
     // ViewModel
     private MedicationIntakeRecordViewModel viewModel;
@@ -80,9 +80,6 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
         // 初始化加载管理器
         loadingManager = LoadingIndicator.createManager(this);
         
-        // 初始化数据列表
-        intakeRecords = new ArrayList<>();
-        
         Log.d(TAG, getString(R.string.intake_record_ui_init_complete));
     }
     
@@ -115,9 +112,26 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
         recyclerViewIntakeRecords.setLayoutManager(layoutManager);
         
         // 创建并设置适配器
-        adapter = new MedicationIntakeRecordAdapter(intakeRecords, this);
+        adapter = new MedicationIntakeRecordAdapter(this);
         recyclerViewIntakeRecords.setAdapter(adapter);
         
+        // 首屏加载或刷新完成后根据条数切换空状态
+        adapter.addLoadStateListener(loadStates -> {
+            LoadState refresh = loadStates.getRefresh();
+            if (refresh instanceof LoadState.Loading) {
+                awaitingRefresh = true;
+            } else if (awaitingRefresh) {
+                awaitingRefresh = false;
+                if (refresh instanceof LoadState.Error) {
+                    showErrorMessage(((LoadState.Error) refresh).getError().getMessage());
+                } else {
+                    Log.d(TAG, getString(R.string.intake_record_received_data, adapter.getItemCount()));
+                    updateIntakeRecordsList(adapter.getItemCount());
+                }
+            }
+            return Unit.INSTANCE;
+        });
+        
         // 设置无障碍描述
         recyclerViewIntakeRecords.setContentDescription(getString(R.string.intake_record_list_content_description));
         
@@ -128,11 +142,9 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
      * 观察数据变化
      */
     private void observeData() {
-        // 观察所有用药记录
-        viewModel.getAllIntakeRecords().observe(this, records -> {
-            Log.d(TAG, getString(R.string.intake_record_received_data, (records != null ? records.size() : 0)));
-            updateIntakeRecordsList(records);
-        });
+        // 观察分页用药记录，数据库变更时自动重新加载
+        viewModel.getIntakeRecordPages().observe(this, pagingData ->
+            adapter.submitData(getLifecycle(), pagingData));
         
         // 观察加载状态
         viewModel.getIsLoading().observe(this, isLoading -> {
@@ -169,17 +181,17 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
     
     /**
      * 更新用药记录列表
-     * @param records 用药记录列表
+     * @param count 已加载的用药记录条数
      */
-    private void updateIntakeRecordsList(List<MedicationIntakeRecord> records) {
-        if (records == null || records.isEmpty()) {
+    private void updateIntakeRecordsList(int count) {
+        if (count == 0) {
             // 显示空状态
             showEmptyState();
             Log.d(TAG, getString(R.string.intake_record_show_empty_state));
         } else {
             // 显示记录列表
-            showRecordsList(records);
-            Log.d(TAG, getString(R.string.intake_record_show_list, records.size()));
+            showRecordsList();
+            Log.d(TAG, getString(R.string.intake_record_show_list, count));
         }
     }
     
@@ -198,16 +210,10 @@ public class MedicationIntakeRecordListActivity extends AppCompatActivity implem
     
     /**
      * 显示记录列表
-     * @param records 用药记录列表
      */
-    private void showRecordsList(List<MedicationIntakeRecord> records) {
+    private void showRecordsList() {
         emptyStateLayout.setVisibility(View.GONE);
         recyclerViewIntakeRecords.setVisibility(View.VISIBLE);
-        
-        // 更新适配器数据
-        this.intakeRecords.clear();
-        this.intakeRecords.addAll(records);
-        adapter.updateIntakeRecords(this.intakeRecords);
     }
     
     /**
@@ -0,0 +1,59 @@
+package com.medication.reminders.view;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.medication.reminders.utils.ReminderCalculator;
+import com.medication.reminders.utils.ReminderClock;
+import com.medication.reminders.utils.ReminderRearmer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 开机、系统时间/时区变化、应用更新后批量重排所有提醒
+ * 系统会在这些场景下清除本应用已注册的闹钟
+ */
+public class ReminderRearmReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "ReminderRearmReceiver";
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null || context == null) return;
+        String action = intent.getAction();
+        final boolean recomputeAll;
+        if (Intent.ACTION_TIME_CHANGED.equals(action) || Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+            recomputeAll = true;
+            if (Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+                ReminderCalculator.clearCache();
+            }
+        } else if (Intent.ACTION_BOOT_COMPLETED.equals(action) || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            recomputeAll = false;
+        } else {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        final PendingResult result = goAsync();
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            try {
+                if (Intent.ACTION_BOOT_COMPLETED.equals(action)) {
+                    // 用户已解锁，由正常提醒链路接管直接启动模式的提醒
+                    DirectBootReminderReceiver.cancel(appContext);
+                }
+                int count = ReminderRearmer.rearmAll(appContext, ReminderClock.get().currentTimeMillis(), recomputeAll);
+                Log.d(TAG, action + ": re-armed " + count + " schedules in " + (SystemClock.elapsedRealtime() - start) + " ms");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to re-arm reminders on " + action, e);
+            } finally {
+                result.finish();
+            }
+        });
+    }
+}
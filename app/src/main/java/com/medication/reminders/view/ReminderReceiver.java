@@ -1,90 +1,339 @@
 package com.medication.reminders.view;
 
-import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Color;
-import android.os.Build;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.text.format.DateFormat;
+import android.util.Log;
 
 import androidx.core.app.NotificationCompat;
 
 import com.medication.reminders.R;
 import com.medication.reminders.database.MedicationDatabase;
-import com.medication.reminders.database.dao.MedicationDao;
-import com.medication.reminders.database.dao.MedicationIntakeRecordDao;
 import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.dao.ReminderOccurrenceDao;
 import com.medication.reminders.database.entity.MedicationInfo;
 import com.medication.reminders.database.entity.MedicationIntakeRecord;
 import com.medication.reminders.database.entity.MedicationSchedule;
-import com.medication.reminders.utils.ReminderCalculator;
+import com.medication.reminders.database.entity.ReminderLatencySample;
+import com.medication.reminders.enums.LatencyMetric;
+import com.medication.reminders.enums.OccurrenceStatus;
+import com.medication.reminders.models.MedicationColor;
+import com.medication.reminders.models.ReminderPayload;
+import com.medication.reminders.repository.MedicationIntakeRecordRepository;
+import com.medication.reminders.utils.MissedDoseCatchUp;
+import com.medication.reminders.utils.OccurrenceHorizon;
+import com.medication.reminders.utils.ReminderClock;
+import com.medication.reminders.utils.ReminderEscalation;
 import com.medication.reminders.utils.ReminderScheduler;
+import com.medication.reminders.utils.ReminderTelemetry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 接收闹钟触发，弹出通知。支持两个动作：延迟10分钟、已服用
+ * 单闹钟模式下由 ACTION_REMIND_DUE 一次处理所有到期的计划；
+ * 同一窗口内到期的多个计划合并为一组通知，并提供"全部已服用"动作
+ * 所有数据库操作通过 goAsync() 交给后台线程池执行，不阻塞主线程
+ * 提醒触发时使用闹钟自带的载荷展示通知，只有用户操作通知时才访问数据库
  */
 public class ReminderReceiver extends BroadcastReceiver {
 
-    private static final String CHANNEL_ID = "medication_reminder_channel";
+    public static final String CHANNEL_ID = "medication_reminder_channel";
     public static final String ACTION_REMIND = "com.medication.reminders.ACTION_REMIND";
+    public static final String ACTION_REMIND_DUE = "com.medication.reminders.ACTION_REMIND_DUE";
     public static final String ACTION_SNOOZE = "com.medication.reminders.ACTION_SNOOZE";
     public static final String ACTION_TAKEN = "com.medication.reminders.ACTION_TAKEN";
+    public static final String ACTION_TAKE_ALL = "com.medication.reminders.ACTION_TAKE_ALL";
+
+    // 合并窗口：计划提醒时间在组中心前后此时间内的计划合并为一组提醒；
+    // 闹钟触发时此时间内即将到期的计划也一起提醒
+    public static final long COALESCE_WINDOW_MILLIS = 2 * 60 * 1000L;
+
+    private static final String TAG = "ReminderReceiver";
+    private static final String GROUP_KEY_PREFIX = "com.medication.reminders.REMINDER_GROUP.";
+    // 汇总通知使用独立的 tag，id 与"全部已服用"的 requestCode 均为组窗口起点（分钟），每组互不覆盖
+    private static final String SUMMARY_TAG = "summary";
+    // 漏服通知使用独立的 tag，id 为补录时间（分钟），不与按计划ID发出的通知冲突
+    private static final String MISSED_TAG = "missed";
+
+    // 广播处理期限：goAsync 后系统约10秒判定超时，留出余量
+    private static final long DEADLINE_MILLIS = 8_000L;
+
+    // 专用有界线程池：数据库操作不占用主线程，队列满时直接结束本次广播
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(32));
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor();
 
     @Override
     public void onReceive(Context context, Intent intent) {
         if (intent == null || context == null) return;
+        final Context appContext = context.getApplicationContext();
+        final String action = intent.getAction();
+        final PendingResult result = goAsync();
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final long start = SystemClock.elapsedRealtime();
+        final long receivedAt = ReminderClock.get().currentTimeMillis();
+        // PendingResult.finish() 只能调用一次，任何路径都经由此处结束
+        final Runnable finish = () -> {
+            if (finished.compareAndSet(false, true)) {
+                result.finish();
+            }
+        };
+
+        try {
+            Future<?> future = executor.submit(() -> {
+                try {
+                    handleAction(appContext, intent, receivedAt, start);
+                } catch (Exception e) {
+                    Log.e(TAG, "Failed to handle " + action, e);
+                } finally {
+                    Log.d(TAG, action + " handled in " + (SystemClock.elapsedRealtime() - start) + " ms");
+                    finish.run();
+                }
+            });
+            watchdog.schedule(() -> {
+                if (!finished.get()) {
+                    future.cancel(true);
+                    Log.w(TAG, action + " exceeded " + DEADLINE_MILLIS + " ms deadline");
+                    finish.run();
+                }
+            }, DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Log.w(TAG, "Reminder executor saturated, dropping " + action, e);
+            finish.run();
+        }
+    }
+
+    /**
+     * 在调用线程中同步处理 intent，不经过 goAsync 与线程池
+     * 用于进程内投递（如测试中 VirtualClockDispatcher 的投递目标）
+     */
+    public static void deliver(Context context, Intent intent) {
+        long start = SystemClock.elapsedRealtime();
+        new ReminderReceiver().handleAction(context, intent, ReminderClock.get().currentTimeMillis(), start);
+    }
+
+    /**
+     * 在后台线程中处理广播动作
+     *
+     * @param receivedAt   收到广播时的系统时间，用于计算触发漂移
+     * @param startElapsed 收到广播时的 elapsedRealtime，用于计算处理耗时
+     */
+    private void handleAction(Context context, Intent intent, long receivedAt, long startElapsed) {
         String action = intent.getAction();
         long scheduleId = intent.getLongExtra("schedule_id", -1);
         long medicationId = intent.getLongExtra("medication_id", -1);
 
+        // 热路径：闹钟触发时直接使用注册闹钟时保存的载荷展示通知，通知发出后才访问数据库
+        if (ACTION_REMIND_DUE.equals(action)) {
+            // 全局闹钟触发 -> 处理合并窗口内所有到期的计划，再重新注册一次闹钟
+            // 闹钟严重延迟（进程被杀、设备休眠）时先补录漏服并推进队列
+            if (MissedDoseCatchUp.isBehind(context, receivedAt)) {
+                MissedDoseCatchUp.catchUp(context, receivedAt);
+            }
+            Map<Long, ReminderPayload> armed = new HashMap<>();
+            for (ReminderPayload p : ReminderPayload.readAll(intent)) {
+                armed.put(p.getScheduleId(), p);
+            }
+            List<ReminderPayload> followUps = Collections.emptyList();
+            try {
+                // 已到期的与合并窗口内即将到期的计划一起取出，由 showNotifications 按 ±合并窗口切分为组
+                List<ReminderPayload> due = new ArrayList<>();
+                for (ReminderPayload p : ReminderScheduler.pollDue(context, receivedAt + COALESCE_WINDOW_MILLIS)) {
+                    ReminderPayload a = armed.get(p.getScheduleId());
+                    ReminderPayload resolved = a != null && a.getScheduledAt() == p.getScheduledAt() ? a : p;
+                    resolved = resolvePayload(context, resolved);
+                    if (resolved != null) due.add(resolved);
+                }
+                showNotifications(context, due);
+                recordFired(context, due, receivedAt, startElapsed);
+                // 下一次提醒（再次提醒或按计划提醒）合并进同一个全局闹钟
+                followUps = ReminderEscalation.followUps(context, due, receivedAt);
+            } finally {
+                ReminderScheduler.requeue(context, followUps);
+            }
+            return;
+        }
+
+        if (ACTION_REMIND.equals(action)) {
+            // 默认：闹钟触发 -> 展示通知
+            List<ReminderPayload> payloads = ReminderPayload.readAll(intent);
+            ReminderPayload payload = payloads.isEmpty()
+                    ? new ReminderPayload(scheduleId, medicationId, null, 0, null, null, receivedAt)
+                    : payloads.get(0);
+            if (payload.getScheduledAt() < receivedAt - OccurrenceHorizon.MISSED_GRACE_MILLIS) {
+                // 闹钟严重延迟：补录漏服后由重新注册的闹钟提醒宽限内的剂量
+                MissedDoseCatchUp.catchUp(context, receivedAt);
+                return;
+            }
+            payload = resolvePayload(context, payload);
+            if (payload != null) {
+                List<ReminderPayload> fired = Collections.singletonList(payload);
+                showNotification(context, payload, null);
+                recordFired(context, fired, receivedAt, startElapsed);
+                ReminderScheduler.requeue(context, ReminderEscalation.followUps(context, fired, receivedAt));
+            }
+            return;
+        }
+
+        // 以下为用户操作，才需要访问数据库
         MedicationDatabase db = MedicationDatabase.getDatabase(context);
         MedicationScheduleDao scheduleDao = db.medicationScheduleDao();
-        MedicationIntakeRecordDao recordDao = db.medicationIntakeRecordDao();
+        ReminderOccurrenceDao occurrenceDao = db.reminderOccurrenceDao();
 
         if (ACTION_SNOOZE.equals(action)) {
             // 延迟10分钟
-            long next = System.currentTimeMillis() + 10 * 60 * 1000L;
-            scheduleDao.updateNextReminder(scheduleId, next, System.currentTimeMillis());
+            long now = ReminderClock.get().currentTimeMillis();
+            long next = now + 10 * 60 * 1000L;
+            occurrenceDao.updateLatestDueStatus(scheduleId, OccurrenceStatus.SNOOZED.getIndex(), now);
+            scheduleDao.updateNextReminder(scheduleId, next, now);
+            recordCommitted(context, scheduleId, startElapsed);
             ReminderScheduler.scheduleNext(context, scheduleDao.getByIdSync(scheduleId));
+            cancelNotification(context, scheduleId);
             return;
         }
 
         if (ACTION_TAKEN.equals(action)) {
             // 记录已服用，写入用药记录并计算下一次
             if (scheduleId > 0 && medicationId > 0) {
-                // 获取药物信息以创建用药记录
-                MedicationDao medicationDao = db.medicationDao();
-                MedicationInfo medication = medicationDao.getMedicationByIdSync(medicationId);
-                
-                if (medication != null) {
-                    MedicationIntakeRecord record = new MedicationIntakeRecord();
-                    record.setMedicationName(medication.getName());
-                    record.setIntakeTime(System.currentTimeMillis());
-                    record.setDosageTaken(medication.getDosagePerIntake());
-                    recordDao.insertIntakeRecord(record);
-                }
-
-                MedicationSchedule s = scheduleDao.getByIdSync(scheduleId);
-                long next = ReminderCalculator.computeNextReminderEpochMillis(s, System.currentTimeMillis());
-                scheduleDao.updateNextReminder(scheduleId, next, System.currentTimeMillis());
-                s.setNextReminderAt(next);
+                MedicationSchedule s = MedicationIntakeRecordRepository.getInstance(context)
+                        .recordDoseTakenSync(scheduleId, medicationId, ReminderClock.get().currentTimeMillis());
+                recordCommitted(context, scheduleId, startElapsed);
                 ReminderScheduler.scheduleNext(context, s);
+                cancelNotification(context, scheduleId);
             }
             return;
         }
 
-        // 默认：闹钟触发 -> 展示通知
-        if (ACTION_REMIND.equals(action)) {
-            showNotification(context, scheduleId, medicationId);
+        if (ACTION_TAKE_ALL.equals(action)) {
+            // 同一组内的所有计划在一个事务中记录
+            long[] scheduleIds = intent.getLongArrayExtra("schedule_ids");
+            long[] medicationIds = intent.getLongArrayExtra("medication_ids");
+            int groupId = intent.getIntExtra("group_id", 0);
+            if (scheduleIds == null || medicationIds == null || scheduleIds.length != medicationIds.length) return;
+            long now = ReminderClock.get().currentTimeMillis();
+            List<MedicationSchedule> updated = MedicationIntakeRecordRepository.getInstance(context)
+                    .recordDosesTakenSync(scheduleIds, medicationIds, now);
+            recordCommitted(context, -1, startElapsed);
+            for (MedicationSchedule s : updated) {
+                ReminderScheduler.scheduleNext(context, s);
+            }
+            cancelGroupNotifications(context, scheduleIds, groupId);
+        }
+    }
+
+    /**
+     * 记录提醒的触发漂移与通知发出耗时（通知发出后再写入，不拖慢提醒）
+     */
+    private void recordFired(Context context, List<ReminderPayload> fired, long receivedAt, long startElapsed) {
+        if (fired.isEmpty()) return;
+        long postMillis = SystemClock.elapsedRealtime() - startElapsed;
+        List<ReminderLatencySample> samples = new ArrayList<>(fired.size() * 2);
+        for (ReminderPayload p : fired) {
+            // 合并窗口内提前送达的载荷不是本次闹钟的目标时间，不计入触发漂移
+            if (p.getScheduledAt() > 0 && p.getScheduledAt() <= receivedAt) {
+                samples.add(new ReminderLatencySample(LatencyMetric.FIRE_DRIFT.getIndex(), p.getScheduleId(),
+                        receivedAt, receivedAt - p.getScheduledAt()));
+            }
+            samples.add(new ReminderLatencySample(LatencyMetric.NOTIFICATION_POST.getIndex(), p.getScheduleId(),
+                    receivedAt, postMillis));
+        }
+        ReminderTelemetry.record(context, samples);
+    }
+
+    /**
+     * 记录从点击通知动作到数据库提交的耗时
+     */
+    private void recordCommitted(Context context, long scheduleId, long startElapsed) {
+        ReminderTelemetry.record(context, LatencyMetric.ACTION_COMMIT, scheduleId, ReminderClock.get().currentTimeMillis(),
+                SystemClock.elapsedRealtime() - startElapsed);
+    }
+
+    /**
+     * 载荷缺少药品信息时（如旧版本注册的闹钟）回退到数据库查询
+     *
+     * @return 可用于展示的载荷，计划已不存在或已停用时返回null
+     */
+    private ReminderPayload resolvePayload(Context context, ReminderPayload payload) {
+        if (payload.hasMedicationInfo()) return payload;
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        MedicationSchedule s = db.medicationScheduleDao().getByIdSync(payload.getScheduleId());
+        if (s == null || !s.isEnabled()) return null;
+        MedicationInfo medication = db.medicationDao().getMedicationByIdSync(s.getMedicationId());
+        s.setNextReminderAt(payload.getScheduledAt());
+        return ReminderPayload.from(s, medication);
+    }
+
+    /**
+     * 展示一批到期计划的通知
+     * 按计划提醒时间排序后切分为组：以组内最早的提醒为窗口起点，其后 2 × COALESCE_WINDOW_MILLIS
+     * （即组中心前后各一个合并窗口）内的提醒同组；组内单个直接展示，多个合并为一组并附带该组自己的汇总通知
+     */
+    static void showNotifications(Context context, List<ReminderPayload> due) {
+        if (due.isEmpty()) return;
+        List<ReminderPayload> sorted = new ArrayList<>(due);
+        Collections.sort(sorted, (a, b) -> Long.compare(a.getScheduledAt(), b.getScheduledAt()));
+        int start = 0;
+        while (start < sorted.size()) {
+            long windowStart = sorted.get(start).getScheduledAt();
+            int end = start + 1;
+            while (end < sorted.size()
+                    && sorted.get(end).getScheduledAt() <= windowStart + 2 * COALESCE_WINDOW_MILLIS) {
+                end++;
+            }
+            showGroup(context, sorted.subList(start, end), (int) (windowStart / 60_000L));
+            start = end;
         }
     }
 
-    private void showNotification(Context context, long scheduleId, long medicationId) {
+    /**
+     * 展示同一合并窗口内的提醒
+     *
+     * @param groupId 组窗口起点（分钟），用作分组键、汇总通知 id 与"全部已服用"的 requestCode
+     */
+    private static void showGroup(Context context, List<ReminderPayload> group, int groupId) {
+        String groupKey = group.size() > 1 ? GROUP_KEY_PREFIX + groupId : null;
+        long[] scheduleIds = new long[group.size()];
+        long[] medicationIds = new long[group.size()];
+        List<String> names = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            ReminderPayload p = group.get(i);
+            scheduleIds[i] = p.getScheduleId();
+            medicationIds[i] = p.getMedicationId();
+            names.add(p.hasMedicationInfo() ? p.getMedicationName() : context.getString(R.string.reminder_notification_content));
+            showNotification(context, p, groupKey);
+        }
+        if (groupKey != null) {
+            showSummaryNotification(context, groupKey, groupId, scheduleIds, medicationIds, names);
+        }
+    }
+
+    /**
+     * @param groupKey 所属组的分组键，不分组时为null
+     */
+    private static void showNotification(Context context, ReminderPayload payload, String groupKey) {
         NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
         if (nm == null) return;
-        ensureChannel(context, nm);
+        long scheduleId = payload.getScheduleId();
+        long medicationId = payload.getMedicationId();
 
         // 延迟10分钟
         Intent snooze = new Intent(context, ReminderReceiver.class);
@@ -100,31 +349,134 @@ public class ReminderReceiver extends BroadcastReceiver {
         taken.putExtra("medication_id", medicationId);
         PendingIntent takenPi = PendingIntent.getBroadcast(context, (int) (scheduleId * 10 + 2), taken, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
 
-        // 点击通知打开主界面（或具体详情页，这里打开主界面）
-        Intent openApp = new Intent(context, MainActivity.class);
-        PendingIntent contentPi = PendingIntent.getActivity(context, (int) (scheduleId * 10 + 3), openApp, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        String content;
+        if (!payload.hasMedicationInfo()) {
+            content = context.getString(R.string.reminder_notification_content);
+        } else if (payload.getDosage() > 0) {
+            content = context.getString(R.string.reminder_notification_dose_content, payload.getMedicationName(),
+                    payload.getDosage(), payload.getUnit() == null ? "" : payload.getUnit(),
+                    DateFormat.getTimeFormat(context).format(new Date(payload.getScheduledAt())));
+        } else {
+            content = context.getString(R.string.reminder_notification_medication_content, payload.getMedicationName());
+        }
 
         NotificationCompat.Builder b = new NotificationCompat.Builder(context, CHANNEL_ID)
                 .setSmallIcon(R.drawable.ic_medication_default)
                 .setContentTitle(context.getString(R.string.app_name))
-                .setContentText(context.getString(R.string.reminder_notification_content))
-                .setContentIntent(contentPi)
+                .setContentText(content)
+                .setContentIntent(buildContentIntent(context, (int) (scheduleId * 10 + 3)))
                 .setAutoCancel(true)
                 .setPriority(NotificationCompat.PRIORITY_HIGH)
                 .addAction(R.drawable.ic_arrow_back, context.getString(R.string.reminder_action_snooze_text), snoozePi)
                 .addAction(R.drawable.ic_add_medication, context.getString(R.string.reminder_action_taken_text), takenPi);
+        if (payload.getEscalationLevel() > 0) {
+            // 未确认的再次提醒：提高优先级
+            b.setContentTitle(context.getString(R.string.reminder_escalation_title, payload.getEscalationLevel()))
+                    .setPriority(NotificationCompat.PRIORITY_MAX)
+                    .setCategory(NotificationCompat.CATEGORY_ALARM);
+        }
+        MedicationColor color = MedicationColor.fromString(payload.getColor());
+        if (color != null) {
+            b.setSubText(color.getDisplayName(context));
+        }
+        if (groupKey != null) {
+            // 组内子通知不单独响铃，由汇总通知统一提醒一次
+            b.setGroup(groupKey)
+                    .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY);
+        }
 
         nm.notify((int) scheduleId, b.build());
     }
 
-    private void ensureChannel(Context context, NotificationManager nm) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel ch = new NotificationChannel(CHANNEL_ID, context.getString(R.string.reminder_channel_name), NotificationManager.IMPORTANCE_HIGH);
-            ch.enableLights(true);
-            ch.setLightColor(Color.GREEN);
-            ch.enableVibration(true);
-            nm.createNotificationChannel(ch);
+    private static void showSummaryNotification(Context context, String groupKey, int groupId,
+                                                long[] scheduleIds, long[] medicationIds, List<String> names) {
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm == null) return;
+
+        // 全部已服用
+        Intent takeAll = new Intent(context, ReminderReceiver.class);
+        takeAll.setAction(ACTION_TAKE_ALL);
+        takeAll.putExtra("schedule_ids", scheduleIds);
+        takeAll.putExtra("medication_ids", medicationIds);
+        takeAll.putExtra("group_id", groupId);
+        PendingIntent takeAllPi = PendingIntent.getBroadcast(context, groupId, takeAll, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        String title = context.getString(R.string.reminder_group_summary_title, names.size());
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+        for (String name : names) {
+            style.addLine(name);
         }
+
+        NotificationCompat.Builder b = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_medication_default)
+                .setContentTitle(title)
+                .setContentText(TextUtils.join(", ", names))
+                .setStyle(style)
+                .setContentIntent(buildContentIntent(context, groupId))
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setGroup(groupKey)
+                .setGroupSummary(true)
+                .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY)
+                .addAction(R.drawable.ic_add_medication, context.getString(R.string.reminder_action_take_all_text), takeAllPi);
+
+        nm.notify(SUMMARY_TAG, groupId, b.build());
+    }
+
+    /**
+     * 补录漏服后通知用户：一次补录的所有漏服剂量合并为一条通知
+     *
+     * @param missed     补录的漏服记录
+     * @param caughtUpAt 补录时间
+     */
+    public static void showMissedNotification(Context context, List<MedicationIntakeRecord> missed, long caughtUpAt) {
+        if (missed.isEmpty()) return;
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm == null) return;
+
+        java.text.DateFormat timeFormat = DateFormat.getTimeFormat(context);
+        List<String> lines = new ArrayList<>(missed.size());
+        for (MedicationIntakeRecord r : missed) {
+            String name = r.getMedicationName() != null
+                    ? r.getMedicationName() : context.getString(R.string.reminder_notification_content);
+            lines.add(context.getString(R.string.reminder_missed_line, name,
+                    timeFormat.format(new Date(r.getScheduledAt()))));
+        }
+        String title = context.getString(R.string.reminder_missed_title, missed.size());
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle().setBigContentTitle(title);
+        for (String line : lines) {
+            style.addLine(line);
+        }
+
+        int id = (int) (caughtUpAt / 60_000L);
+        NotificationCompat.Builder b = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_medication_default)
+                .setContentTitle(title)
+                .setContentText(TextUtils.join(", ", lines))
+                .setStyle(style)
+                .setContentIntent(buildContentIntent(context, id))
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH);
+        nm.notify(MISSED_TAG, id, b.build());
+    }
+
+    private static PendingIntent buildContentIntent(Context context, int requestCode) {
+        // 点击通知打开主界面（或具体详情页，这里打开主界面）
+        Intent openApp = new Intent(context, MainActivity.class);
+        return PendingIntent.getActivity(context, requestCode, openApp, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private void cancelNotification(Context context, long scheduleId) {
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm != null) nm.cancel((int) scheduleId);
     }
-}
 
+    private void cancelGroupNotifications(Context context, long[] scheduleIds, int groupId) {
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (nm == null) return;
+        for (long id : scheduleIds) {
+            nm.cancel((int) id);
+        }
+        nm.cancel(SUMMARY_TAG, groupId);
+    }
+}
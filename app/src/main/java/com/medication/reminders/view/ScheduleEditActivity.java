@@ -17,11 +17,12 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.medication.reminders.R;
 import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.CustomDates;
 import com.medication.reminders.repository.MedicationScheduleRepository;
 import com.medication.reminders.enums.ReminderCycleType;
 
 /**
- * 简易的用药计划编辑页：演示如何创建每日/每周/每月/每隔X天的提醒
+ * 简易的用药计划编辑页：演示如何创建每日/每周/每月/每隔X天/每隔X小时/指定日期的提醒
  */
 public class ScheduleEditActivity extends AppCompatActivity {
 
@@ -31,6 +32,11 @@ public class ScheduleEditActivity extends AppCompatActivity {
     private CheckBox cbMon, cbTue, cbWed, cbThu, cbFri, cbSat, cbSun;
     private EditText dayOfMonthEdit;
     private EditText intervalDaysEdit;
+    private EditText intervalHoursEdit;
+    private EditText customDatesEdit;
+    private CheckBox criticalCheck;
+    private EditText escalationIntervalEdit;
+    private EditText escalationMaxEdit;
     private Button saveButton;
 
     private long medicationId;
@@ -63,6 +69,8 @@ public class ScheduleEditActivity extends AppCompatActivity {
         weekDaysContainer.setVisibility(View.GONE);
         dayOfMonthEdit.setVisibility(View.GONE);
         intervalDaysEdit.setVisibility(View.GONE);
+        intervalHoursEdit.setVisibility(View.GONE);
+        customDatesEdit.setVisibility(View.GONE);
         
         // 根据类型显示相应字段
         switch (cycleType) {
@@ -81,6 +89,14 @@ public class ScheduleEditActivity extends AppCompatActivity {
                 // 每隔X天：显示间隔天数
                 intervalDaysEdit.setVisibility(View.VISIBLE);
                 break;
+            case INTERVAL_HOURS:
+                // 每隔X小时：显示间隔小时数
+                intervalHoursEdit.setVisibility(View.VISIBLE);
+                break;
+            case CUSTOM_DATES:
+                // 指定日期：显示日期列表
+                customDatesEdit.setVisibility(View.VISIBLE);
+                break;
         }
     }
 
@@ -97,6 +113,11 @@ public class ScheduleEditActivity extends AppCompatActivity {
         cbSun = findViewById(R.id.cbSun);
         dayOfMonthEdit = findViewById(R.id.editDayOfMonth);
         intervalDaysEdit = findViewById(R.id.editIntervalDays);
+        intervalHoursEdit = findViewById(R.id.editIntervalHours);
+        customDatesEdit = findViewById(R.id.editCustomDates);
+        criticalCheck = findViewById(R.id.cbCritical);
+        escalationIntervalEdit = findViewById(R.id.editEscalationInterval);
+        escalationMaxEdit = findViewById(R.id.editEscalationMax);
         saveButton = findViewById(R.id.btnSave);
     }
 
@@ -147,6 +168,11 @@ public class ScheduleEditActivity extends AppCompatActivity {
         cbSun.setChecked((mask & 1) != 0);
         dayOfMonthEdit.setText(String.valueOf(Math.max(0, s.getDayOfMonth())));
         intervalDaysEdit.setText(String.valueOf(Math.max(0, s.getIntervalDays())));
+        intervalHoursEdit.setText(String.valueOf(Math.max(0, s.getIntervalHours())));
+        customDatesEdit.setText(s.getCustomDates().toText());
+        criticalCheck.setChecked(s.isCritical());
+        escalationIntervalEdit.setText(String.valueOf(Math.max(0, s.getEscalationIntervalMinutes())));
+        escalationMaxEdit.setText(String.valueOf(Math.max(0, s.getEscalationMaxCount())));
         saveButton.setText(getString(R.string.schedule_save_button_text));
         saveButton.setTag(s);
     }
@@ -173,8 +199,14 @@ public class ScheduleEditActivity extends AppCompatActivity {
                 s.setMedicationId(medicationId);
                 s.setCycleTypeIndex(cycleType.getIndex());
                 s.setTimesOfDay(timesCsv);
-                s.setTimesPerDay(Math.max(1, timesCsv.split(",").length));
+                if (s.getDoseTimes().isEmpty()) {
+                    Toast.makeText(ScheduleEditActivity.this, getString(R.string.schedule_time_input_hint), Toast.LENGTH_LONG).show();
+                    return;
+                }
                 s.setStartDateMillis(System.currentTimeMillis());
+                s.setCritical(criticalCheck.isChecked());
+                s.setEscalationIntervalMinutes(Math.max(0, parseIntSafe(escalationIntervalEdit.getText().toString().trim(), 0)));
+                s.setEscalationMaxCount(Math.max(0, parseIntSafe(escalationMaxEdit.getText().toString().trim(), 0)));
 
                 switch (cycleType) {
                     case WEEKLY:
@@ -196,6 +228,18 @@ public class ScheduleEditActivity extends AppCompatActivity {
                         int x = parseIntSafe(intervalDaysEdit.getText().toString().trim(), 1);
                         s.setIntervalDays(x);
                         break;
+                    case INTERVAL_HOURS:
+                        int hours = parseIntSafe(intervalHoursEdit.getText().toString().trim(), 1);
+                        s.setIntervalHours(Math.max(1, hours));
+                        break;
+                    case CUSTOM_DATES:
+                        CustomDates dates = CustomDates.parse(customDatesEdit.getText().toString());
+                        if (dates.isEmpty()) {
+                            Toast.makeText(ScheduleEditActivity.this, getString(R.string.schedule_custom_dates_invalid), Toast.LENGTH_LONG).show();
+                            return;
+                        }
+                        s.setCustomDates(dates);
+                        break;
                     case DAILY:
                     default:
                         // 每日不需要额外设置
@@ -8,8 +8,14 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.paging.KeysetPagingSource;
+import com.medication.reminders.models.DiarySearchResult;
 import com.medication.reminders.models.RepositoryCallback;
 import com.medication.reminders.repository.HealthDiaryRepository;
 
@@ -39,6 +45,7 @@ public class HealthDiaryViewModel extends AndroidViewModel {
     
     // 日记数据相关
     private MutableLiveData<List<HealthDiary>> userDiaries = new MutableLiveData<>();
+    private LiveData<PagingData<HealthDiary>> diaryPages;
     private LiveData<Integer> diaryCount;
     private MutableLiveData<HealthDiary> selectedDiary;
     
@@ -99,6 +106,11 @@ public class HealthDiaryViewModel extends AndroidViewModel {
         // 初始化LiveData属性
         initializeLiveData();
         
+        // 分页数据缓存在ViewModel作用域内，配置变更后无需重新加载
+        Pager<KeysetPagingSource.Cursor, HealthDiary> pager = new Pager<>(
+            KeysetPagingSource.pagingConfig(), healthDiaryRepository::createDiaryPagingSource);
+        this.diaryPages = PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), ViewModelKt.getViewModelScope(this));
+        
         // 设置与Repository的连接
         setupRepositoryConnection();
     }
@@ -142,7 +154,13 @@ public class HealthDiaryViewModel extends AndroidViewModel {
             android.util.Log.d(TAG, "初始化日记数量LiveData连接");
         }
         
-        // 触发数据刷新（不重新获取LiveData引用）
+        // 完整列表不在初始化时加载，列表页面使用 getDiaryPages() 分页加载
+    }
+    
+    /**
+     * 加载当前用户的完整日记列表到 userDiaries
+     */
+    private void loadUserDiaries() {
         if (!isTestMode) {
             executorService.execute(() -> {
                 try {
@@ -171,6 +189,14 @@ public class HealthDiaryViewModel extends AndroidViewModel {
 
     // ========== LiveData Getter方法 ==========
     
+    /**
+     * 获取当前用户分页的日记列表（按创建时间倒序），用于列表页面
+     * @return 分页日记的LiveData
+     */
+    public LiveData<PagingData<HealthDiary>> getDiaryPages() {
+        return diaryPages;
+    }
+    
     /**
      * 获取用户日记列表LiveData
      * @return 用户日记列表的LiveData对象
@@ -831,11 +857,11 @@ public class HealthDiaryViewModel extends AndroidViewModel {
     }
     
     /**
-     * 搜索日记
+     * 全文搜索日记，结果按相关度排序并附带高亮摘要
      * @param searchQuery 搜索关键词
      * @param callback 搜索结果回调
      */
-    public void searchDiaries(String searchQuery, RepositoryCallback<List<HealthDiary>> callback) {
+    public void searchDiaries(String searchQuery, RepositoryCallback<List<DiarySearchResult>> callback) {
         // 验证输入
         if (searchQuery == null || searchQuery.trim().isEmpty()) {
             callback.onError("搜索关键词不能为空");
@@ -859,12 +885,12 @@ public class HealthDiaryViewModel extends AndroidViewModel {
      * @param searchQuery 搜索关键词
      * @param callback 回调接口
      */
-    private void performSearchDiariesSync(String searchQuery, RepositoryCallback<List<HealthDiary>> callback) {
-        healthDiaryRepository.searchDiaries(searchQuery, new RepositoryCallback<List<HealthDiary>>() {
+    private void performSearchDiariesSync(String searchQuery, RepositoryCallback<List<DiarySearchResult>> callback) {
+        healthDiaryRepository.searchDiaries(searchQuery, new RepositoryCallback<List<DiarySearchResult>>() {
             @Override
-            public void onSuccess(List<HealthDiary> diaries) {
-                setSuccess("搜索完成，找到 " + diaries.size() + " 条日记");
-                callback.onSuccess(diaries);
+            public void onSuccess(List<DiarySearchResult> results) {
+                setSuccess("搜索完成，找到 " + results.size() + " 条日记");
+                callback.onSuccess(results);
             }
             
             @Override
@@ -880,14 +906,14 @@ public class HealthDiaryViewModel extends AndroidViewModel {
      * @param searchQuery 搜索关键词
      * @param callback 回调接口
      */
-    private void performSearchDiariesAsync(String searchQuery, RepositoryCallback<List<HealthDiary>> callback) {
+    private void performSearchDiariesAsync(String searchQuery, RepositoryCallback<List<DiarySearchResult>> callback) {
         executorService.execute(() -> {
-            healthDiaryRepository.searchDiaries(searchQuery, new RepositoryCallback<List<HealthDiary>>() {
+            healthDiaryRepository.searchDiaries(searchQuery, new RepositoryCallback<List<DiarySearchResult>>() {
                 @Override
-                public void onSuccess(List<HealthDiary> diaries) {
+                public void onSuccess(List<DiarySearchResult> results) {
                     postToMainThread(() -> {
-                        setSuccess("搜索完成，找到 " + diaries.size() + " 条日记");
-                        callback.onSuccess(diaries);
+                        setSuccess("搜索完成，找到 " + results.size() + " 条日记");
+                        callback.onSuccess(results);
                     });
                 }
                 
@@ -985,6 +1011,7 @@ public class HealthDiaryViewModel extends AndroidViewModel {
      */
     public void refreshUserDiaries() {
         setupRepositoryConnection();
+        loadUserDiaries();
     }
     
     /**
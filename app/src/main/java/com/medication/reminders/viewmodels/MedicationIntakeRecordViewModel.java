@@ -8,8 +8,13 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
 import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.paging.KeysetPagingSource;
 import com.medication.reminders.models.RepositoryCallback;
 import com.medication.reminders.repository.MedicationIntakeRecordRepository;
 
@@ -39,6 +44,7 @@ public class MedicationIntakeRecordViewModel extends AndroidViewModel {
     
     // 用药记录数据相关
     private LiveData<List<MedicationIntakeRecord>> allIntakeRecords;
+    private LiveData<PagingData<MedicationIntakeRecord>> intakeRecordPages;
     private LiveData<List<MedicationIntakeRecord>> recentIntakeRecords;
     private LiveData<Integer> intakeRecordCount;
     private MutableLiveData<MedicationIntakeRecord> selectedIntakeRecord;
@@ -96,6 +102,11 @@ public class MedicationIntakeRecordViewModel extends AndroidViewModel {
         
         // 加载初始数据
         loadInitialData();
+        
+        // 分页数据缓存在ViewModel作用域内，配置变更后无需重新加载
+        Pager<KeysetPagingSource.Cursor, MedicationIntakeRecord> pager = new Pager<>(
+            KeysetPagingSource.pagingConfig(), intakeRecordRepository::createIntakeRecordPagingSource);
+        this.intakeRecordPages = PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), ViewModelKt.getViewModelScope(this));
     }
     
     /**
@@ -131,6 +142,14 @@ public class MedicationIntakeRecordViewModel extends AndroidViewModel {
     
     // ========== Getter方法 - 提供LiveData访问 ==========
     
+    /**
+     * 获取分页的用药记录（按服用时间倒序），用于列表页面
+     * @return 分页用药记录的LiveData
+     */
+    public LiveData<PagingData<MedicationIntakeRecord>> getIntakeRecordPages() {
+        return intakeRecordPages;
+    }
+    
     /**
      * 获取所有用药记录的LiveData
      * @return 所有用药记录列表的LiveData
@@ -234,12 +253,12 @@ public class MedicationIntakeRecordViewModel extends AndroidViewModel {
     }
     
     /**
-     * 根据药物名称获取用药记录
-     * @param medicationName 药物名称
+     * 根据药物ID获取用药记录
+     * @param medicationId 药物ID
      * @return 该药物的用药记录列表的LiveData
      */
-    public LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationName(String medicationName) {
-        return intakeRecordRepository.getIntakeRecordsByMedicationName(medicationName);
+    public LiveData<List<MedicationIntakeRecord>> getIntakeRecordsByMedicationId(long medicationId) {
+        return intakeRecordRepository.getIntakeRecordsByMedicationId(medicationId);
     }
     
     /**
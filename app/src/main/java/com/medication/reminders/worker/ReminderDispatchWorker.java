@@ -0,0 +1,87 @@
+package com.medication.reminders.worker;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.medication.reminders.view.ReminderReceiver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WorkManagerDispatcher 的投递任务：到时后把保存的 intent 以显式广播发给 ReminderReceiver
+ */
+public class ReminderDispatchWorker extends Worker {
+
+    private static final String KEY_ACTION = "dispatch_action";
+
+    public ReminderDispatchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * 将 intent 的 action 与 extras 转为 WorkManager 输入数据（支持基本类型、字符串及其数组）
+     */
+    public static Data toData(Intent intent) {
+        Map<String, Object> values = new HashMap<>();
+        values.put(KEY_ACTION, intent.getAction());
+        Bundle extras = intent.getExtras();
+        if (extras != null) {
+            for (String key : extras.keySet()) {
+                values.put(key, extras.get(key));
+            }
+        }
+        return new Data.Builder().putAll(values).build();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Data data = getInputData();
+        Intent intent = new Intent(getApplicationContext(), ReminderReceiver.class);
+        intent.setAction(data.getString(KEY_ACTION));
+        for (Map.Entry<String, Object> e : data.getKeyValueMap().entrySet()) {
+            if (!KEY_ACTION.equals(e.getKey())) putExtra(intent, e.getKey(), e.getValue());
+        }
+        getApplicationContext().sendBroadcast(intent);
+        return Result.success();
+    }
+
+    /**
+     * Data 中的数组以包装类型保存，需还原为 Intent 读取时使用的基本类型数组
+     */
+    private static void putExtra(Intent intent, String key, Object value) {
+        if (value instanceof Long) {
+            intent.putExtra(key, (Long) value);
+        } else if (value instanceof Integer) {
+            intent.putExtra(key, (Integer) value);
+        } else if (value instanceof Boolean) {
+            intent.putExtra(key, (Boolean) value);
+        } else if (value instanceof String) {
+            intent.putExtra(key, (String) value);
+        } else if (value instanceof String[]) {
+            intent.putExtra(key, (String[]) value);
+        } else if (value instanceof Long[]) {
+            Long[] boxed = (Long[]) value;
+            long[] values = new long[boxed.length];
+            for (int i = 0; i < boxed.length; i++) values[i] = boxed[i];
+            intent.putExtra(key, values);
+        } else if (value instanceof Integer[]) {
+            Integer[] boxed = (Integer[]) value;
+            int[] values = new int[boxed.length];
+            for (int i = 0; i < boxed.length; i++) values[i] = boxed[i];
+            intent.putExtra(key, values);
+        } else if (value instanceof Boolean[]) {
+            Boolean[] boxed = (Boolean[]) value;
+            boolean[] values = new boolean[boxed.length];
+            for (int i = 0; i < boxed.length; i++) values[i] = boxed[i];
+            intent.putExtra(key, values);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.medication.reminders.worker;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.utils.DirectBootSnapshot;
+import com.medication.reminders.utils.OccurrenceHorizon;
+import com.medication.reminders.utils.ReminderClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台补齐提醒实例的周期任务
+ * 每天运行一次：标记漏服、清理过期实例，并将所有启用计划的展开窗口补齐到未来 N 天
+ */
+public class ReminderHorizonWorker extends Worker {
+
+    private static final String UNIQUE_WORK_NAME = "reminder_horizon_top_up";
+
+    public ReminderHorizonWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * 注册周期任务，已注册时保持原有任务
+     */
+    public static void enqueue(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ReminderHorizonWorker.class, 1, TimeUnit.DAYS).build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                UNIQUE_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            MedicationDatabase db = MedicationDatabase.getDatabase(getApplicationContext());
+            long now = ReminderClock.get().currentTimeMillis();
+            db.runInTransaction(() -> OccurrenceHorizon.topUp(
+                    db.reminderOccurrenceDao(),
+                    db.medicationScheduleDao().getAllEnabledSchedulesSync(),
+                    now));
+            // 快照覆盖48小时，每天随展开窗口一起前移
+            DirectBootSnapshot.refresh(getApplicationContext(), now);
+            return Result.success();
+        } catch (Exception e) {
+            return Result.retry();
+        }
+    }
+}
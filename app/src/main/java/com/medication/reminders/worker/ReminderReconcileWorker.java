@@ -0,0 +1,74 @@
+package com.medication.reminders.worker;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.medication.reminders.utils.MissedDoseCatchUp;
+import com.medication.reminders.utils.ReminderClock;
+import com.medication.reminders.utils.ReminderReconciler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 提醒闹钟对账的周期任务
+ * 每小时运行一次，先补录错过的提醒为漏服，再修复被系统丢弃的闹钟与过期的下一次提醒时间
+ * 应用启动时另外立即运行一次
+ */
+public class ReminderReconcileWorker extends Worker {
+
+    private static final String TAG = "ReminderReconcile";
+    private static final String UNIQUE_WORK_NAME = "reminder_alarm_reconcile";
+    private static final String UNIQUE_ONCE_WORK_NAME = "reminder_alarm_reconcile_once";
+
+    public ReminderReconcileWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * 注册周期任务，已注册时保持原有任务
+     */
+    public static void enqueue(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                ReminderReconcileWorker.class, 1, TimeUnit.HOURS).build();
+        WorkManager.getInstance(context).enqueueUniquePeriodicWork(
+                UNIQUE_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * 立即运行一次（应用启动时），已在排队时保持原有任务
+     */
+    public static void runOnce(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ReminderReconcileWorker.class).build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+                UNIQUE_ONCE_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            long now = ReminderClock.get().currentTimeMillis();
+            // 对账会把过期的下一次提醒直接推进到未来，须先补录其间的漏服
+            int missed = MissedDoseCatchUp.catchUp(getApplicationContext(), now);
+            if (missed > 0) {
+                Log.i(TAG, "Recorded " + missed + " missed doses");
+            }
+            int repaired = ReminderReconciler.reconcile(getApplicationContext(), now);
+            if (repaired > 0) {
+                Log.i(TAG, "Repaired " + repaired + " reminder alarms");
+            }
+            return Result.success();
+        } catch (Exception e) {
+            return Result.retry();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.medication.reminders.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.dao.MedicationScheduleDao;
+import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.database.entity.User;
+import com.medication.reminders.models.DoseTimes;
+import com.medication.reminders.utils.DiarySearchIndex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+/**
+ * 从首个发布版本（8）升级到当前版本的迁移测试
+ * 按 v8 的表结构建库并写入数据，再由 Room 执行全部迁移并校验结构，最后检查数据仍在
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseMigrationsTest {
+
+    private static final String DB_NAME = "migration-test.db";
+
+    /**
+     * 版本 8 时 Room 生成的建表语句
+     */
+    private static final String[] V8_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `medications` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`name` TEXT, `color` TEXT, `dosage_form` TEXT, `photo_path` TEXT, "
+                    + "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, "
+                    + "`remaining_quantity` INTEGER NOT NULL, `total_quantity` INTEGER NOT NULL, `unit` TEXT, "
+                    + "`dosage_per_intake` INTEGER NOT NULL, `low_stock_threshold` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `users` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`username` TEXT NOT NULL, `email` TEXT NOT NULL, `phone` TEXT NOT NULL, "
+                    + "`password` TEXT NOT NULL, `full_name` TEXT, `gender` TEXT, `birth_date` TEXT, "
+                    + "`profile_photo_path` TEXT, `secondary_phone` TEXT, `emergency_contact_name` TEXT, "
+                    + "`emergency_contact_phone` TEXT, `emergency_contact_relation` TEXT, `address` TEXT, "
+                    + "`blood_type` TEXT, `allergies` TEXT, `medical_conditions` TEXT, `doctor_name` TEXT, "
+                    + "`doctor_phone` TEXT, `hospital_name` TEXT, `is_logged_in` INTEGER NOT NULL, "
+                    + "`remember_me` INTEGER NOT NULL, `last_login_time` INTEGER NOT NULL, "
+                    + "`login_attempts` INTEGER NOT NULL, `last_attempt_time` INTEGER NOT NULL, "
+                    + "`created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `health_diary` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`user_id` INTEGER NOT NULL, `content` TEXT NOT NULL, `created_at` INTEGER NOT NULL, "
+                    + "`updated_at` INTEGER NOT NULL, FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) "
+                    + "ON UPDATE NO ACTION ON DELETE CASCADE )",
+            "CREATE INDEX IF NOT EXISTS `index_health_diary_user_id` ON `health_diary` (`user_id`)",
+            "CREATE TABLE IF NOT EXISTS `medication_schedules` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`medication_id` INTEGER NOT NULL, `cycle_type_index` INTEGER NOT NULL, "
+                    + "`times_per_day` INTEGER NOT NULL, `times_of_day` TEXT, `days_of_week_mask` INTEGER NOT NULL, "
+                    + "`day_of_month` INTEGER NOT NULL, `interval_days` INTEGER NOT NULL, "
+                    + "`start_date_millis` INTEGER NOT NULL, `next_reminder_at` INTEGER NOT NULL, "
+                    + "`enabled` INTEGER NOT NULL, `created_at` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS `index_medication_schedules_medication_id` "
+                    + "ON `medication_schedules` (`medication_id`)",
+            "CREATE TABLE IF NOT EXISTS `medication_intake_record` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`medication_name` TEXT, `intake_time` INTEGER NOT NULL, `dosage_taken` INTEGER NOT NULL)",
+    };
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void migrateFromVersion8_keepsUserData() {
+        SQLiteDatabase v8 = createVersion8();
+        v8.execSQL("INSERT INTO `users` (`id`, `username`, `email`, `phone`, `password`, `is_logged_in`, "
+                + "`remember_me`, `last_login_time`, `login_attempts`, `last_attempt_time`, `created_at`, `updated_at`) "
+                + "VALUES (1, 'alice', 'alice@example.com', '13800000000', 'secret', 1, 0, 0, 0, 0, 1000, 1000)");
+        v8.execSQL("INSERT INTO `health_diary` (`id`, `user_id`, `content`, `created_at`, `updated_at`) "
+                + "VALUES (1, 1, '今天血压偏高', 2000, 2000)");
+        v8.execSQL("INSERT INTO `medications` (`id`, `name`, `color`, `dosage_form`, `created_at`, `updated_at`, "
+                + "`remaining_quantity`, `total_quantity`, `unit`, `dosage_per_intake`, `low_stock_threshold`) "
+                + "VALUES (1, '阿司匹林', 'WHITE', 'TABLET', 1000, 1000, 30, 30, '片', 1, 5)");
+        v8.execSQL("INSERT INTO `medication_schedules` (`id`, `medication_id`, `cycle_type_index`, `times_per_day`, "
+                + "`times_of_day`, `days_of_week_mask`, `day_of_month`, `interval_days`, `start_date_millis`, "
+                + "`next_reminder_at`, `enabled`, `created_at`, `updated_at`) "
+                + "VALUES (1, 1, 0, 1, '08:00', 0, 0, 0, 0, 5000, 1, 1000, 1000)");
+        v8.execSQL("INSERT INTO `medication_intake_record` (`id`, `medication_name`, `intake_time`, `dosage_taken`) "
+                + "VALUES (1, '阿司匹林', 3000, 1)");
+        v8.close();
+
+        MedicationDatabase db = openMigrated();
+        try {
+            User user = db.userDao().getUserByUsername("alice");
+            assertNotNull(user);
+            assertEquals("alice@example.com", user.getEmail());
+
+            List<HealthDiary> diaries = db.healthDiaryDao().getDiariesByUserIdSync(user.getId());
+            assertEquals(1, diaries.size());
+            assertEquals("今天血压偏高", diaries.get(0).getContent());
+            assertEquals(1, db.healthDiaryDao().matchDiaries(user.getId(),
+                    DiarySearchIndex.toMatchQuery("血压")).size());
+
+            List<MedicationInfo> medications = db.medicationDao().getAllMedicationsSync();
+            assertEquals(1, medications.size());
+            assertEquals(30, medications.get(0).getRemainingQuantity());
+
+            MedicationSchedule schedule = db.medicationScheduleDao().getByIdSync(1);
+            assertNotNull(schedule);
+            assertEquals(5000, schedule.getNextReminderAt());
+
+            MedicationIntakeRecord record = db.medicationIntakeRecordDao().getIntakeRecordByIdSync(1);
+            assertNotNull(record);
+            assertEquals(Long.valueOf(1), record.getMedicationId());
+            assertEquals(1, record.getStatus());
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void migrateFromVersion8_convertsCsvTimesToDoseTimes() {
+        SQLiteDatabase v8 = createVersion8();
+        insertVersion8Schedule(v8, 1, "20:15,08:00,12:30");
+        insertVersion8Schedule(v8, 2, "07:45");
+        insertVersion8Schedule(v8, 3, "");
+        insertVersion8Schedule(v8, 4, null);
+        v8.close();
+
+        MedicationDatabase db = openMigrated();
+        try {
+            MedicationScheduleDao dao = db.medicationScheduleDao();
+            DoseTimes threeTimes = dao.getByIdSync(1).getDoseTimes();
+            assertEquals(3, threeTimes.size());
+            assertEquals(8 * 60, threeTimes.getMinuteOfDay(0));
+            assertEquals(12 * 60 + 30, threeTimes.getMinuteOfDay(1));
+            assertEquals(20 * 60 + 15, threeTimes.getMinuteOfDay(2));
+            assertFalse(threeTimes.hasDoses());
+            assertEquals("08:00,12:30,20:15", threeTimes.toCsv());
+
+            assertEquals(DoseTimes.of(new int[]{7 * 60 + 45}, null), dao.getByIdSync(2).getDoseTimes());
+            assertTrue(dao.getByIdSync(3).getDoseTimes().isEmpty());
+            assertTrue(dao.getByIdSync(4).getDoseTimes().isEmpty());
+        } finally {
+            db.close();
+        }
+    }
+
+    private static void insertVersion8Schedule(SQLiteDatabase db, long id, String timesOfDay) {
+        ContentValues values = new ContentValues();
+        values.put("id", id);
+        values.put("medication_id", 1);
+        values.put("cycle_type_index", 0);
+        values.put("times_per_day", timesOfDay == null || timesOfDay.isEmpty() ? 0 : timesOfDay.split(",").length);
+        values.put("times_of_day", timesOfDay);
+        values.put("days_of_week_mask", 0);
+        values.put("day_of_month", 0);
+        values.put("interval_days", 0);
+        values.put("start_date_millis", 0);
+        values.put("next_reminder_at", 0);
+        values.put("enabled", 1);
+        values.put("created_at", 1000);
+        values.put("updated_at", 1000);
+        db.insertOrThrow("medication_schedules", null, values);
+    }
+
+    /**
+     * 按 v8 结构建库，user_version 置为 8
+     */
+    private SQLiteDatabase createVersion8() {
+        SQLiteDatabase db = context.openOrCreateDatabase(DB_NAME, Context.MODE_PRIVATE, null);
+        for (String sql : V8_SCHEMA) {
+            db.execSQL(sql);
+        }
+        db.setVersion(8);
+        return db;
+    }
+
+    /**
+     * 以生产配置的迁移打开数据库，不允许破坏性迁移，缺少迁移或迁移后的结构与实体不一致时直接失败
+     */
+    private MedicationDatabase openMigrated() {
+        MedicationDatabase db = Room.databaseBuilder(context, MedicationDatabase.class, DB_NAME)
+                .allowMainThreadQueries()
+                .addMigrations(DatabaseMigrations.all())
+                .build();
+        // 触发打开与迁移
+        db.getOpenHelper().getWritableDatabase();
+        return db;
+    }
+}
@@ -0,0 +1,280 @@
+package com.medication.reminders.database;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.entity.HealthDiary;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.database.entity.ReminderLatencySample;
+import com.medication.reminders.database.entity.ReminderOccurrence;
+import com.medication.reminders.database.entity.User;
+import com.medication.reminders.models.DoseTimes;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 查询计划测试
+ * 从 DAO 源码中读取每条 @Query（注解不保留到运行时），在写入了数据的 Room 数据库上执行
+ * EXPLAIN QUERY PLAN，出现整表扫描（未使用索引的 SCAN）或临时 B 树排序即失败，
+ * 防止索引回归悄悄进入发布版本
+ *
+ * 参数不绑定，按 NULL 规划；不执行 ANALYZE，与设备上无统计信息时的默认规划一致
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest {
+
+    private static final String DAO_PACKAGE_PATH = "com/medication/reminders/database/dao";
+
+    // 未使用索引的整表扫描，兼容旧版 SQLite 的 "SCAN TABLE x" 格式
+    private static final Pattern FULL_SCAN = Pattern.compile(
+            "^SCAN (?:TABLE )?(medications|users|health_diary|medication_schedules|medication_intake_record"
+                    + "|reminder_occurrences|reminder_latency_samples)\\b(?!.*\\bUSING\\b)");
+
+    private static final String TEMP_B_TREE = "USE TEMP B-TREE";
+
+    private static final Pattern METHOD_NAME = Pattern.compile("(\\w+)\\s*\\(");
+
+    /**
+     * 无法走索引的查询及原因，只允许出现在用户表和药品表（每台设备只有少量行）
+     */
+    private static final Map<String, String> EXEMPT = new LinkedHashMap<>();
+
+    static {
+        EXEMPT.put("MedicationDao#getAllMedicationsSync", "读取全部药品");
+        EXEMPT.put("MedicationDao#searchMedicationsByName", "前置通配的 LIKE 无法使用索引");
+        EXEMPT.put("MedicationDao#getMedicationsNeedingRefill", "按库存百分比表达式过滤和排序");
+        EXEMPT.put("UserDao#logoutAllUsers", "更新全部用户");
+        EXEMPT.put("UserDao#clearAllRememberMe", "更新全部用户");
+        EXEMPT.put("UserDao#batchUpdateUserStatus", "更新全部用户");
+        EXEMPT.put("UserDao#searchUsers", "前置通配的 LIKE 无法使用索引");
+        EXEMPT.put("UserDao#getUsersWithMedicalInfo", "多列 OR 条件");
+    }
+
+    private MedicationDatabase database;
+    private SupportSQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, MedicationDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        seed();
+        db = database.getOpenHelper().getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void daoQueries_useIndexes() throws IOException {
+        List<String[]> queries = readDaoQueries();
+        StringBuilder violations = new StringBuilder();
+        for (String[] q : queries) {
+            if (EXEMPT.containsKey(q[0])) continue;
+            String plan = explain(q[1]);
+            if (isViolation(plan)) {
+                violations.append('\n').append(q[0]).append(": ").append(plan).append(" <- ").append(q[1]);
+            }
+        }
+        assertTrue("Query plan regressions:" + violations, violations.length() == 0);
+    }
+
+    @Test
+    public void daoSources_coverEveryDao() throws IOException {
+        List<String[]> queries = readDaoQueries();
+        for (Method m : MedicationDatabase.class.getDeclaredMethods()) {
+            String dao = m.getReturnType().getSimpleName();
+            if (!m.getReturnType().getName().startsWith("com.medication.reminders.database.dao.")) continue;
+            boolean found = false;
+            for (String[] q : queries) {
+                if (q[0].startsWith(dao + "#")) {
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue("No @Query read from " + dao, found);
+        }
+    }
+
+    @Test
+    public void exemptions_nameExistingQueries() throws IOException {
+        List<String[]> queries = readDaoQueries();
+        for (String name : EXEMPT.keySet()) {
+            boolean found = false;
+            for (String[] q : queries) {
+                if (q[0].equals(name)) {
+                    found = true;
+                    break;
+                }
+            }
+            assertTrue("Stale exemption: " + name, found);
+            assertTrue("Exemptions are limited to users and medications: " + name,
+                    name.startsWith("UserDao#") || name.startsWith("MedicationDao#"));
+        }
+    }
+
+    // ========== 数据 ==========
+
+    private void seed() {
+        long now = 1_700_000_000_000L;
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "1380000000" + i, "password");
+            userIds.add(database.userDao().insertUser(user));
+        }
+
+        List<HealthDiary> diaries = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            long at = now - i * 3_600_000L;
+            diaries.add(new HealthDiary(userIds.get(i % userIds.size()), "今天血压正常 " + i, at, at));
+        }
+        database.healthDiaryDao().insertDiaries(diaries);
+
+        List<ReminderOccurrence> occurrences = new ArrayList<>();
+        List<MedicationIntakeRecord> records = new ArrayList<>();
+        for (int m = 0; m < 20; m++) {
+            MedicationInfo medication = new MedicationInfo("药品" + m, "白色", "片剂");
+            medication.setTotalQuantity(100);
+            medication.setRemainingQuantity(100 - m * 5);
+            long medicationId = database.medicationDao().insertMedication(medication);
+
+            MedicationSchedule schedule = new MedicationSchedule();
+            schedule.setMedicationId(medicationId);
+            schedule.setDoseTimes(DoseTimes.parse("08:00,20:00"));
+            schedule.setEnabled(m % 4 != 0);
+            schedule.setNextReminderAt(now + m * 60_000L);
+            long scheduleId = database.medicationScheduleDao().insert(schedule);
+
+            for (int d = 0; d < 10; d++) {
+                long fireAt = now - d * 43_200_000L;
+                occurrences.add(new ReminderOccurrence(scheduleId, medicationId, fireAt));
+                MedicationIntakeRecord record = new MedicationIntakeRecord("药品" + m, fireAt + 300_000L, 1);
+                record.setMedicationId(medicationId);
+                record.setScheduleId(scheduleId);
+                record.setScheduledAt(fireAt);
+                records.add(record);
+            }
+        }
+        database.reminderOccurrenceDao().insertAll(occurrences);
+        database.medicationIntakeRecordDao().insertIntakeRecords(records);
+
+        List<ReminderLatencySample> samples = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ReminderLatencySample sample = new ReminderLatencySample(i % 2, i + 1, now - i * 60_000L, 100 + i);
+            sample.setSlot(i);
+            samples.add(sample);
+        }
+        database.reminderLatencyDao().insertAll(samples);
+    }
+
+    // ========== 查询与计划 ==========
+
+    /**
+     * 读取全部 DAO 源码中的 @Query
+     *
+     * @return {DAO#方法, SQL}
+     */
+    private static List<String[]> readDaoQueries() throws IOException {
+        File[] files = daoSourceDir().listFiles((dir, name) -> name.endsWith("Dao.java"));
+        assertTrue("No DAO sources", files != null && files.length > 0);
+        List<String[]> queries = new ArrayList<>();
+        for (File file : files) {
+            queries.addAll(readQueries(file));
+        }
+        return queries;
+    }
+
+    private static File daoSourceDir() {
+        // Gradle 以模块目录为工作目录，IDE 可能以项目根目录运行
+        for (String root : new String[]{"src/main/java", "app/src/main/java"}) {
+            File dir = new File(root, DAO_PACKAGE_PATH);
+            if (dir.isDirectory()) return dir;
+        }
+        throw new AssertionError("DAO sources not found from " + new File("").getAbsolutePath());
+    }
+
+    /**
+     * 解析一个 DAO 文件中的 @Query，拼接注解内的全部字符串字面量，并取其后的方法名
+     */
+    private static List<String[]> readQueries(File file) throws IOException {
+        String src = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        String dao = file.getName().substring(0, file.getName().length() - ".java".length());
+        List<String[]> queries = new ArrayList<>();
+        int i = 0;
+        while ((i = src.indexOf("@Query(", i)) >= 0) {
+            int j = i + "@Query(".length();
+            StringBuilder sql = new StringBuilder();
+            int depth = 1;
+            while (depth > 0) {
+                char c = src.charAt(j);
+                if (c == '"') {
+                    int k = j + 1;
+                    while (src.charAt(k) != '"') {
+                        k += src.charAt(k) == '\\' ? 2 : 1;
+                    }
+                    sql.append(src, j + 1, k);
+                    j = k + 1;
+                    continue;
+                }
+                if (c == '(') depth++;
+                else if (c == ')') depth--;
+                j++;
+            }
+            Matcher m = METHOD_NAME.matcher(src);
+            if (!m.find(j)) throw new AssertionError("No method after @Query in " + file);
+            queries.add(new String[]{dao + "#" + m.group(1), sql.toString().replace("\\\"", "\"")});
+            i = j;
+        }
+        return queries;
+    }
+
+    /**
+     * 查询计划的 detail 列，多行以 " | " 连接
+     */
+    private String explain(String sql) {
+        StringBuilder sb = new StringBuilder();
+        try (Cursor c = db.query("EXPLAIN QUERY PLAN " + sql)) {
+            int detail = c.getColumnIndexOrThrow("detail");
+            while (c.moveToNext()) {
+                if (sb.length() > 0) sb.append(" | ");
+                sb.append(c.getString(detail));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isViolation(String plan) {
+        for (String step : plan.split(" \\| ")) {
+            if (step.contains(TEMP_B_TREE)) return true;
+            if (FULL_SCAN.matcher(step).find()) return true;
+        }
+        return false;
+    }
+}
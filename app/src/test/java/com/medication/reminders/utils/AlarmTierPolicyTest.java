@@ -0,0 +1,90 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowAlarmManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 闹钟分级策略测试
+ * 反复替换同一个尚未触发的闹钟不消耗精准闹钟预算，新的唤醒（新闹钟、上一个已触发、时间提前）才计入
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AlarmTierPolicyTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final int FLAGS = PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE;
+
+    private Context context;
+    private AlarmManager am;
+    private VirtualClock clock;
+    private long start;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        ShadowAlarmManager.setCanScheduleExactAlarms(true);
+        // 预算是进程内的静态状态，远离其他测试使用过的时间，避免窗口内残留记录
+        start = LocalDateTime.of(2100, 1, 5, 0, 0).atZone(ZONE).toInstant().toEpochMilli();
+        clock = new VirtualClock(start, ZONE);
+        ReminderClock.set(clock);
+    }
+
+    @After
+    public void tearDown() {
+        ReminderClock.set(null);
+    }
+
+    @Test
+    public void budget_chargedOnlyForNewWakeUps() {
+        long triggerAt = start + HOUR_MILLIS;
+        for (int i = 0; i < 2 * AlarmTierPolicy.EXACT_BUDGET_PER_HOUR; i++) {
+            assertEquals(AlarmTierPolicy.Tier.EXACT, arm(1, triggerAt));
+        }
+        // 推后同样只是替换
+        assertEquals(AlarmTierPolicy.Tier.EXACT, arm(1, triggerAt + 60_000L));
+
+        // 上面只扣了一次，其余预算留给新的唤醒
+        for (int i = 1; i < AlarmTierPolicy.EXACT_BUDGET_PER_HOUR; i++) {
+            assertEquals(AlarmTierPolicy.Tier.EXACT, arm(100 + i, triggerAt));
+        }
+        assertEquals(AlarmTierPolicy.Tier.WINDOW, arm(200, triggerAt));
+
+        // 提前触发时间会多一次唤醒，预算已用尽时降级；未提前的替换仍保持精准
+        assertEquals(AlarmTierPolicy.Tier.WINDOW, arm(1, triggerAt - 60_000L));
+        assertEquals(AlarmTierPolicy.Tier.EXACT, arm(101, triggerAt));
+
+        // 一天后预算已恢复；每次触发后为下一次提醒重新注册，都是新的唤醒
+        clock.advanceTo(start + 24 * HOUR_MILLIS);
+        triggerAt = clock.currentTimeMillis() + 60_000L;
+        assertEquals(AlarmTierPolicy.Tier.EXACT, arm(2, triggerAt));
+        for (int i = 1; i < AlarmTierPolicy.EXACT_BUDGET_PER_HOUR; i++) {
+            clock.advanceTo(triggerAt);
+            triggerAt += 60_000L;
+            assertEquals(AlarmTierPolicy.Tier.EXACT, arm(2, triggerAt));
+        }
+        clock.advanceTo(triggerAt);
+        assertEquals(AlarmTierPolicy.Tier.WINDOW, arm(2, triggerAt + 60_000L));
+    }
+
+    private AlarmTierPolicy.Tier arm(int requestCode, long triggerAt) {
+        PendingIntent pi = PendingIntent.getBroadcast(context, requestCode, new Intent("test.ALARM"), FLAGS);
+        return AlarmTierPolicy.arm(context, am, triggerAt, pi, false);
+    }
+}
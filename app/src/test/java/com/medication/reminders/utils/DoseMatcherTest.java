@@ -0,0 +1,141 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.DoseTiming;
+import com.medication.reminders.enums.OccurrenceStatus;
+import com.medication.reminders.models.DoseTimes;
+import com.medication.reminders.repository.MedicationIntakeRecordRepository;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 服药记录匹配测试
+ * 覆盖两侧候选的取舍、已占用的提醒、准时/迟服窗口的边界，以及迟服改写已补录的漏服记录
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DoseMatcherTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long T = LocalDateTime.of(2026, 1, 5, 8, 0).atZone(ZONE).toInstant().toEpochMilli();
+
+    @After
+    public void tearDown() {
+        ReminderClock.set(null);
+        MedicationDatabase.closeDatabase();
+    }
+
+    @Test
+    public void match_picksNearerSide() {
+        // 08:00 与 12:00 两次提醒
+        DoseMatcher matcher = new DoseMatcher(new long[]{T, T + 4 * HOUR}, new long[]{1, 2});
+        // 11:40：12:00 提前 20 分钟比 08:00 迟 3 小时 40 分钟更近
+        assertEquals(1, matcher.match(T + 3 * HOUR + 40 * MINUTE));
+        // 08:20：12:00 不在提前窗口内，只能迟服匹配 08:00
+        assertEquals(0, new DoseMatcher(new long[]{T, T + 4 * HOUR}, new long[]{1, 2}).match(T + 20 * MINUTE));
+    }
+
+    @Test
+    public void match_tiePrefersEarlierDose() {
+        DoseMatcher matcher = new DoseMatcher(new long[]{T, T + HOUR}, new long[]{1, 2});
+        assertEquals(0, matcher.match(T + 30 * MINUTE));
+        // 08:00 已被占用，之后同一时间只能匹配 09:00
+        assertEquals(1, matcher.match(T + 30 * MINUTE));
+        assertEquals(-1, matcher.match(T + 30 * MINUTE));
+    }
+
+    @Test
+    public void match_windowEdgesAreInclusive() {
+        assertEquals(0, single().match(T - DoseMatcher.ON_TIME_WINDOW_MILLIS));
+        assertEquals(-1, single().match(T - DoseMatcher.ON_TIME_WINDOW_MILLIS - 1));
+        assertEquals(0, single().match(T + DoseMatcher.LATE_WINDOW_MILLIS));
+        assertEquals(-1, single().match(T + DoseMatcher.LATE_WINDOW_MILLIS + 1));
+        assertEquals(0, single().match(T));
+    }
+
+    @Test
+    public void claim_skipsSlotsTakenByOtherRecords() {
+        // 两个计划同一时间提醒
+        DoseMatcher matcher = new DoseMatcher(new long[]{T - HOUR, T, T}, new long[]{1, 1, 2});
+        assertTrue(matcher.claim(1, T));
+        assertFalse(matcher.claim(3, T));
+        assertFalse(matcher.claim(1, T + MINUTE));
+
+        assertEquals(2, matcher.match(T));
+        assertEquals(2L, matcher.getScheduleId(2));
+        // 同一时间的提醒都已占用，退而匹配更早的一次
+        assertEquals(0, matcher.match(T));
+        assertEquals(-1, matcher.match(T));
+    }
+
+    @Test
+    public void classify_byMatchedDose() {
+        assertEquals(DoseTiming.ON_TIME, DoseMatcher.classify(1, T, T - DoseMatcher.ON_TIME_WINDOW_MILLIS));
+        assertEquals(DoseTiming.ON_TIME, DoseMatcher.classify(1, T, T + DoseMatcher.ON_TIME_WINDOW_MILLIS));
+        assertEquals(DoseTiming.LATE, DoseMatcher.classify(1, T, T + DoseMatcher.ON_TIME_WINDOW_MILLIS + 1));
+        assertEquals(DoseTiming.EXTRA, DoseMatcher.classify(0, 0, T));
+    }
+
+    @Test
+    public void lateDose_rewritesMissedRecord() {
+        Context context = ApplicationProvider.getApplicationContext();
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        long takenAt = T + 2 * HOUR;
+        ReminderClock.set(new VirtualClock(takenAt, ZONE));
+        MedicationInfo medication = new MedicationInfo("阿司匹林", "白色", "片剂");
+        medication.setDosagePerIntake(1);
+        medication.setId(db.medicationDao().insertMedication(medication));
+        MedicationSchedule s = new MedicationSchedule();
+        s.setMedicationId(medication.getId());
+        s.setDoseTimes(DoseTimes.parse("08:00"));
+        s.setEnabled(true);
+        s.setNextReminderAt(T + 24 * HOUR);
+        s.setId(db.medicationScheduleDao().insert(s));
+        long missedId = db.medicationIntakeRecordDao().insertIntakeRecord(
+                MedicationIntakeRecord.missed(medication.getId(), medication.getName(), s.getId(), T));
+
+        new MedicationIntakeRecordRepository(context).consumeDoseSync(medication.getId(), 0L, takenAt);
+
+        // 漏服记录不占用提醒，迟服匹配到同一次提醒并改写该记录
+        assertNull(db.medicationIntakeRecordDao().getMissedRecordSync(s.getId(), T));
+        MedicationIntakeRecord record = db.medicationIntakeRecordDao().getIntakeRecordByIdSync(missedId);
+        assertEquals(OccurrenceStatus.TAKEN.getIndex(), record.getStatus());
+        assertEquals(s.getId(), record.getScheduleId());
+        assertEquals(T, record.getScheduledAt());
+        assertEquals(takenAt, record.getIntakeTime());
+        assertEquals(DoseTiming.LATE, DoseMatcher.classify(record));
+        assertEquals(1, countIntakeRecords(db, s.getId()));
+    }
+
+    private static DoseMatcher single() {
+        return new DoseMatcher(new long[]{T}, new long[]{1});
+    }
+
+    private static int countIntakeRecords(MedicationDatabase db, long scheduleId) {
+        try (Cursor c = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT COUNT(*) FROM medication_intake_record WHERE schedule_id = ?", new Object[]{scheduleId})) {
+            c.moveToFirst();
+            return c.getInt(0);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.AlarmManager;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationIntakeRecord;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.enums.OccurrenceStatus;
+import com.medication.reminders.models.DoseTimes;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * 批量重排测试
+ * 10k 个启用计划在开机与时区变化两种路径下都须在固定时间预算内完成重排，
+ * 且单闹钟模式下只注册一个系统闹钟；关机期间错过的提醒在重排前补录为漏服
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReminderRearmerTest {
+
+    private static final int SCHEDULE_COUNT = 10_000;
+    private static final int MEDICATION_COUNT = 100;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // 开机路径：一次读取、单遍计算、单事务写回、一次建堆
+    private static final long BOOT_BUDGET_MILLIS = 5_000;
+    // 时间/时区变化路径另外重新展开 7 天的提醒实例（约 14 万行）
+    private static final long ZONE_CHANGE_BUDGET_MILLIS = 15_000;
+
+    private Context context;
+    private MedicationDatabase db;
+    private long now;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = MedicationDatabase.getDatabase(context);
+        now = System.currentTimeMillis();
+        ReminderScheduler.setMode(ReminderScheduler.Mode.SINGLE_ALARM);
+        ReminderScheduler.setDispatcher(null);
+    }
+
+    @After
+    public void tearDown() {
+        ReminderClock.set(null);
+        MedicationDatabase.closeDatabase();
+    }
+
+    @Test
+    public void rearmAfterBoot_10kSchedulesWithinBudget() {
+        seed();
+        long start = System.nanoTime();
+        int n = ReminderRearmer.rearmAll(context, now, false);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(SCHEDULE_COUNT, n);
+        assertTrue("Re-arming " + n + " schedules took " + elapsedMillis + " ms",
+                elapsedMillis <= BOOT_BUDGET_MILLIS);
+        assertRearmed();
+    }
+
+    @Test
+    public void rearmAfterZoneChange_10kSchedulesWithinBudget() {
+        seed();
+        long start = System.nanoTime();
+        int n = ReminderRearmer.rearmAll(context, now, true);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(SCHEDULE_COUNT, n);
+        assertTrue("Re-arming " + n + " schedules took " + elapsedMillis + " ms",
+                elapsedMillis <= ZONE_CHANGE_BUDGET_MILLIS);
+        assertRearmed();
+        // 每个计划每天至少一次，7 天窗口内至少 6 个完整日（与夏令时切换无关）
+        int pending = db.reminderOccurrenceDao().countByStatusBetween(
+                now, now + OccurrenceHorizon.HORIZON_MILLIS, OccurrenceStatus.PENDING.getIndex());
+        assertTrue("Only " + pending + " occurrences expanded", pending >= 6 * SCHEDULE_COUNT);
+    }
+
+    @Test
+    public void rearmAfterBoot_recordsDoseMissedWhileOff() {
+        ZoneId zone = ZoneId.of("Asia/Shanghai");
+        long dose = LocalDateTime.of(2026, 1, 5, 8, 0).atZone(zone).toInstant().toEpochMilli();
+        long bootAt = dose + 3 * 60 * 60 * 1000L;
+        ReminderClock.set(new VirtualClock(bootAt, zone));
+        MedicationInfo medication = new MedicationInfo("药品", "白色", "片剂");
+        medication.setId(db.medicationDao().insertMedication(medication));
+        MedicationSchedule s = new MedicationSchedule();
+        s.setMedicationId(medication.getId());
+        s.setDoseTimes(DoseTimes.parse("08:00"));
+        s.setEnabled(true);
+        s.setNextReminderAt(dose);
+        s.setId(db.medicationScheduleDao().insert(s));
+
+        ReminderRearmer.rearmAll(context, bootAt, false);
+
+        MedicationIntakeRecord missed = db.medicationIntakeRecordDao().getMissedRecordSync(s.getId(), dose);
+        assertNotNull(missed);
+        assertEquals(medication.getId(), missed.getMedicationId().longValue());
+        assertNull(db.medicationIntakeRecordDao().getMissedRecordSync(s.getId(), dose + DAY_MILLIS));
+        assertEquals(dose + DAY_MILLIS, db.medicationScheduleDao().getByIdSync(s.getId()).getNextReminderAt());
+
+        // 再次重排（如随后的对账任务）不会重复补录
+        ReminderRearmer.rearmAll(context, bootAt + 60_000L, false);
+        assertEquals(1, countIntakeRecords(s.getId()));
+    }
+
+    private int countIntakeRecords(long scheduleId) {
+        try (Cursor c = db.getOpenHelper().getReadableDatabase().query(
+                "SELECT COUNT(*) FROM medication_intake_record WHERE schedule_id = ?", new Object[]{scheduleId})) {
+            c.moveToFirst();
+            return c.getInt(0);
+        }
+    }
+
+    private void assertRearmed() {
+        List<MedicationSchedule> schedules = db.medicationScheduleDao().getAllEnabledSchedulesSync();
+        assertEquals(SCHEDULE_COUNT, schedules.size());
+        for (MedicationSchedule s : schedules) {
+            assertTrue("Schedule " + s.getId() + " not re-armed", s.getNextReminderAt() > now);
+        }
+        assertEquals(SCHEDULE_COUNT, ReminderAlarmQueue.getInstance(context).size());
+        AlarmManager am = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        assertEquals(1, shadowOf(am).getScheduledAlarms().size());
+    }
+
+    /**
+     * 100 种药品、10k 个每日计划（每天 1~3 次），下一次提醒时间均已过期但仍在漏服宽限内
+     */
+    private void seed() {
+        long[] medicationIds = new long[MEDICATION_COUNT];
+        for (int m = 0; m < MEDICATION_COUNT; m++) {
+            medicationIds[m] = db.medicationDao().insertMedication(new MedicationInfo("药品" + m, "白色", "片剂"));
+        }
+        String[] doseTimes = {"08:00", "08:00,20:00", "07:30,12:00,18:30"};
+        db.runInTransaction(() -> {
+            for (int i = 0; i < SCHEDULE_COUNT; i++) {
+                MedicationSchedule s = new MedicationSchedule();
+                s.setMedicationId(medicationIds[i % MEDICATION_COUNT]);
+                s.setDoseTimes(DoseTimes.parse(doseTimes[i % doseTimes.length]));
+                s.setEnabled(true);
+                s.setNextReminderAt(now - (i % 50 + 1) * 60_000L);
+                db.medicationScheduleDao().insert(s);
+            }
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.DoseTimes;
+import com.medication.reminders.models.ReminderPayload;
+import com.medication.reminders.view.ReminderReceiver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 单闹钟模式测试
+ * 在合成的计划集上对比两种模式一天内注册的系统闹钟数与唤醒次数，
+ * 并检查与堆顶同时到期的计划加入后全局闹钟的载荷随之更新
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReminderSchedulerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // 合成计划集：200 个每日计划分布在 07:00~22:45 的 64 个整刻钟上
+    private static final int SCHEDULE_COUNT = 200;
+    private static final int DISTINCT_TIMES = 64;
+
+    private Context context;
+    private MedicationDatabase db;
+    private VirtualClock clock;
+    private long start;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        db = MedicationDatabase.getDatabase(context);
+        start = LocalDateTime.of(2026, 1, 5, 0, 0).atZone(ZONE).toInstant().toEpochMilli();
+        clock = new VirtualClock(start, ZONE);
+        ReminderClock.set(clock);
+        ReminderAlarmQueue.getInstance(context).replaceAll(new long[0], new long[0], null);
+    }
+
+    @After
+    public void tearDown() {
+        ReminderScheduler.setMode(ReminderScheduler.Mode.SINGLE_ALARM);
+        ReminderScheduler.setDispatcher(null);
+        ReminderClock.set(null);
+        MedicationDatabase.closeDatabase();
+    }
+
+    @Test
+    public void perScheduleMode_armsOneAlarmPerScheduleAndWakesOncePerDose() {
+        Measurement m = measureOneDay(ReminderScheduler.Mode.PER_SCHEDULE);
+
+        assertEquals(SCHEDULE_COUNT, m.maxArmed);
+        assertEquals(SCHEDULE_COUNT, m.wakeUps);
+        assertEquals(SCHEDULE_COUNT, m.reminded.size());
+    }
+
+    @Test
+    public void singleAlarmMode_armsOneAlarmAndWakesOncePerDistinctTime() {
+        Measurement m = measureOneDay(ReminderScheduler.Mode.SINGLE_ALARM);
+
+        assertEquals(1, m.maxArmed);
+        assertEquals(DISTINCT_TIMES, m.wakeUps);
+        // 同一时刻到期的计划由一次唤醒全部提醒
+        assertEquals(SCHEDULE_COUNT, m.reminded.size());
+    }
+
+    @Test
+    public void scheduleAtHeadTime_updatesArmedPayloads() {
+        CountingDispatcher dispatcher = new CountingDispatcher(clock);
+        ReminderScheduler.setMode(ReminderScheduler.Mode.SINGLE_ALARM);
+        ReminderScheduler.setDispatcher(dispatcher);
+        MedicationInfo medication = insertMedication("阿司匹林");
+
+        MedicationSchedule first = insertSchedule(medication, "08:00");
+        ReminderScheduler.scheduleNext(context, first, medication);
+        assertEquals(Set.of(first.getId()), armedScheduleIds(dispatcher));
+
+        // 与堆顶同一时间：堆顶时间不变，但全局闹钟须携带新计划的载荷
+        MedicationSchedule second = insertSchedule(medication, "08:00");
+        ReminderScheduler.scheduleNext(context, second, medication);
+        assertEquals(Set.of(first.getId(), second.getId()), armedScheduleIds(dispatcher));
+
+        // 从合并窗口中移除同样更新载荷
+        ReminderScheduler.cancel(context, second.getId());
+        assertEquals(Set.of(first.getId()), armedScheduleIds(dispatcher));
+
+        // 窗口外的计划不影响已注册的闹钟
+        int dispatched = dispatcher.dispatchCount;
+        ReminderScheduler.scheduleNext(context, insertSchedule(medication, "20:00"), medication);
+        assertEquals(dispatched, dispatcher.dispatchCount);
+    }
+
+    /**
+     * 按指定模式注册合成计划集，并在虚拟时钟上运行一天
+     */
+    private Measurement measureOneDay(ReminderScheduler.Mode mode) {
+        Measurement m = new Measurement();
+        CountingDispatcher dispatcher = new CountingDispatcher(clock, intent -> {
+            for (ReminderPayload p : ReminderPayload.readAll(intent)) m.reminded.add(p.getScheduleId());
+            ReminderReceiver.deliver(context, intent);
+        });
+        ReminderScheduler.setMode(mode);
+        ReminderScheduler.setDispatcher(dispatcher);
+
+        List<MedicationSchedule> schedules = new ArrayList<>();
+        MedicationInfo medication = insertMedication("阿司匹林");
+        for (int i = 0; i < SCHEDULE_COUNT; i++) {
+            int slot = i % DISTINCT_TIMES;
+            schedules.add(insertSchedule(medication,
+                    String.format("%02d:%02d", 7 + slot / 4, (slot % 4) * 15)));
+        }
+        ReminderScheduler.scheduleAll(context, schedules);
+
+        dispatcher.runUntil(start + DAY_MILLIS);
+        m.maxArmed = dispatcher.maxPending;
+        m.wakeUps = dispatcher.getDeliveredCount();
+        return m;
+    }
+
+    private MedicationInfo insertMedication(String name) {
+        MedicationInfo medication = new MedicationInfo(name, "白色", "片剂");
+        medication.setId(db.medicationDao().insertMedication(medication));
+        return medication;
+    }
+
+    private MedicationSchedule insertSchedule(MedicationInfo medication, String times) {
+        MedicationSchedule s = new MedicationSchedule();
+        s.setMedicationId(medication.getId());
+        s.setDoseTimes(DoseTimes.parse(times));
+        s.setEnabled(true);
+        s.setNextReminderAt(ReminderCalculator.computeNextReminderEpochMillis(s));
+        s.setId(db.medicationScheduleDao().insert(s));
+        return s;
+    }
+
+    private static Set<Long> armedScheduleIds(VirtualClockDispatcher dispatcher) {
+        List<Intent> pending = dispatcher.pendingIntents();
+        assertEquals(1, pending.size());
+        Set<Long> ids = new HashSet<>();
+        for (ReminderPayload p : ReminderPayload.readAll(pending.get(0))) ids.add(p.getScheduleId());
+        return ids;
+    }
+
+    private static final class Measurement {
+        final Set<Long> reminded = new HashSet<>();
+        int maxArmed;
+        long wakeUps;
+    }
+
+    /**
+     * 记录注册次数与同时待投递任务数峰值的虚拟时钟投递后端
+     */
+    private static final class CountingDispatcher extends VirtualClockDispatcher {
+        int dispatchCount;
+        int maxPending;
+
+        CountingDispatcher(VirtualClock clock) {
+            this(clock, intent -> { });
+        }
+
+        CountingDispatcher(VirtualClock clock, Sink sink) {
+            super(clock, sink);
+        }
+
+        @Override
+        public synchronized void dispatch(Context context, int requestCode, long triggerAt, Intent intent,
+                                          boolean critical) {
+            super.dispatch(context, requestCode, triggerAt, intent, critical);
+            dispatchCount++;
+            maxPending = Math.max(maxPending, pendingCount());
+        }
+    }
+}
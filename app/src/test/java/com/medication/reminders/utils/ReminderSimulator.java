@@ -0,0 +1,313 @@
+package com.medication.reminders.utils;
+
+import com.medication.reminders.database.entity.MedicationSchedule;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 提醒模拟器（无界面、无数据库）
+ * 在虚拟时钟上推进一组计划，按模拟的患者行为（服用、稍后提醒、漏服）生成提醒时间线，
+ * 下一次提醒与 {@link ReminderCalculator} 一样由编译后的 {@link SchedulePlan} 计算。
+ * 用于回归检查循环规则（含夏令时切换）以及作为性能测试的负载，1000个计划模拟一年只需数秒
+ *
+ * 与应用内流程一致：
+ * - 提醒触发后下一次按计划的提醒立即确定（未确认的剂量不会推迟后续提醒）
+ * - 服用后从服用时间重新计算下一次提醒
+ * - 稍后提醒在 {@link #DEFAULT_SNOOZE_MILLIS} 后再次提醒同一剂量，晚于下一次按计划提醒时视为漏服
+ */
+public class ReminderSimulator {
+
+    public static final int EVENT_REMINDER = 0;
+    public static final int EVENT_SNOOZE = 1;
+    public static final int EVENT_INTAKE = 2;
+    public static final int EVENT_MISSED = 3;
+
+    // 与通知中“稍后提醒”按钮一致
+    public static final long DEFAULT_SNOOZE_MILLIS = 10 * 60 * 1000L;
+
+    private static final byte PENDING_FIRE = 0;
+    private static final byte PENDING_INTAKE = 1;
+
+    /**
+     * 患者对一次提醒的反应
+     */
+    public static final class Response {
+
+        private static final Response SNOOZE = new Response(EVENT_SNOOZE, 0L);
+        private static final Response MISS = new Response(EVENT_MISSED, 0L);
+
+        private final int type;
+        private final long delayMillis;
+
+        private Response(int type, long delayMillis) {
+            this.type = type;
+            this.delayMillis = delayMillis;
+        }
+
+        /**
+         * 在提醒后 delayMillis 服用
+         */
+        public static Response take(long delayMillis) {
+            return new Response(EVENT_INTAKE, Math.max(0L, delayMillis));
+        }
+
+        public static Response snooze() { return SNOOZE; }
+        public static Response miss() { return MISS; }
+
+        public int getType() { return type; }
+        public long getDelayMillis() { return delayMillis; }
+    }
+
+    /**
+     * 患者行为模型
+     */
+    public interface Behavior {
+        /**
+         * @param schedule 触发提醒的计划
+         * @param scheduledAt 本剂量的计划时间
+         * @param firedAt 本次提醒时间（稍后提醒后晚于计划时间）
+         * @param snoozeCount 本剂量已稍后提醒的次数
+         * @param random 模拟器的随机数源，同一种子下结果可复现
+         */
+        Response respond(MedicationSchedule schedule, long scheduledAt, long firedAt, int snoozeCount,
+                         SplittableRandom random);
+    }
+
+    /**
+     * 按固定概率服用/稍后提醒/漏服，服用延迟服从指数分布
+     */
+    public static class ProbabilisticBehavior implements Behavior {
+
+        private final double takeProbability;
+        private final double snoozeProbability;
+        private final int maxSnoozes;
+        private final long meanTakeDelayMillis;
+
+        public ProbabilisticBehavior(double takeProbability, double snoozeProbability, int maxSnoozes,
+                                     long meanTakeDelayMillis) {
+            this.takeProbability = takeProbability;
+            this.snoozeProbability = snoozeProbability;
+            this.maxSnoozes = maxSnoozes;
+            this.meanTakeDelayMillis = meanTakeDelayMillis;
+        }
+
+        @Override
+        public Response respond(MedicationSchedule schedule, long scheduledAt, long firedAt, int snoozeCount,
+                                SplittableRandom random) {
+            double r = random.nextDouble();
+            if (snoozeCount < maxSnoozes) {
+                if (r < snoozeProbability) return Response.snooze();
+                r -= snoozeProbability;
+            }
+            if (r < takeProbability) {
+                double u = 1.0 - random.nextDouble(); // (0, 1]
+                return Response.take((long) (-Math.log(u) * meanTakeDelayMillis));
+            }
+            return Response.miss();
+        }
+    }
+
+    /**
+     * 时间线事件接收者，事件按时间先后（同一时间按计划顺序）回调
+     */
+    public interface Listener {
+        void onEvent(int type, long scheduleId, long at, long scheduledAt);
+    }
+
+    /**
+     * 以并列基本类型数组保存的时间线，百万级事件也不产生逐个对象
+     */
+    public static final class Timeline implements Listener {
+
+        private byte[] types = new byte[1024];
+        private long[] scheduleIds = new long[1024];
+        private long[] ats = new long[1024];
+        private long[] scheduledAts = new long[1024];
+        private int size;
+
+        @Override
+        public void onEvent(int type, long scheduleId, long at, long scheduledAt) {
+            if (size == types.length) {
+                int newLength = size * 2;
+                types = Arrays.copyOf(types, newLength);
+                scheduleIds = Arrays.copyOf(scheduleIds, newLength);
+                ats = Arrays.copyOf(ats, newLength);
+                scheduledAts = Arrays.copyOf(scheduledAts, newLength);
+            }
+            types[size] = (byte) type;
+            scheduleIds[size] = scheduleId;
+            ats[size] = at;
+            scheduledAts[size] = scheduledAt;
+            size++;
+        }
+
+        public int size() { return size; }
+        public int getType(int i) { return types[i]; }
+        public long getScheduleId(int i) { return scheduleIds[i]; }
+        public long getAt(int i) { return ats[i]; }
+        public long getScheduledAt(int i) { return scheduledAts[i]; }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * 模拟结果汇总
+     */
+    public static final class Result {
+        private final long[] counts;
+        private final long finishedAt;
+
+        private Result(long[] counts, long finishedAt) {
+            this.counts = counts;
+            this.finishedAt = finishedAt;
+        }
+
+        public long getReminderCount() { return counts[EVENT_REMINDER]; }
+        public long getSnoozeCount() { return counts[EVENT_SNOOZE]; }
+        public long getIntakeCount() { return counts[EVENT_INTAKE]; }
+        public long getMissedCount() { return counts[EVENT_MISSED]; }
+        public long getEventCount() { return counts[0] + counts[1] + counts[2] + counts[3]; }
+
+        /**
+         * 模拟结束时虚拟时钟的时间
+         */
+        public long getFinishedAt() { return finishedAt; }
+    }
+
+    private final Behavior behavior;
+    private final SplittableRandom random;
+    private long snoozeMillis = DEFAULT_SNOOZE_MILLIS;
+    private VirtualClock clock;
+
+    public ReminderSimulator(Behavior behavior, long seed) {
+        this.behavior = behavior;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public void setSnoozeMillis(long snoozeMillis) {
+        this.snoozeMillis = Math.max(1L, snoozeMillis);
+    }
+
+    /**
+     * 当前（或最近一次）模拟所用的虚拟时钟，监听器回调时即为事件时间
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * 在 [from, to) 内模拟一组计划，停用的计划不参与
+     *
+     * @param listener 时间线接收者，可为null（只统计数量）
+     */
+    public Result run(List<MedicationSchedule> schedules, long from, long to, ZoneId zone, Listener listener) {
+        clock = new VirtualClock(from, zone);
+        long[] counts = new long[4];
+        int n = schedules == null ? 0 : schedules.size();
+
+        MedicationSchedule[] active = new MedicationSchedule[n];
+        SchedulePlan[] plans = new SchedulePlan[n];
+        long[] pendingAt = new long[n];
+        byte[] pendingKind = new byte[n];
+        long[] doseAt = new long[n];
+        long[] regularNext = new long[n];
+        int[] snoozes = new int[n];
+        int[] heap = new int[n];
+        int size = 0;
+
+        // 各计划同一时刻最多一个待处理事件（提醒或服用），以计划下标组成按时间的最小堆
+        for (int k = 0; k < n; k++) {
+            MedicationSchedule s = schedules.get(k);
+            if (s == null || !s.isEnabled()) continue;
+            SchedulePlan plan = SchedulePlan.compile(s, clock.zone(), from);
+            long first = plan.nextAfter(from - 1);
+            if (first <= 0 || first >= to) continue;
+            int i = size;
+            active[i] = s;
+            plans[i] = plan;
+            pendingAt[i] = first;
+            pendingKind[i] = PENDING_FIRE;
+            doseAt[i] = first;
+            heap[size++] = i;
+        }
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, size, i, pendingAt);
+        }
+
+        while (size > 0) {
+            int i = heap[0];
+            long t = pendingAt[i];
+            clock.advanceTo(t);
+            long scheduleId = active[i].getId();
+            long next;
+
+            if (pendingKind[i] == PENDING_INTAKE) {
+                emit(listener, counts, EVENT_INTAKE, scheduleId, t, doseAt[i]);
+                // 服用后从服用时间重新计算下一次提醒
+                next = plans[i].nextAfter(t);
+                pendingKind[i] = PENDING_FIRE;
+                doseAt[i] = next;
+                snoozes[i] = 0;
+            } else {
+                emit(listener, counts, EVENT_REMINDER, scheduleId, t, doseAt[i]);
+                // 首次提醒时确定下一次按计划的提醒，稍后提醒不改变它
+                if (snoozes[i] == 0) regularNext[i] = plans[i].nextAfter(t);
+                long regular = regularNext[i] > 0 && regularNext[i] < to ? regularNext[i] : Long.MAX_VALUE;
+                Response response = behavior.respond(active[i], doseAt[i], t, snoozes[i], random);
+
+                if (response.getType() == EVENT_INTAKE) {
+                    // 服用晚于下一次提醒时视为在下一次提醒前服用
+                    next = Math.min(t + response.getDelayMillis(), regular - 1);
+                    pendingKind[i] = PENDING_INTAKE;
+                } else if (response.getType() == EVENT_SNOOZE && t + snoozeMillis < regular) {
+                    emit(listener, counts, EVENT_SNOOZE, scheduleId, t, doseAt[i]);
+                    next = t + snoozeMillis;
+                    snoozes[i]++;
+                } else {
+                    if (response.getType() == EVENT_SNOOZE) {
+                        emit(listener, counts, EVENT_SNOOZE, scheduleId, t, doseAt[i]);
+                    }
+                    emit(listener, counts, EVENT_MISSED, scheduleId, t, doseAt[i]);
+                    next = regular == Long.MAX_VALUE ? 0L : regular;
+                    pendingKind[i] = PENDING_FIRE;
+                    doseAt[i] = next;
+                    snoozes[i] = 0;
+                }
+            }
+
+            if (next <= 0 || next >= to) {
+                heap[0] = heap[--size];
+            } else {
+                pendingAt[i] = next;
+            }
+            siftDown(heap, size, 0, pendingAt);
+        }
+        clock.advanceTo(to);
+        return new Result(counts, clock.currentTimeMillis());
+    }
+
+    private static void emit(Listener listener, long[] counts, int type, long scheduleId, long at, long scheduledAt) {
+        counts[type]++;
+        if (listener != null) listener.onEvent(type, scheduleId, at, scheduledAt);
+    }
+
+    private static boolean less(int a, int b, long[] keys) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private static void siftDown(int[] heap, int size, int i, long[] keys) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && less(heap[child + 1], heap[child], keys)) child++;
+            if (!less(heap[child], heap[i], keys)) break;
+            int t = heap[i]; heap[i] = heap[child]; heap[child] = t;
+            i = child;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.DoseTimes;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 提醒模拟器测试：一年的每日提醒、夏令时切换以及 1000 个计划一年的耗时
+ */
+public class ReminderSimulatorTest {
+
+    private static final ZoneId SHANGHAI = ZoneId.of("Asia/Shanghai");
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    // 1000 个计划模拟一年的时间预算
+    private static final long YEAR_BUDGET_MILLIS = 10_000;
+
+    @Test
+    public void alwaysTaken_oneReminderAndIntakePerDose() {
+        ReminderSimulator simulator = new ReminderSimulator(
+                (s, scheduledAt, firedAt, snoozeCount, random) -> ReminderSimulator.Response.take(5 * 60_000L), 1);
+        ReminderSimulator.Timeline timeline = new ReminderSimulator.Timeline();
+        long from = startOfYear(2026, SHANGHAI);
+        long to = startOfYear(2027, SHANGHAI);
+
+        ReminderSimulator.Result result = simulator.run(
+                Collections.singletonList(schedule(1, "08:00,20:00")), from, to, SHANGHAI, timeline);
+
+        assertEquals(730, result.getReminderCount());
+        assertEquals(730, result.getIntakeCount());
+        assertEquals(0, result.getSnoozeCount());
+        assertEquals(0, result.getMissedCount());
+        assertEquals(to, result.getFinishedAt());
+        for (int i = 0; i < timeline.size(); i++) {
+            if (timeline.getType(i) == ReminderSimulator.EVENT_INTAKE) {
+                assertEquals(timeline.getScheduledAt(i) + 5 * 60_000L, timeline.getAt(i));
+            }
+            if (i > 0) assertTrue(timeline.getAt(i) >= timeline.getAt(i - 1));
+        }
+    }
+
+    @Test
+    public void daylightSavingTransitions_keepLocalReminderTime() {
+        ReminderSimulator simulator = new ReminderSimulator(
+                (s, scheduledAt, firedAt, snoozeCount, random) -> ReminderSimulator.Response.miss(), 1);
+        ReminderSimulator.Timeline timeline = new ReminderSimulator.Timeline();
+        // 08:00 不受切换影响；02:30 在 3 月 8 日落入空档，01:30 在 11 月 1 日出现两次
+        List<MedicationSchedule> schedules = Arrays.asList(
+                schedule(1, "08:00"), schedule(2, "02:30"), schedule(3, "01:30"));
+
+        ReminderSimulator.Result result = simulator.run(schedules,
+                startOfYear(2026, NEW_YORK), startOfYear(2027, NEW_YORK), NEW_YORK, timeline);
+
+        // 3 月与 11 月的切换日也各提醒一次
+        assertEquals(3 * 365, result.getReminderCount());
+        assertEquals(3 * 365, result.getMissedCount());
+        LocalDate springForward = LocalDate.of(2026, 3, 8);
+        LocalDate fallBack = LocalDate.of(2026, 11, 1);
+        // 空档内的时间取切换时刻（当地 03:00 EDT），重叠时取较早的偏移（EDT）
+        long gapAt = NEW_YORK.getRules().getTransition(LocalDateTime.of(springForward, LocalTime.of(2, 30)))
+                .getInstant().toEpochMilli();
+        long overlapAt = LocalDateTime.of(fallBack, LocalTime.of(1, 30))
+                .atOffset(ZoneOffset.ofHours(-4)).toInstant().toEpochMilli();
+        Map<Long, Set<LocalDate>> days = new HashMap<>();
+        for (int i = 0; i < timeline.size(); i++) {
+            if (timeline.getType(i) != ReminderSimulator.EVENT_REMINDER) continue;
+            long id = timeline.getScheduleId(i);
+            long at = timeline.getAt(i);
+            ZonedDateTime local = Instant.ofEpochMilli(at).atZone(NEW_YORK);
+            assertTrue("Two reminders on " + local.toLocalDate() + " for schedule " + id,
+                    days.computeIfAbsent(id, k -> new HashSet<>()).add(local.toLocalDate()));
+            if (id == 2 && local.toLocalDate().equals(springForward)) {
+                assertEquals(gapAt, at);
+                assertEquals(LocalTime.of(3, 0), local.toLocalTime());
+            } else if (id == 3 && local.toLocalDate().equals(fallBack)) {
+                assertEquals(overlapAt, at);
+                assertEquals(LocalTime.of(1, 30), local.toLocalTime());
+            } else {
+                assertEquals(schedules.get((int) id - 1).getDoseTimes().getMinuteOfDay(0),
+                        local.getHour() * 60 + local.getMinute());
+            }
+        }
+        for (long id = 1; id <= 3; id++) {
+            assertEquals(365, days.get(id).size());
+        }
+    }
+
+    @Test
+    public void thousandSchedulesForAYear_withinBudget() {
+        String[] doseTimes = {"08:00", "08:00,20:00", "07:30,12:00,18:30"};
+        List<MedicationSchedule> schedules = new ArrayList<>();
+        long doses = 0;
+        for (int i = 0; i < 1000; i++) {
+            String times = doseTimes[i % doseTimes.length];
+            schedules.add(schedule(i + 1, times));
+            doses += 365L * times.split(",").length;
+        }
+        long from = startOfYear(2026, SHANGHAI);
+        long to = startOfYear(2027, SHANGHAI);
+        ReminderSimulator.Behavior behavior =
+                new ReminderSimulator.ProbabilisticBehavior(0.8, 0.15, 2, 15 * 60_000L);
+
+        long startNanos = System.nanoTime();
+        ReminderSimulator.Result result = new ReminderSimulator(behavior, 42).run(schedules, from, to, SHANGHAI, null);
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        assertTrue("Simulating a year took " + elapsedMillis + " ms", elapsedMillis <= YEAR_BUDGET_MILLIS);
+        // 每个剂量恰好服用或漏服一次，只有年末最后一剂的服用可能落在模拟区间之外
+        long resolved = result.getIntakeCount() + result.getMissedCount();
+        assertTrue(resolved <= doses && resolved >= doses - schedules.size());
+        assertTrue(result.getReminderCount() >= doses);
+        assertTrue(result.getSnoozeCount() > 0);
+
+        // 同一种子结果可复现
+        ReminderSimulator.Result again = new ReminderSimulator(behavior, 42).run(schedules, from, to, SHANGHAI, null);
+        assertEquals(result.getReminderCount(), again.getReminderCount());
+        assertEquals(result.getSnoozeCount(), again.getSnoozeCount());
+        assertEquals(result.getIntakeCount(), again.getIntakeCount());
+        assertEquals(result.getMissedCount(), again.getMissedCount());
+    }
+
+    private static MedicationSchedule schedule(long id, String times) {
+        MedicationSchedule s = new MedicationSchedule();
+        s.setId(id);
+        s.setMedicationId(id);
+        s.setDoseTimes(DoseTimes.parse(times));
+        s.setEnabled(true);
+        return s;
+    }
+
+    private static long startOfYear(int year, ZoneId zone) {
+        return LocalDateTime.of(year, 1, 1, 0, 0).atZone(zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,42 @@
+package com.medication.reminders.utils;
+
+import java.time.ZoneId;
+
+/**
+ * 虚拟时钟：时间只在调用 {@link #advanceTo} / {@link #advanceBy} 时前进
+ */
+public class VirtualClock extends ReminderClock {
+
+    private volatile long now;
+    private volatile ZoneId zone;
+
+    public VirtualClock(long startMillis, ZoneId zone) {
+        this.now = startMillis;
+        this.zone = zone == null ? ZoneId.systemDefault() : zone;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public ZoneId zone() {
+        return zone;
+    }
+
+    public void setZone(ZoneId zone) {
+        this.zone = zone == null ? ZoneId.systemDefault() : zone;
+    }
+
+    /**
+     * 前进到指定时间，时间不会倒退
+     */
+    public void advanceTo(long millis) {
+        if (millis > now) now = millis;
+    }
+
+    public void advanceBy(long millis) {
+        if (millis > 0) now += millis;
+    }
+}
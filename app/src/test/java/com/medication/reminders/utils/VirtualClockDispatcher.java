@@ -0,0 +1,129 @@
+package com.medication.reminders.utils;
+
+import android.content.Context;
+import android.content.Intent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内虚拟时钟投递后端（测试/压测用）
+ * 待投递任务保存在内存中，调用 {@link #runUntil} 时按触发时间先后推进虚拟时钟并交给 {@link Sink} 处理，
+ * 不依赖 AlarmManager 或 WorkManager
+ */
+public class VirtualClockDispatcher implements ReminderDispatcher {
+
+    /**
+     * 投递目标（如直接调用提醒处理逻辑）
+     */
+    public interface Sink {
+        void deliver(Intent intent);
+    }
+
+    private static final class Pending {
+        final long triggerAt;
+        final long seq;
+        final Intent intent;
+
+        Pending(long triggerAt, long seq, Intent intent) {
+            this.triggerAt = triggerAt;
+            this.seq = seq;
+            this.intent = intent;
+        }
+    }
+
+    private final VirtualClock clock;
+    private final Sink sink;
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private long seq;
+    private long deliveredCount;
+
+    public VirtualClockDispatcher(VirtualClock clock, Sink sink) {
+        this.clock = clock;
+        this.sink = sink;
+    }
+
+    @Override
+    public synchronized void dispatch(Context context, int requestCode, long triggerAt, Intent intent, boolean critical) {
+        pending.put(requestCode, new Pending(triggerAt, seq++, intent));
+    }
+
+    @Override
+    public synchronized void cancel(Context context, int requestCode, Intent intent) {
+        pending.remove(requestCode);
+    }
+
+    @Override
+    public synchronized boolean isPending(Context context, int requestCode, Intent intent) {
+        return pending.containsKey(requestCode);
+    }
+
+    /**
+     * 最早的待投递时间，没有时返回0
+     */
+    public synchronized long nextTriggerAt() {
+        long min = 0;
+        for (Pending p : pending.values()) {
+            if (min == 0 || p.triggerAt < min) min = p.triggerAt;
+        }
+        return min;
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * 按时间顺序投递所有 triggerAt <= until 的任务（投递过程中新注册的任务同样会被处理），
+     * 最后把虚拟时钟推进到 until
+     *
+     * @return 本次投递的任务数
+     */
+    public int runUntil(long until) {
+        int delivered = 0;
+        while (true) {
+            Pending next = pollEarliest(until);
+            if (next == null) break;
+            clock.advanceTo(next.triggerAt);
+            sink.deliver(next.intent);
+            delivered++;
+        }
+        clock.advanceTo(until);
+        return delivered;
+    }
+
+    private synchronized Pending pollEarliest(long until) {
+        Integer bestKey = null;
+        Pending best = null;
+        for (Map.Entry<Integer, Pending> e : pending.entrySet()) {
+            Pending p = e.getValue();
+            if (p.triggerAt > until) continue;
+            if (best == null || p.triggerAt < best.triggerAt || (p.triggerAt == best.triggerAt && p.seq < best.seq)) {
+                best = p;
+                bestKey = e.getKey();
+            }
+        }
+        if (bestKey != null) {
+            pending.remove(bestKey);
+            deliveredCount++;
+        }
+        return best;
+    }
+
+    /**
+     * 当前所有待投递任务的 intent（按注册顺序）
+     */
+    public synchronized List<Intent> pendingIntents() {
+        List<Pending> list = new ArrayList<>(pending.values());
+        list.sort((a, b) -> Long.compare(a.seq, b.seq));
+        List<Intent> result = new ArrayList<>(list.size());
+        for (Pending p : list) result.add(p.intent);
+        return result;
+    }
+}
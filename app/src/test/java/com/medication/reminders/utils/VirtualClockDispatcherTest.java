@@ -0,0 +1,132 @@
+package com.medication.reminders.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.NotificationManager;
+import android.content.Context;
+import android.content.Intent;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.medication.reminders.database.MedicationDatabase;
+import com.medication.reminders.database.entity.MedicationInfo;
+import com.medication.reminders.database.entity.MedicationSchedule;
+import com.medication.reminders.models.DoseTimes;
+import com.medication.reminders.view.ReminderReceiver;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 虚拟时钟投递后端测试
+ * 先单独验证投递顺序与时钟推进，再用它驱动单闹钟模式的完整提醒流程（调度 → 接收器 → 重新入队）
+ */
+@RunWith(RobolectricTestRunner.class)
+public class VirtualClockDispatcherTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private Context context;
+    private VirtualClock clock;
+    private long start;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        start = at(2026, 1, 5, 0, 0);
+        clock = new VirtualClock(start, ZONE);
+        ReminderClock.set(clock);
+        ReminderScheduler.setMode(ReminderScheduler.Mode.SINGLE_ALARM);
+        ReminderAlarmQueue.getInstance(context).replaceAll(new long[0], new long[0], null);
+    }
+
+    @After
+    public void tearDown() {
+        ReminderScheduler.setDispatcher(null);
+        ReminderClock.set(null);
+        MedicationDatabase.closeDatabase();
+    }
+
+    @Test
+    public void runUntil_deliversInTriggerOrderAndAdvancesClock() {
+        List<String> delivered = new ArrayList<>();
+        List<Long> deliveredAt = new ArrayList<>();
+        VirtualClockDispatcher dispatcher = new VirtualClockDispatcher(clock, intent -> {
+            delivered.add(intent.getAction());
+            deliveredAt.add(clock.currentTimeMillis());
+        });
+
+        dispatcher.dispatch(context, 1, start + 30_000, new Intent("b"), false);
+        dispatcher.dispatch(context, 2, start + 10_000, new Intent("a"), false);
+        dispatcher.dispatch(context, 3, start + 20_000, new Intent("dropped"), false);
+        dispatcher.dispatch(context, 4, start + 90_000, new Intent("later"), false);
+        // 同一 requestCode 的新任务替换旧任务
+        dispatcher.dispatch(context, 1, start + 40_000, new Intent("c"), false);
+        dispatcher.cancel(context, 3, new Intent("dropped"));
+        assertFalse(dispatcher.isPending(context, 3, new Intent("dropped")));
+        assertEquals(start + 10_000, dispatcher.nextTriggerAt());
+
+        int n = dispatcher.runUntil(start + 60_000);
+
+        assertEquals(2, n);
+        assertEquals(List.of("a", "c"), delivered);
+        assertEquals(List.of(start + 10_000, start + 40_000), deliveredAt);
+        assertEquals(start + 60_000, clock.currentTimeMillis());
+        assertTrue(dispatcher.isPending(context, 4, new Intent("later")));
+        assertEquals(1, dispatcher.pendingCount());
+    }
+
+    @Test
+    public void singleAlarmMode_firesDailyReminderOnVirtualTime() {
+        List<Long> firedAt = new ArrayList<>();
+        VirtualClockDispatcher dispatcher = new VirtualClockDispatcher(clock, intent -> {
+            firedAt.add(clock.currentTimeMillis());
+            ReminderReceiver.deliver(context, intent);
+        });
+        ReminderScheduler.setDispatcher(dispatcher);
+
+        MedicationDatabase db = MedicationDatabase.getDatabase(context);
+        MedicationInfo medication = new MedicationInfo("阿司匹林", "白色", "片剂");
+        medication.setId(db.medicationDao().insertMedication(medication));
+        MedicationSchedule schedule = new MedicationSchedule();
+        schedule.setMedicationId(medication.getId());
+        schedule.setDoseTimes(DoseTimes.parse("08:00"));
+        schedule.setEnabled(true);
+        schedule.setNextReminderAt(ReminderCalculator.computeNextReminderEpochMillis(schedule));
+        schedule.setId(db.medicationScheduleDao().insert(schedule));
+
+        ReminderScheduler.scheduleNext(context, schedule, medication);
+        assertEquals(1, dispatcher.pendingCount());
+
+        dispatcher.runUntil(start + 3 * DAY_MILLIS);
+
+        // 三天各在 08:00 触发一次，每次处理后只重新注册一个全局闹钟
+        assertEquals(List.of(at(2026, 1, 5, 8, 0), at(2026, 1, 6, 8, 0), at(2026, 1, 7, 8, 0)), firedAt);
+        assertEquals(3, dispatcher.getDeliveredCount());
+        assertEquals(1, dispatcher.pendingCount());
+        long next = at(2026, 1, 8, 8, 0);
+        assertEquals(next, dispatcher.nextTriggerAt());
+        assertEquals(next, ReminderAlarmQueue.getInstance(context).timeOf(schedule.getId()));
+        assertEquals(next, db.medicationScheduleDao().getByIdSync(schedule.getId()).getNextReminderAt());
+        assertEquals(start + 3 * DAY_MILLIS, clock.currentTimeMillis());
+
+        NotificationManager nm = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        assertFalse(shadowOf(nm).getAllNotifications().isEmpty());
+    }
+
+    private static long at(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute).atZone(ZONE).toInstant().toEpochMilli();
+    }
+}